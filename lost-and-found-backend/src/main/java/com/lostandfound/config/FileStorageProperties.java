@@ -5,9 +5,23 @@ import org.springframework.stereotype.Component;
 
 import lombok.Data;
 
+import java.util.List;
+
 @Component
 @ConfigurationProperties(prefix = "file")
 @Data
 public class FileStorageProperties {
     private String uploadDir;
+
+    private StorageMode storageMode = StorageMode.FLAT;
+
+    // Widths of the resized JPEG variants written next to each image
+    private List<Integer> thumbnailWidths = List.of(160, 480, 1024);
+
+    public enum StorageMode {
+        // One UUID_originalName file per upload, all in the upload directory
+        FLAT,
+        // Files named by SHA-256 under ab/cd/ shards, shared by identical uploads
+        CONTENT_ADDRESSED
+    }
 }
\ No newline at end of file
@@ -1,18 +1,24 @@
 package com.lostandfound.config;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
+import com.lostandfound.ratelimit.RateLimitKey;
+import com.lostandfound.ratelimit.RateLimitStore;
+import io.github.bucket4j.ConsumptionProbe;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Configuration
+@RequiredArgsConstructor
 public class RateLimitConfig {
 
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
+    private final RateLimitStore rateLimitStore;
+
+    @Value("${rate.limit.store:local}")
+    private String storeName;
 
     /**
      * Rate limit configurations - INCREASED for development
@@ -48,31 +54,35 @@ public class RateLimitConfig {
         public Duration getRefillDuration() {
             return refillDuration;
         }
-    }
 
-    public Bucket resolveBucket(String key, RateLimitType limitType) {
-        return cache.computeIfAbsent(key, k -> createNewBucket(limitType));
+        public static Duration longestRefillDuration() {
+            return Arrays.stream(values())
+                    .map(RateLimitType::getRefillDuration)
+                    .max(Duration::compareTo)
+                    .orElseThrow();
+        }
     }
 
-    private Bucket createNewBucket(RateLimitType limitType) {
-        Bandwidth limit = Bandwidth.classic(
-            limitType.getCapacity(),
-            Refill.intervally(limitType.getCapacity(), limitType.getRefillDuration())
-        );
-        return Bucket.builder()
-            .addLimit(limit)
-            .build();
+    /**
+     * Take one token from the bucket for this key in the configured store
+     */
+    public ConsumptionProbe tryConsume(RateLimitKey key) {
+        return rateLimitStore.tryConsume(key);
     }
 
-    public void clearBucket(String key) {
-        cache.remove(key);
+    public void clearBucket(RateLimitKey key) {
+        rateLimitStore.clear(key);
     }
 
     public void clearAllBuckets() {
-        cache.clear();
+        rateLimitStore.clearAll();
+    }
+
+    public String getStoreName() {
+        return storeName;
     }
 
-    public int getCacheSize() {
-        return cache.size();
+    public Map<String, Object> getStoreStats() {
+        return rateLimitStore.getStats();
     }
-}
\ No newline at end of file
+}
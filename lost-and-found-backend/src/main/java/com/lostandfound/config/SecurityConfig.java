@@ -2,6 +2,7 @@ package com.lostandfound.config;
 
 import com.lostandfound.security.JwtAuthenticationFilter;
 import com.lostandfound.security.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -76,6 +77,9 @@ public class SecurityConfig {
 
             // Authorization Rules
             .authorizeHttpRequests(auth -> auth
+                // Async dispatches (event streams) were authorized on the original request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // Public endpoints
                 .requestMatchers(
                     "/api/auth/login",
@@ -1,6 +1,12 @@
 package com.lostandfound.config;
 
+import com.lostandfound.service.FileStorageService;
+import com.lostandfound.web.ImageServingFilter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
@@ -26,6 +32,23 @@ public class WebConfig implements WebMvcConfigurer {
             .maxAge(3600);
     }
 
+    /**
+     * Uploaded images are answered by ImageServingFilter before Spring Security runs;
+     * the resource handlers below only serve them when it is switched off
+     */
+    @Bean
+    @ConditionalOnProperty(name = "image.serving.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ImageServingFilter> imageServingFilter(
+            FileStorageService fileStorageService,
+            @Value("${image.serving.flat-max-age:86400}") long flatMaxAgeSeconds,
+            @Value("${image.serving.etag-cache-size:10000}") long etagCacheSize) {
+        FilterRegistrationBean<ImageServingFilter> registration = new FilterRegistrationBean<>(
+                new ImageServingFilter(fileStorageService, flatMaxAgeSeconds, etagCacheSize));
+        registration.addUrlPatterns("/uploads/*", "/static/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/uploads/**")
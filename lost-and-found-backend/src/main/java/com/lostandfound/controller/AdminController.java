@@ -1,25 +1,40 @@
 package com.lostandfound.controller;
 
+import com.lostandfound.config.FileStorageProperties;
+import com.lostandfound.config.FileStorageProperties.StorageMode;
+import com.lostandfound.datasource.ReadWriteRoutingDataSource;
+import com.lostandfound.dto.response.AdminDashboardResponse;
 import com.lostandfound.dto.response.ApiResponse;
 import com.lostandfound.dto.response.ClaimResponse;
 import com.lostandfound.dto.response.FeedbackResponse;
-import com.lostandfound.dto.response.ItemResponse;
+import com.lostandfound.dto.response.ItemPageResponse;
 import com.lostandfound.exception.BadRequestException;
 import com.lostandfound.exception.ResourceNotFoundException;
 import com.lostandfound.model.User;
 import com.lostandfound.repository.UserRepository;
 import com.lostandfound.security.UserPrincipal;
+import com.lostandfound.service.AdminDashboardService;
+import com.lostandfound.service.AdminExportService;
+import com.lostandfound.service.AdminExportService.ExportFormat;
+import com.lostandfound.service.AdminExportService.ExportType;
 import com.lostandfound.service.ClaimService;
 import com.lostandfound.service.FeedbackService;
+import com.lostandfound.service.ItemSearchIndex;
 import com.lostandfound.service.ItemService;
+import com.lostandfound.service.UploadMigrationService;
 import com.lostandfound.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
@@ -39,6 +54,12 @@ public class AdminController {
     private final FeedbackService feedbackService;
     private final UserRepository userRepository;
     private final UserService userService;
+    private final ItemSearchIndex itemSearchIndex;
+    private final AdminDashboardService adminDashboardService;
+    private final AdminExportService adminExportService;
+    private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+    private final UploadMigrationService uploadMigrationService;
+    private final FileStorageProperties fileStorageProperties;
 
     @GetMapping("/dashboard")
     public ResponseEntity<Map<String, Object>> getAdminDashboard(
@@ -51,55 +72,28 @@ public class AdminController {
         }
 
         // Limit page size to prevent abuse
-        if (size > 100) {
-            size = 100;
-        }
-
-        // Get all data
-        List<ItemResponse> items = itemService.searchItems("", "");
-        List<ClaimResponse> claims = claimService.getUserClaims(null);
-        List<FeedbackResponse> feedback = feedbackService.getAllFeedback();
-        List<User> users = userRepository.findByRoleNot(User.Role.ADMIN);
-
-        // Apply manual pagination
-        int itemsStart = Math.min(page * size, items.size());
-        int itemsEnd = Math.min(itemsStart + size, items.size());
-        List<ItemResponse> paginatedItems = items.subList(itemsStart, itemsEnd);
+        page = Math.max(page, 0);
+        size = Math.max(1, Math.min(size, 100));
 
-        int claimsStart = Math.min(page * size, claims.size());
-        int claimsEnd = Math.min(claimsStart + size, claims.size());
-        List<ClaimResponse> paginatedClaims = claims.subList(claimsStart, claimsEnd);
-
-        List<Map<String, Object>> userList = users.stream()
-                .skip((long) page * size)
-                .limit(size)
-                .map(user -> {
-                    Map<String, Object> userMap = new HashMap<>();
-                    userMap.put("id", user.getId());
-                    userMap.put("name", user.getName());
-                    userMap.put("email", user.getEmail());
-                    userMap.put("role", user.getRole().name());
-                    userMap.put("createdAt", user.getCreatedAt());
-                    return userMap;
-                })
-                .collect(Collectors.toList());
+        // Only the requested page and the totals are read from the database
+        AdminDashboardResponse dashboard = adminDashboardService.getDashboard(page, size);
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
-        response.put("items", paginatedItems);
-        response.put("claims", paginatedClaims);
-        response.put("users", userList);
-        response.put("feedback", feedback.stream().limit(size).collect(Collectors.toList()));
+        response.put("items", dashboard.getItems());
+        response.put("claims", dashboard.getClaims());
+        response.put("users", dashboard.getUsers());
+        response.put("feedback", dashboard.getFeedback());
         response.put("stats", Map.of(
-                "totalItems", items.size(),
-                "totalClaims", claims.size(),
-                "totalUsers", users.size(),
-                "totalFeedback", feedback.size()
+                "totalItems", dashboard.getTotalItems(),
+                "totalClaims", dashboard.getTotalClaims(),
+                "totalUsers", dashboard.getTotalUsers(),
+                "totalFeedback", dashboard.getTotalFeedback()
         ));
         response.put("pagination", Map.of(
                 "page", page,
                 "size", size,
-                "hasMore", itemsEnd < items.size()
+                "hasMore", (long) (page + 1) * size < dashboard.getTotalItems()
         ));
 
         return ResponseEntity.ok(response);
@@ -191,18 +185,135 @@ public class AdminController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<ApiResponse> rebuildSearchIndex(
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        if (currentUser == null) {
+            throw new BadRequestException("You must be logged in");
+        }
+
+        if (!itemSearchIndex.isEnabled()) {
+            throw new BadRequestException("Search index is disabled");
+        }
+
+        logger.info("Admin ID {} rebuilding search index", currentUser.getId());
+
+        int indexedItems = itemSearchIndex.rebuild();
+
+        ApiResponse response = ApiResponse.builder()
+                .success(true)
+                .message("Search index rebuilt successfully")
+                .data(Map.of("indexedItems", indexedItems))
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Move existing flat uploads into the content-addressed store; safe to re-run
+     */
+    @PostMapping("/storage/migrate")
+    public ResponseEntity<ApiResponse> migrateUploads(
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        if (currentUser == null) {
+            throw new BadRequestException("You must be logged in");
+        }
+
+        if (fileStorageProperties.getStorageMode() != StorageMode.CONTENT_ADDRESSED) {
+            throw new BadRequestException("Content-addressed storage is not enabled");
+        }
+
+        boolean started = uploadMigrationService.start();
+        if (started) {
+            logger.info("Admin ID {} started migrating uploads to content-addressed storage", currentUser.getId());
+        }
+
+        ApiResponse response = ApiResponse.builder()
+                .success(true)
+                .message(started ? "Upload migration started" : "Upload migration is already running")
+                .data(uploadMigrationService.progress())
+                .build();
+
+        return ResponseEntity.accepted().body(response);
+    }
+
+    @GetMapping("/storage/migrate")
+    public ResponseEntity<ApiResponse> getUploadMigrationProgress() {
+        ApiResponse response = ApiResponse.builder()
+                .success(true)
+                .data(uploadMigrationService.progress())
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/datasource/stats")
+    public ResponseEntity<ApiResponse> getDataSourceStats() {
+        ReadWriteRoutingDataSource routing = routingDataSource.getIfAvailable();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("readReplica", routing != null);
+        if (routing != null) {
+            stats.putAll(routing.getStats());
+        }
+
+        ApiResponse response = ApiResponse.builder()
+                .success(true)
+                .message("Datasource statistics")
+                .data(stats)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Stream a whole table (items, claims, users or feedback) as NDJSON or CSV
+     */
+    @GetMapping("/export/{type}")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String type,
+            @RequestParam(required = false, defaultValue = "ndjson") String format,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        ExportType exportType = adminExportService.parseType(type);
+        ExportFormat exportFormat = adminExportService.parseFormat(format);
+
+        logger.info("Admin ID {} exporting {} as {}",
+                currentUser != null ? currentUser.getId() : null, exportType, exportFormat);
+
+        StreamingResponseBody body = out -> adminExportService.export(exportType, exportFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(exportType.fileName(exportFormat))
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     @GetMapping("/items")
     public ResponseEntity<Map<String, Object>> getAllItems(
             @RequestParam(required = false, defaultValue = "") String search,
-            @RequestParam(required = false, defaultValue = "") String status) {
+            @RequestParam(required = false, defaultValue = "") String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "50") int limit,
+            @RequestParam(required = false, defaultValue = "false") boolean includeCount) {
 
-        List<ItemResponse> items = itemService.searchItems(search, status);
+        ItemPageResponse page = itemService.searchItemsPage(search, status, cursor, limit, includeCount);
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("message", "Items retrieved successfully");
-        response.put("items", items);
-        response.put("count", items.size());
+        response.put("items", page.getItems());
+        response.put("count", page.getItems().size());
+        response.put("next", page.getNext());
+        response.put("hasMore", page.isHasMore());
+        if (page.getTotal() != null) {
+            response.put("total", page.getTotal());
+        }
 
         return ResponseEntity.ok(response);
     }
@@ -6,6 +6,7 @@ import com.lostandfound.dto.response.ApiResponse;
 import com.lostandfound.dto.response.AuthResponse;
 import com.lostandfound.dto.response.TokenRefreshResponse;
 import com.lostandfound.exception.BadRequestException;
+import com.lostandfound.security.SecurityEpochService;
 import com.lostandfound.security.UserPrincipal;
 import com.lostandfound.service.RefreshTokenService;
 import com.lostandfound.service.UserService;
@@ -26,6 +27,7 @@ public class AuthController {
     private final UserService userService;
     private final RefreshTokenService refreshTokenService;
     private final CookieUtil cookieUtil;
+    private final SecurityEpochService securityEpochService;
 
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> registerUser(
@@ -112,6 +114,9 @@ public class AuthController {
             refreshTokenService.revokeAllUserTokens(currentUser.getId());
         }
 
+        // Invalidate access tokens that are still within their lifetime
+        securityEpochService.bump(currentUser.getId());
+
         // Clear all auth cookies
         cookieUtil.deleteAllAuthCookies(httpResponse);
 
@@ -0,0 +1,39 @@
+package com.lostandfound.controller;
+
+import com.lostandfound.exception.BadRequestException;
+import com.lostandfound.security.UserPrincipal;
+import com.lostandfound.service.EventStreamHub;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/events")
+@RequiredArgsConstructor
+public class EventStreamController {
+
+    private final EventStreamHub eventStreamHub;
+
+    /**
+     * Server-Sent Events for the current user: "message" and "claim" events
+     * carry the same JSON as the list endpoints
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@AuthenticationPrincipal UserPrincipal currentUser,
+                             HttpServletResponse response) {
+
+        // Validate user is authenticated
+        if (currentUser == null) {
+            throw new BadRequestException("You must be logged in to receive events");
+        }
+
+        // Stop nginx from buffering the stream
+        response.setHeader("X-Accel-Buffering", "no");
+        return eventStreamHub.connect(currentUser.getId());
+    }
+}
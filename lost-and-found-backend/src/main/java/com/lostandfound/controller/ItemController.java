@@ -2,9 +2,13 @@ package com.lostandfound.controller;
 
 import com.lostandfound.dto.request.ItemRequest;
 import com.lostandfound.dto.response.ApiResponse;
+import com.lostandfound.dto.response.ItemMatchResponse;
+import com.lostandfound.dto.response.ItemPageResponse;
 import com.lostandfound.dto.response.ItemResponse;
+import com.lostandfound.dto.response.SimilarImageResponse;
 import com.lostandfound.exception.BadRequestException;
 import com.lostandfound.security.UserPrincipal;
+import com.lostandfound.service.ItemSearchCache;
 import com.lostandfound.service.ItemService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +27,7 @@ import java.util.Map;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ItemSearchCache itemSearchCache;
 
     @PostMapping
     public ResponseEntity<ApiResponse> createItem(
@@ -63,15 +68,23 @@ public class ItemController {
     @GetMapping
     public ResponseEntity<Map<String, Object>> getItems(
             @RequestParam(required = false, defaultValue = "") String search,
-            @RequestParam(required = false, defaultValue = "") String status) {
+            @RequestParam(required = false, defaultValue = "") String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "50") int limit,
+            @RequestParam(required = false, defaultValue = "false") boolean includeCount) {
 
-        List<ItemResponse> items = itemService.searchItems(search, status);
+        ItemPageResponse page = itemSearchCache.searchItemsPage(search, status, cursor, limit, includeCount);
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("message", "Items retrieved successfully");
-        response.put("items", items);
-        response.put("count", items.size());
+        response.put("items", page.getItems());
+        response.put("count", page.getItems().size());
+        response.put("next", page.getNext());
+        response.put("hasMore", page.isHasMore());
+        if (page.getTotal() != null) {
+            response.put("total", page.getTotal());
+        }
 
         return ResponseEntity.ok(response);
     }
@@ -89,6 +102,36 @@ public class ItemController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{itemId}/matches")
+    public ResponseEntity<ApiResponse> getItemMatches(
+            @PathVariable Long itemId,
+            @RequestParam(required = false, defaultValue = "10") int limit) {
+        List<ItemMatchResponse> matches = itemService.getItemMatches(itemId, limit);
+
+        ApiResponse response = ApiResponse.builder()
+                .success(true)
+                .message("Item matches retrieved successfully")
+                .data(matches)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{itemId}/similar-images")
+    public ResponseEntity<ApiResponse> getSimilarImageItems(
+            @PathVariable Long itemId,
+            @RequestParam(required = false, defaultValue = "10") int limit) {
+        List<SimilarImageResponse> similar = itemService.getSimilarImageItems(itemId, limit);
+
+        ApiResponse response = ApiResponse.builder()
+                .success(true)
+                .message("Visually similar items retrieved successfully")
+                .data(similar)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{itemId}")
     public ResponseEntity<ApiResponse> updateItem(
             @PathVariable Long itemId,
@@ -2,9 +2,12 @@ package com.lostandfound.controller;
 
 import com.lostandfound.dto.request.MessageRequest;
 import com.lostandfound.dto.response.ApiResponse;
+import com.lostandfound.dto.response.ConversationPageResponse;
+import com.lostandfound.dto.response.MessagePageResponse;
 import com.lostandfound.dto.response.MessageResponse;
 import com.lostandfound.exception.BadRequestException;
 import com.lostandfound.security.UserPrincipal;
+import com.lostandfound.service.MessageGroupCommitWriter;
 import com.lostandfound.service.MessageService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/messages")
@@ -22,6 +26,7 @@ import java.util.Map;
 public class MessageController {
 
     private final MessageService messageService;
+    private final MessageGroupCommitWriter messageGroupCommitWriter;
 
     @PostMapping
     public ResponseEntity<ApiResponse> sendMessage(
@@ -38,7 +43,7 @@ public class MessageController {
             throw new BadRequestException("You cannot send a message to yourself");
         }
 
-        ApiResponse response = messageService.sendMessage(request, currentUser);
+        ApiResponse response = send(request, currentUser);
         return ResponseEntity.ok(response);
     }
 
@@ -57,7 +62,7 @@ public class MessageController {
             throw new BadRequestException("You cannot send a message to yourself");
         }
 
-        ApiResponse response = messageService.sendMessage(request, currentUser);
+        ApiResponse response = send(request, currentUser);
         return ResponseEntity.ok(response);
     }
 
@@ -101,6 +106,91 @@ public class MessageController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Object>> getUnreadCount(
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // Validate user is authenticated
+        if (currentUser == null) {
+            throw new BadRequestException("You must be logged in to view messages");
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("unreadCount", messageService.getUnreadCount(currentUser));
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/{messageId}/read")
+    public ResponseEntity<ApiResponse> markMessageRead(
+            @PathVariable Long messageId,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // Validate user is authenticated
+        if (currentUser == null) {
+            throw new BadRequestException("You must be logged in to read messages");
+        }
+
+        messageService.markMessageRead(messageId, currentUser);
+
+        ApiResponse response = ApiResponse.builder()
+                .success(true)
+                .message("Message marked as read")
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/conversations")
+    public ResponseEntity<Map<String, Object>> getConversations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "20") int limit,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // Validate user is authenticated
+        if (currentUser == null) {
+            throw new BadRequestException("You must be logged in to view messages");
+        }
+
+        ConversationPageResponse page = messageService.getInbox(currentUser, cursor, limit);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Conversations retrieved successfully");
+        response.put("conversations", page.getConversations());
+        response.put("count", page.getConversations().size());
+        response.put("next", page.getNext());
+        response.put("hasMore", page.isHasMore());
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/conversations/{conversationId}")
+    public ResponseEntity<Map<String, Object>> getConversationMessages(
+            @PathVariable Long conversationId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "50") int limit,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // Validate user is authenticated
+        if (currentUser == null) {
+            throw new BadRequestException("You must be logged in to view messages");
+        }
+
+        MessagePageResponse page = messageService.getConversationMessages(conversationId, currentUser, cursor, limit);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Messages retrieved successfully");
+        response.put("messages", page.getMessages());
+        response.put("count", page.getMessages().size());
+        response.put("next", page.getNext());
+        response.put("hasMore", page.isHasMore());
+
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{messageId}")
     public ResponseEntity<ApiResponse> deleteMessage(
             @PathVariable Long messageId,
@@ -120,4 +210,14 @@ public class MessageController {
 
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    private ApiResponse send(MessageRequest request, UserPrincipal currentUser) {
+        if (messageGroupCommitWriter.isEnabled()) {
+            Optional<ApiResponse> queued = messageGroupCommitWriter.send(request, currentUser);
+            if (queued.isPresent()) {
+                return queued.get();
+            }
+        }
+        return messageService.sendMessage(request, currentUser);
+    }
+}
@@ -2,6 +2,8 @@ package com.lostandfound.controller;
 
 import com.lostandfound.config.RateLimitConfig;
 import com.lostandfound.dto.response.ApiResponse;
+import com.lostandfound.exception.BadRequestException;
+import com.lostandfound.ratelimit.RateLimitKey;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,7 +26,8 @@ public class RateLimitController {
     @GetMapping("/stats")
     public ResponseEntity<ApiResponse> getRateLimitStats() {
         Map<String, Object> stats = new HashMap<>();
-        stats.put("activeBuckets", rateLimitConfig.getCacheSize());
+        stats.put("store", rateLimitConfig.getStoreName());
+        stats.putAll(rateLimitConfig.getStoreStats());
         stats.put("rateLimitTypes", getRateLimitInfo());
 
         ApiResponse response = ApiResponse.builder()
@@ -43,7 +46,10 @@ public class RateLimitController {
     public ResponseEntity<ApiResponse> clearRateLimitForIp(@PathVariable String ip) {
         // Clear all buckets for this IP across all limit types
         for (RateLimitConfig.RateLimitType type : RateLimitConfig.RateLimitType.values()) {
-            String key = ip + ":" + type.name();
+            RateLimitKey key = RateLimitKey.parse(ip, 0, ip.length(), type, null);
+            if (key == null) {
+                throw new BadRequestException("Invalid IP address: " + ip);
+            }
             rateLimitConfig.clearBucket(key);
         }
 
@@ -0,0 +1,77 @@
+package com.lostandfound.datasource;
+
+import com.lostandfound.model.IdGenerators;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves tables that were filled with IDENTITY ids over to the pooled table generator.
+ * Before Hibernate hands out its first id block, each table's id_generators row is
+ * raised past the table's highest existing id, so new ids never collide with rows
+ * written by AUTO_INCREMENT. Runs on every startup; once the rows are ahead of the
+ * data it changes nothing, and it never moves a row backwards.
+ *
+ * Not a rolling change: an instance still on IDENTITY keeps taking ids from
+ * AUTO_INCREMENT, inside the range this generator hands out. Stop every instance
+ * before starting the first one with the table generator.
+ */
+@Component
+@DependsOn("entityManagerFactory") // ddl-auto has created id_generators by now
+@RequiredArgsConstructor
+public class IdGeneratorMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorMigration.class);
+
+    // Tables whose entities use the table generator; the segment is the table name
+    static final List<String> TABLES = List.of("users", "items", "claims", "messages", "conversations",
+            "conversation_summary", "item_matches", "feedback", "refresh_tokens");
+
+    private static final String CREATE_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS " + IdGenerators.TABLE + " (" +
+            IdGenerators.SEGMENT_COLUMN + " VARCHAR(255) NOT NULL PRIMARY KEY, " +
+            IdGenerators.VALUE_COLUMN + " BIGINT)";
+
+    private static final String RAISE_SQL =
+            "UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN + " = ? " +
+            "WHERE " + IdGenerators.SEGMENT_COLUMN + " = ? AND " + IdGenerators.VALUE_COLUMN + " < ?";
+
+    private static final String EXISTS_SQL =
+            "SELECT COUNT(*) FROM " + IdGenerators.TABLE + " WHERE " + IdGenerators.SEGMENT_COLUMN + " = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO " + IdGenerators.TABLE + " (" + IdGenerators.SEGMENT_COLUMN + ", " +
+            IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        for (String table : TABLES) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            if (maxId == null) {
+                maxId = 0L;
+            }
+            // The pooled optimizer hands out (value - ALLOCATION_SIZE, value] for a stored value
+            long floor = maxId + IdGenerators.ALLOCATION_SIZE;
+            int raised = jdbcTemplate.update(RAISE_SQL, floor, table, floor);
+            if (raised == 0) {
+                Integer rows = jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, table);
+                if (rows == null || rows == 0) {
+                    jdbcTemplate.update(INSERT_SQL, table, floor);
+                    raised = 1;
+                }
+            }
+            if (raised > 0 && maxId > 0) {
+                logger.info("Id generator for {} moved past existing id {}", table, maxId);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.lostandfound.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else
+ * to the primary. Must sit behind a LazyConnectionDataSourceProxy: the transaction
+ * manager asks for a connection before it marks the transaction read-only, and the
+ * proxy delays the real lookup until the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder replicaFallbacks = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryConnections.increment();
+            return Route.PRIMARY;
+        }
+        if (!lagMonitor.isReplicaUsable()) {
+            // Unreachable or too far behind: a stale read is worse than a busier primary
+            replicaFallbacks.increment();
+            primaryConnections.increment();
+            return Route.PRIMARY;
+        }
+        replicaConnections.increment();
+        return Route.REPLICA;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("primaryConnections", primaryConnections.sum());
+        stats.put("replicaConnections", replicaConnections.sum());
+        stats.put("replicaFallbacks", replicaFallbacks.sum());
+        stats.put("replicaUsable", lagMonitor.isReplicaUsable());
+        stats.put("replicaLagSeconds", lagMonitor.getLagSeconds());
+        stats.put("maxLagSeconds", lagMonitor.getMaxLag().getSeconds());
+        stats.put("lastLagCheck", lagMonitor.getLastCheckMillis());
+        stats.put("primaryPool", poolStats(primary));
+        stats.put("replicaPool", poolStats(replica));
+        return stats;
+    }
+
+    private static Map<String, Object> poolStats(DataSource dataSource) {
+        Map<String, Object> pool = new HashMap<>();
+        if (dataSource instanceof HikariDataSource hikari) {
+            pool.put("name", hikari.getPoolName());
+            pool.put("maximumPoolSize", hikari.getMaximumPoolSize());
+            HikariPoolMXBean mxBean = hikari.getHikariPoolMXBean();
+            // Null until the pool's first connection
+            if (mxBean != null) {
+                pool.put("active", mxBean.getActiveConnections());
+                pool.put("idle", mxBean.getIdleConnections());
+                pool.put("total", mxBean.getTotalConnections());
+                pool.put("waiting", mxBean.getThreadsAwaitingConnection());
+            }
+        }
+        return pool;
+    }
+}
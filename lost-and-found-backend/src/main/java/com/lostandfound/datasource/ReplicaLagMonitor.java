@@ -0,0 +1,125 @@
+package com.lostandfound.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the replica's replication delay. Read-only transactions only go to the
+ * replica while it is reachable and no further behind than the configured maximum.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // MySQL 8.0.22+; an empty result means the server is not replicating (lag 0)
+    private static final String MYSQL_LAG_QUERY = "SHOW REPLICA STATUS";
+    private static final String MYSQL_LAG_COLUMN = "Seconds_Behind_Source";
+
+    private final DataSource replica;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final String lagQuery;
+
+    private volatile boolean replicaUsable;
+    private volatile long lagSeconds = -1;
+    private volatile long lastCheckMillis;
+
+    private ScheduledExecutorService checkExecutor;
+
+    /**
+     * @param lagQuery query whose first column is the lag in seconds; blank for MySQL replica status
+     */
+    public ReplicaLagMonitor(DataSource replica, Duration maxLag, Duration checkInterval, String lagQuery) {
+        this.replica = replica;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+    }
+
+    public void start() {
+        check();
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("replica-lag-");
+        threadFactory.setDaemon(true);
+        checkExecutor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        checkExecutor.scheduleWithFixedDelay(this::check,
+                checkInterval.toMillis(), checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (checkExecutor != null) {
+            checkExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Measure the lag now and update whether the replica may serve reads
+     */
+    public void check() {
+        Long lag;
+        try {
+            lag = queryLag();
+        } catch (SQLException | RuntimeException e) {
+            logger.debug("Replica lag check failed", e);
+            lag = null;
+        }
+
+        boolean usable = lag != null && lag <= maxLag.getSeconds();
+        if (usable != replicaUsable) {
+            if (usable) {
+                logger.info("Replica in rotation (lag {}s)", lag);
+            } else {
+                logger.warn("Replica taken out of rotation, reads go to the primary (lag {})",
+                        lag == null ? "unknown" : lag + "s");
+            }
+        }
+
+        lagSeconds = lag == null ? -1 : lag;
+        replicaUsable = usable;
+        lastCheckMillis = System.currentTimeMillis();
+    }
+
+    private Long queryLag() throws SQLException {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery != null ? lagQuery : MYSQL_LAG_QUERY)) {
+
+            if (!resultSet.next()) {
+                return lagQuery != null ? null : 0L;
+            }
+            long lag = lagQuery != null ? resultSet.getLong(1) : resultSet.getLong(MYSQL_LAG_COLUMN);
+            // NULL lag means replication is stopped
+            return resultSet.wasNull() ? null : lag;
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    /**
+     * Last measured lag in seconds, -1 if unknown
+     */
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    public long getLastCheckMillis() {
+        return lastCheckMillis;
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+}
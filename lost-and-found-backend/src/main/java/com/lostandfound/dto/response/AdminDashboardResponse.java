@@ -0,0 +1,24 @@
+package com.lostandfound.dto.response;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminDashboardResponse {
+    private List<ItemResponse> items;
+    private List<ClaimResponse> claims;
+    private List<Map<String, Object>> users;
+    private List<FeedbackResponse> feedback;
+    private long totalItems;
+    private long totalClaims;
+    private long totalUsers;
+    private long totalFeedback;
+}
@@ -0,0 +1,18 @@
+package com.lostandfound.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationPageResponse {
+    private List<ConversationResponse> conversations;
+    private String next;
+    private boolean hasMore;
+}
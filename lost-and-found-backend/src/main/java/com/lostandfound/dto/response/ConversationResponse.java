@@ -0,0 +1,24 @@
+package com.lostandfound.dto.response;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationResponse {
+    private Long id;
+    private Long itemId;
+    private String itemName;
+    private Long otherUserId;
+    private String otherUserName;
+    private String lastMessage;
+    private Long lastSenderId;
+    private LocalDateTime lastMessageAt;
+    private int unreadCount;
+}
@@ -0,0 +1,18 @@
+package com.lostandfound.dto.response;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemMatchResponse {
+    private ItemResponse item;
+    private double score;
+    private LocalDateTime matchedAt;
+}
@@ -0,0 +1,19 @@
+package com.lostandfound.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemPageResponse {
+    private List<ItemResponse> items;
+    private String next;
+    private boolean hasMore;
+    private Long total; // only populated when the caller asks for it
+}
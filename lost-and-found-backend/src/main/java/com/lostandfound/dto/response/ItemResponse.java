@@ -1,6 +1,7 @@
 package com.lostandfound.dto.response;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -8,7 +9,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ItemResponse {
@@ -18,6 +19,8 @@ public class ItemResponse {
     private String location;
     private String status;
     private String image;
+    // Resized JPEG paths by width, only those already written; empty until generated, so use image
+    private Map<Integer, String> thumbnails;
     private Long createdBy;
     private String creatorName;
     private LocalDateTime createdAt;
@@ -0,0 +1,18 @@
+package com.lostandfound.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessagePageResponse {
+    private List<MessageResponse> messages;
+    private String next;
+    private boolean hasMore;
+}
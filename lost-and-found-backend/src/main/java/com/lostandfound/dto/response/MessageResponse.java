@@ -13,6 +13,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class MessageResponse {
     private Long id;
+    private Long conversationId;
     private Long senderId;
     private String senderName;
     private Long receiverId;
@@ -20,4 +21,5 @@ public class MessageResponse {
     private String itemName;
     private String message;
     private LocalDateTime sentAt;
+    private LocalDateTime readAt;
 }
\ No newline at end of file
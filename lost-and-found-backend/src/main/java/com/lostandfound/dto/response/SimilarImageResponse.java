@@ -0,0 +1,17 @@
+package com.lostandfound.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarImageResponse {
+    private ItemResponse item;
+    // Differing bits between the two image hashes (0-64, lower is closer)
+    private int distance;
+    private boolean nearDuplicate;
+}
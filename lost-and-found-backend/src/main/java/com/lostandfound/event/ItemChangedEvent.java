@@ -0,0 +1,21 @@
+package com.lostandfound.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published whenever an item is created, edited, claimed/unclaimed or deleted, or
+ * its image file moves to a new path with the same content.
+ * Listeners run after the surrounding transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemChangedEvent {
+
+    private final Long itemId;
+    private final Type type;
+
+    public enum Type {
+        CREATED, UPDATED, STATUS_CHANGED, IMAGE_MOVED, DELETED
+    }
+}
@@ -0,0 +1,15 @@
+package com.lostandfound.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a user's access tokens are revoked (logout, deletion, role change),
+ * so anything authenticated once and held open, like event streams, is closed too.
+ */
+@Getter
+@AllArgsConstructor
+public class SecurityEpochBumpedEvent {
+
+    private final Long userId;
+}
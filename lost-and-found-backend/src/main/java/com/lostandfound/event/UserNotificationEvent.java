@@ -0,0 +1,27 @@
+package com.lostandfound.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Something one user should see without refreshing: a message sent to them or a
+ * claim on their item. The data is the response DTO clients already know.
+ * Pushed to the user's open event streams after the surrounding transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class UserNotificationEvent {
+
+    private final Long userId;
+    private final Type type;
+    private final Object data;
+
+    public enum Type {
+        MESSAGE, CLAIM;
+
+        // SSE event name, what clients register listeners for
+        public String eventName() {
+            return name().toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.lostandfound.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One participant's inbox row for a conversation: the latest message and how many
+ * messages they have not read. Kept up to date as messages are sent, so the inbox is
+ * a single index range scan on (user_id, last_message_at).
+ */
+@Entity
+@Table(name = "conversation_summary", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_conversation_summary_user", columnNames = {"conversation_id", "user_id"})
+}, indexes = {
+        @Index(name = "idx_conversation_summary_inbox", columnList = "user_id, last_message_at, id"),
+        @Index(name = "idx_conversation_summary_item", columnList = "item_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationSummary {
+
+    // Longer messages are cut to this for the inbox preview
+    public static final int PREVIEW_LENGTH = 255;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "conversation_summary_ids")
+    @TableGenerator(name = "conversation_summary_ids", table = IdGenerators.TABLE, pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "conversation_summary",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conversation_id", nullable = false)
+    private Conversation conversation;
+
+    // Whose inbox this row belongs to
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "other_user_id", nullable = false)
+    private User otherUser;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    private Item item;
+
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @Column(name = "last_message", length = PREVIEW_LENGTH)
+    private String lastMessage;
+
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "last_sender_id")
+    private Long lastSenderId;
+
+    @Column(name = "unread_count", nullable = false)
+    private int unreadCount;
+}
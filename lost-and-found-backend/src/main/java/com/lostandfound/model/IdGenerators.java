@@ -0,0 +1,18 @@
+package com.lostandfound.model;
+
+/**
+ * Settings shared by the entities' table-based id generators. Each table has a row in
+ * id_generators and ids are reserved in blocks of ALLOCATION_SIZE (pooled), so an id
+ * is known before the INSERT runs and Hibernate can batch inserts, which it cannot do
+ * with IDENTITY columns.
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generators";
+    public static final String SEGMENT_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdGenerators() {
+    }
+}
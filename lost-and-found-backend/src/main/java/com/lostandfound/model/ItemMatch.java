@@ -0,0 +1,60 @@
+package com.lostandfound.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A suggested LOST/FOUND pairing. Stored once per direction so each item's
+ * matches are a single indexed lookup.
+ */
+@Entity
+@Table(name = "item_matches", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_item_matches_pair", columnNames = {"item_id", "matched_item_id"})
+}, indexes = {
+        @Index(name = "idx_item_matches_item_score", columnList = "item_id, score"),
+        @Index(name = "idx_item_matches_matched_item", columnList = "matched_item_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemMatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "item_matches_ids")
+    @TableGenerator(name = "item_matches_ids", table = IdGenerators.TABLE, pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "item_matches",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    private Item item;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "matched_item_id", nullable = false)
+    private Item matchedItem;
+
+    @Column(nullable = false)
+    private double score;
+
+    @CreationTimestamp
+    @Column(name = "matched_at", nullable = false, updatable = false)
+    private LocalDateTime matchedAt;
+}
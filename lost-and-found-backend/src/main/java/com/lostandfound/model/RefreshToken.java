@@ -19,7 +19,10 @@ import java.time.LocalDateTime;
 public class RefreshToken {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "refresh_tokens_ids")
+    @TableGenerator(name = "refresh_tokens_ids", table = IdGenerators.TABLE, pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "refresh_tokens",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @OneToOne
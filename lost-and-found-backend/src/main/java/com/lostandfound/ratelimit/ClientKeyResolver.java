@@ -0,0 +1,58 @@
+package com.lostandfound.ratelimit;
+
+import com.lostandfound.config.RateLimitConfig.RateLimitType;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the rate limit key for a request, shared by RateLimitFilter and RateLimitAspect
+ */
+@Component
+public class ClientKeyResolver {
+
+    /**
+     * Key for the client behind this request. X-Forwarded-For is only honoured when the
+     * direct peer is a trusted proxy, and only if its first entry is a valid address.
+     */
+    public RateLimitKey resolve(HttpServletRequest request, RateLimitType limitType, String method) {
+        String remoteAddr = request.getRemoteAddr();
+
+        if (isTrustedProxy(remoteAddr)) {
+            String xfHeader = request.getHeader("X-Forwarded-For");
+            if (xfHeader != null && !xfHeader.isEmpty()) {
+                // First entry of a comma separated list, trimmed, without copying the header
+                int end = xfHeader.indexOf(',');
+                if (end < 0) {
+                    end = xfHeader.length();
+                }
+                int start = 0;
+                while (start < end && Character.isWhitespace(xfHeader.charAt(start))) {
+                    start++;
+                }
+                while (end > start && Character.isWhitespace(xfHeader.charAt(end - 1))) {
+                    end--;
+                }
+
+                RateLimitKey forwarded = RateLimitKey.parse(xfHeader, start, end, limitType, method);
+                if (forwarded != null) {
+                    return forwarded;
+                }
+            }
+        }
+
+        return RateLimitKey.of(remoteAddr, limitType, method);
+    }
+
+    /**
+     * Check if IP is from trusted proxy
+     */
+    private boolean isTrustedProxy(String ip) {
+        // Add your trusted proxy IPs here (e.g., load balancer, reverse proxy)
+        // For local development, trust localhost
+        return "127.0.0.1".equals(ip) ||
+                "0:0:0:0:0:0:0:1".equals(ip) ||
+                "::1".equals(ip);
+        // In production, add your actual proxy IPs:
+        // return Arrays.asList("10.0.0.1", "172.16.0.1").contains(ip);
+    }
+}
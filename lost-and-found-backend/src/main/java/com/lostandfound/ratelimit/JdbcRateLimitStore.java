@@ -0,0 +1,417 @@
+package com.lostandfound.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lostandfound.config.RateLimitConfig.RateLimitType;
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Rate limits shared by all instances through the application database.
+ *
+ * Each limit is a fixed window per key (capacity tokens per refill duration). Requests
+ * are decided against a local copy of the cluster-wide count plus this instance's
+ * unsynced consumption; a background task pushes local consumption in one JDBC batch
+ * and reads the merged counts back every rate.limit.jdbc.sync-interval. The request
+ * path never waits on the database. Between syncs each instance can overshoot by at
+ * most what it admits in one interval.
+ */
+@Component
+@ConditionalOnProperty(name = "rate.limit.store", havingValue = "jdbc")
+@RequiredArgsConstructor
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcRateLimitStore.class);
+
+    private static final String CREATE_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS rate_limit_buckets (" +
+            "bucket_key VARCHAR(255) NOT NULL PRIMARY KEY, " +
+            "window_start BIGINT NOT NULL, " +
+            "tokens_used BIGINT NOT NULL)";
+
+    // Adds to the current window, or starts a new one; never moves a newer window backwards
+    private static final String UPDATE_SQL =
+            "UPDATE rate_limit_buckets SET " +
+            "tokens_used = CASE WHEN window_start = ? THEN tokens_used + ? ELSE ? END, " +
+            "window_start = ? " +
+            "WHERE bucket_key = ? AND window_start <= ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO rate_limit_buckets (bucket_key, window_start, tokens_used) VALUES (?, ?, ?)";
+
+    private static final int READ_BACK_CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${rate.limit.jdbc.sync-interval:1s}")
+    private Duration syncInterval;
+
+    @Value("${rate.limit.cache.max-size:100000}")
+    private long maxBuckets;
+
+    private Clock clock = Clock.systemUTC();
+
+    private final Set<RateLimitKey> dirtyKeys = ConcurrentHashMap.newKeySet();
+    private final LongAdder syncFailures = new LongAdder();
+
+    private Cache<RateLimitKey, WindowCounter> counters;
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService syncExecutor;
+    private long lastCleanupMillis;
+    private Set<RateLimitKey> recentlyFlushed = Set.of();
+
+    @PostConstruct
+    public void start() {
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        counters = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(RateLimitType.longestRefillDuration())
+                .build();
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("rate-limit-sync-");
+        threadFactory.setDaemon(true);
+        syncExecutor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        syncExecutor.scheduleWithFixedDelay(this::syncQuietly,
+                syncInterval.toMillis(), syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+        logger.info("Shared rate limiting enabled (sync every {} ms)", syncInterval.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        syncExecutor.shutdown();
+        try {
+            syncExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Hand the last interval's consumption to the other instances
+        syncQuietly();
+    }
+
+    @Override
+    public ConsumptionProbe tryConsume(RateLimitKey key) {
+        RateLimitType limitType = key.type();
+        long windowMillis = limitType.getRefillDuration().toMillis();
+        long now = clock.millis();
+        long windowStart = now - Math.floorMod(now, windowMillis);
+        long nanosToReset = TimeUnit.MILLISECONDS.toNanos(windowStart + windowMillis - now);
+
+        WindowCounter counter = counters.get(key, k -> new WindowCounter());
+        long used;
+        synchronized (counter) {
+            counter.roll(windowStart);
+            used = counter.globalUsed + counter.inFlight + counter.pending;
+            if (used >= limitType.getCapacity()) {
+                return ConsumptionProbe.rejected(0, nanosToReset, nanosToReset);
+            }
+            counter.pending++;
+        }
+        dirtyKeys.add(key);
+        return ConsumptionProbe.consumed(limitType.getCapacity() - used - 1, nanosToReset);
+    }
+
+    @Override
+    public void clear(RateLimitKey key) {
+        counters.invalidate(key);
+        jdbcTemplate.update("DELETE FROM rate_limit_buckets WHERE bucket_key = ?", key.toString());
+    }
+
+    @Override
+    public void clearAll() {
+        counters.invalidateAll();
+        jdbcTemplate.update("DELETE FROM rate_limit_buckets");
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("activeBuckets", counters.estimatedSize());
+        stats.put("maxBuckets", maxBuckets);
+        stats.put("pendingKeys", dirtyKeys.size());
+        stats.put("syncIntervalMillis", syncInterval.toMillis());
+        stats.put("syncFailures", syncFailures.sum());
+        return stats;
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            logger.error("Rate limit sync failed", e);
+        }
+    }
+
+    /**
+     * Push local consumption to the database and pull back the merged counts
+     */
+    synchronized void sync() {
+        List<PendingTokens> batch = drainPending();
+
+        // Also refresh keys flushed last round, so a key that just went quiet here
+        // still learns about consumption on other instances
+        Set<RateLimitKey> refreshKeys = new HashSet<>(recentlyFlushed);
+        batch.forEach(pending -> refreshKeys.add(pending.key()));
+
+        if (!refreshKeys.isEmpty()) {
+            if (!batch.isEmpty()) {
+                try {
+                    // All or nothing, so a retry after a failure cannot count tokens twice
+                    transactionTemplate.executeWithoutResult(status -> flush(batch));
+                } catch (DataAccessException | TransactionException e) {
+                    syncFailures.increment();
+                    logger.warn("Could not flush {} rate limit buckets, will retry: {}", batch.size(), e.getMessage());
+                    restore(batch);
+                    return;
+                }
+            }
+            try {
+                readBack(batch, refreshKeys);
+                recentlyFlushed = batch.stream().map(PendingTokens::key).collect(Collectors.toSet());
+            } catch (DataAccessException e) {
+                // The tokens are stored: count them locally and read these keys again next round
+                syncFailures.increment();
+                logger.warn("Could not read back {} rate limit buckets: {}", refreshKeys.size(), e.getMessage());
+                settle(batch);
+                recentlyFlushed = refreshKeys;
+            }
+        }
+
+        long now = clock.millis();
+        if (now - lastCleanupMillis >= RateLimitType.longestRefillDuration().toMillis()) {
+            try {
+                int removed = jdbcTemplate.update("DELETE FROM rate_limit_buckets WHERE window_start < ?",
+                        now - RateLimitType.longestRefillDuration().toMillis());
+                lastCleanupMillis = now;
+                logger.debug("Removed {} expired rate limit buckets", removed);
+            } catch (DataAccessException e) {
+                logger.warn("Could not remove expired rate limit buckets, will retry: {}", e.getMessage());
+            }
+        }
+    }
+
+    private List<PendingTokens> drainPending() {
+        List<PendingTokens> batch = new ArrayList<>();
+        for (RateLimitKey key : dirtyKeys) {
+            dirtyKeys.remove(key);
+            WindowCounter counter = counters.getIfPresent(key);
+            if (counter == null) {
+                continue;
+            }
+            synchronized (counter) {
+                if (counter.pending > 0) {
+                    batch.add(new PendingTokens(key, counter.windowStart, counter.pending));
+                    counter.inFlight += counter.pending;
+                    counter.pending = 0;
+                }
+            }
+        }
+        return batch;
+    }
+
+    private void flush(List<PendingTokens> batch) {
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, pending) -> {
+            ps.setLong(1, pending.windowStart());
+            ps.setLong(2, pending.tokens());
+            ps.setLong(3, pending.tokens());
+            ps.setLong(4, pending.windowStart());
+            ps.setString(5, pending.key().toString());
+            ps.setLong(6, pending.windowStart());
+        });
+
+        // Keys no instance has written yet (or whose row is already in a newer window)
+        List<PendingTokens> notUpdated = new ArrayList<>();
+        List<PendingTokens> unknown = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            int count = updated[0][i];
+            if (count == Statement.SUCCESS_NO_INFO) {
+                unknown.add(batch.get(i));
+            } else if (count <= 0) {
+                notUpdated.add(batch.get(i));
+            }
+        }
+        if (!unknown.isEmpty()) {
+            notUpdated.addAll(withoutRows(unknown));
+        }
+        notUpdated.forEach(this::insertOrUpdate);
+    }
+
+    /**
+     * Keys that have no row yet. Connector/J with rewriteBatchedStatements=true answers
+     * a batch with SUCCESS_NO_INFO instead of per-row counts; an existing row was then
+     * either updated or is in a newer window, and only missing rows need an insert.
+     */
+    private List<PendingTokens> withoutRows(List<PendingTokens> unknown) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < unknown.size(); from += READ_BACK_CHUNK) {
+            List<PendingTokens> chunk = unknown.subList(from, Math.min(from + READ_BACK_CHUNK, unknown.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            existing.addAll(jdbcTemplate.queryForList(
+                    "SELECT bucket_key FROM rate_limit_buckets WHERE bucket_key IN (" + placeholders + ")",
+                    String.class,
+                    chunk.stream().map(pending -> pending.key().toString()).toArray()));
+        }
+        return unknown.stream()
+                .filter(pending -> !existing.contains(pending.key().toString()))
+                .toList();
+    }
+
+    private void insertOrUpdate(PendingTokens pending) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, pending.key().toString(), pending.windowStart(), pending.tokens());
+        } catch (DuplicateKeyException e) {
+            // Another instance inserted first; a row in a newer window simply drops these tokens
+            jdbcTemplate.update(UPDATE_SQL, pending.windowStart(), pending.tokens(), pending.tokens(),
+                    pending.windowStart(), pending.key().toString(), pending.windowStart());
+        }
+    }
+
+    private void readBack(List<PendingTokens> batch, Set<RateLimitKey> refreshKeys) {
+        Map<RateLimitKey, PendingTokens> flushed = new HashMap<>();
+        batch.forEach(pending -> flushed.put(pending.key(), pending));
+
+        // Rows are keyed by the text form of the key
+        Map<String, RateLimitKey> byRowKey = new HashMap<>();
+        refreshKeys.forEach(key -> byRowKey.put(key.toString(), key));
+        Set<RateLimitKey> seen = new HashSet<>();
+
+        List<String> rowKeys = new ArrayList<>(byRowKey.keySet());
+        for (int from = 0; from < rowKeys.size(); from += READ_BACK_CHUNK) {
+            List<String> chunk = rowKeys.subList(from, Math.min(from + READ_BACK_CHUNK, rowKeys.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+
+            jdbcTemplate.query(
+                    "SELECT bucket_key, window_start, tokens_used FROM rate_limit_buckets " +
+                    "WHERE bucket_key IN (" + placeholders + ")",
+                    rs -> {
+                        RateLimitKey key = byRowKey.get(rs.getString("bucket_key"));
+                        seen.add(key);
+                        WindowCounter counter = counters.getIfPresent(key);
+                        if (counter != null) {
+                            synchronized (counter) {
+                                counter.merge(flushed.get(key), rs.getLong("window_start"), rs.getLong("tokens_used"));
+                            }
+                        }
+                    },
+                    chunk.toArray());
+        }
+
+        // Rows cleared while the flush was in flight: nothing to merge, just settle the tokens
+        for (PendingTokens pending : batch) {
+            if (!seen.contains(pending.key())) {
+                WindowCounter counter = counters.getIfPresent(pending.key());
+                if (counter != null) {
+                    synchronized (counter) {
+                        counter.merge(pending, -1, 0);
+                    }
+                }
+            }
+        }
+    }
+
+    private void restore(List<PendingTokens> batch) {
+        for (PendingTokens pending : batch) {
+            WindowCounter counter = counters.getIfPresent(pending.key());
+            if (counter == null) {
+                continue;
+            }
+            synchronized (counter) {
+                if (counter.windowStart == pending.windowStart()) {
+                    counter.inFlight -= pending.tokens();
+                    counter.pending += pending.tokens();
+                    dirtyKeys.add(pending.key());
+                }
+            }
+        }
+    }
+
+    private void settle(List<PendingTokens> batch) {
+        for (PendingTokens pending : batch) {
+            WindowCounter counter = counters.getIfPresent(pending.key());
+            if (counter == null) {
+                continue;
+            }
+            synchronized (counter) {
+                if (counter.windowStart == pending.windowStart()) {
+                    counter.inFlight -= pending.tokens();
+                    counter.globalUsed += pending.tokens();
+                }
+            }
+        }
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private record PendingTokens(RateLimitKey key, long windowStart, long tokens) {
+    }
+
+    /**
+     * Local view of one key's window; guarded by its own monitor
+     */
+    private static final class WindowCounter {
+        long windowStart;
+        long globalUsed;   // cluster-wide count as of the last sync, including our synced tokens
+        long inFlight;     // sent to the database, not yet reflected in globalUsed
+        long pending;      // not yet sent
+
+        void roll(long currentWindowStart) {
+            if (currentWindowStart > windowStart) {
+                windowStart = currentWindowStart;
+                globalUsed = 0;
+                inFlight = 0;
+                pending = 0;
+            }
+        }
+
+        void merge(PendingTokens flushed, long rowWindowStart, long rowTokensUsed) {
+            if (flushed != null && flushed.windowStart() == windowStart) {
+                inFlight -= flushed.tokens();
+            }
+            if (rowWindowStart == windowStart) {
+                globalUsed = rowTokensUsed;
+            } else if (rowWindowStart > windowStart) {
+                // Another instance has already moved on to the next window
+                windowStart = rowWindowStart;
+                globalUsed = rowTokensUsed;
+                inFlight = 0;
+                pending = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.lostandfound.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.lostandfound.config.RateLimitConfig.RateLimitType;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.Refill;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory Bucket4j buckets, bounded by size and idle time. Each instance
+ * enforces its own limits, so N instances allow N times the configured rate.
+ */
+@Component
+@ConditionalOnProperty(name = "rate.limit.store", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimitStore implements RateLimitStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalRateLimitStore.class);
+
+    @Value("${rate.limit.cache.max-size:100000}")
+    private long maxBuckets;
+
+    @Value("${rate.limit.cache.idle-timeout:5m}")
+    private Duration idleTimeout;
+
+    private final LongAdder evictedBySize = new LongAdder();
+    private final LongAdder evictedByIdle = new LongAdder();
+
+    private Cache<RateLimitKey, Bucket> cache;
+
+    @PostConstruct
+    public void initCache() {
+        // A bucket idle for a full refill period is full again, so dropping it loses nothing.
+        // A shorter idle timeout would hand a throttled client a fresh bucket early.
+        Duration longestRefill = RateLimitType.longestRefillDuration();
+        if (idleTimeout.compareTo(longestRefill) < 0) {
+            logger.warn("rate.limit.cache.idle-timeout {} is shorter than the longest refill period, using {}",
+                    idleTimeout, longestRefill);
+            idleTimeout = longestRefill;
+        }
+
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleTimeout)
+                .evictionListener((RateLimitKey key, Bucket bucket, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        evictedBySize.increment();
+                    } else {
+                        evictedByIdle.increment();
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public ConsumptionProbe tryConsume(RateLimitKey key) {
+        return cache.get(key, k -> createNewBucket(k.type())).tryConsumeAndReturnRemaining(1);
+    }
+
+    private Bucket createNewBucket(RateLimitType limitType) {
+        Bandwidth limit = Bandwidth.classic(
+            limitType.getCapacity(),
+            Refill.intervally(limitType.getCapacity(), limitType.getRefillDuration())
+        );
+        return Bucket.builder()
+            .addLimit(limit)
+            .build();
+    }
+
+    @Override
+    public void clear(RateLimitKey key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void clearAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("activeBuckets", cache.estimatedSize());
+        stats.put("maxBuckets", maxBuckets);
+        stats.put("idleTimeoutSeconds", idleTimeout.getSeconds());
+        stats.put("evictedBySize", evictedBySize.sum());
+        stats.put("evictedByIdle", evictedByIdle.sum());
+        return stats;
+    }
+}
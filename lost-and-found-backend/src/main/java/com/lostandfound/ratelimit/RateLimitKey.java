@@ -0,0 +1,222 @@
+package com.lostandfound.ratelimit;
+
+import com.lostandfound.config.RateLimitConfig.RateLimitType;
+
+/**
+ * Compact bucket key: the client address as a 128-bit number (IPv4 stored as
+ * IPv4-mapped IPv6), the limit type and, for @RateLimit methods, the method name.
+ * Built on every request, so addresses are parsed by hand instead of with
+ * regexes, splits or substrings. An address that does not parse is keyed by its
+ * text (unparsed), since every 128-bit value is a real address.
+ */
+public record RateLimitKey(long hi, long lo, RateLimitType type, String method, String unparsed) {
+
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFFL << 32;
+
+    public RateLimitKey(long hi, long lo, RateLimitType type, String method) {
+        this(hi, lo, type, method, null);
+    }
+
+    public static RateLimitKey of(String address, RateLimitType type, String method) {
+        RateLimitKey key = parse(address, 0, address.length(), type, method);
+        return key != null ? key : new RateLimitKey(0, 0, type, method, address);
+    }
+
+    /**
+     * Parse address[from, to) as an IPv4 or IPv6 literal; null if it is neither
+     */
+    public static RateLimitKey parse(CharSequence address, int from, int to, RateLimitType type, String method) {
+        // Drop an IPv6 zone id such as %eth0
+        for (int i = from; i < to; i++) {
+            if (address.charAt(i) == '%') {
+                to = i;
+                break;
+            }
+        }
+        if (from >= to) {
+            return null;
+        }
+
+        long ipv4 = parseIpv4(address, from, to);
+        if (ipv4 >= 0) {
+            return new RateLimitKey(0, IPV4_MAPPED_PREFIX | ipv4, type, method);
+        }
+        return parseIpv6(address, from, to, type, method);
+    }
+
+    /**
+     * Dotted quad to an unsigned 32-bit value, or -1
+     */
+    private static long parseIpv4(CharSequence s, int from, int to) {
+        long value = 0;
+        int octets = 0;
+        int octet = -1;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                // No leading zeros (they are ambiguous) and nothing above 255
+                if (octet == 0) {
+                    return -1;
+                }
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && octets < 3) {
+                value = (value << 8) | octet;
+                octets++;
+                octet = -1;
+            } else {
+                return -1;
+            }
+        }
+        if (octet < 0 || octets != 3) {
+            return -1;
+        }
+        return (value << 8) | octet;
+    }
+
+    private static RateLimitKey parseIpv6(CharSequence s, int from, int to, RateLimitType type, String method) {
+        // Groups are packed into hi/lo in the order they are read; the ones after "::" move up at the end
+        long hi = 0;
+        long lo = 0;
+        int count = 0;
+        int compressAt = -1;
+        int i = from;
+
+        if (to - from >= 2 && s.charAt(from) == ':' && s.charAt(from + 1) == ':') {
+            compressAt = 0;
+            i += 2;
+        }
+
+        while (i < to) {
+            if (count == 8) {
+                return null;
+            }
+
+            int groupStart = i;
+            long group = 0;
+            while (i < to && i - groupStart < 4) {
+                int digit = Character.digit(s.charAt(i), 16);
+                if (digit < 0) {
+                    break;
+                }
+                group = (group << 4) | digit;
+                i++;
+            }
+
+            // A trailing dotted quad fills the last two groups (e.g. ::ffff:192.0.2.1)
+            if (i < to && s.charAt(i) == '.') {
+                long ipv4 = parseIpv4(s, groupStart, to);
+                if (ipv4 < 0 || count > 6) {
+                    return null;
+                }
+                if (count < 4) {
+                    hi |= (ipv4 >>> 16) << groupShift(count);
+                } else {
+                    lo |= (ipv4 >>> 16) << groupShift(count);
+                }
+                count++;
+                if (count < 4) {
+                    hi |= (ipv4 & 0xFFFF) << groupShift(count);
+                } else {
+                    lo |= (ipv4 & 0xFFFF) << groupShift(count);
+                }
+                count++;
+                i = to;
+                break;
+            }
+
+            if (i == groupStart) {
+                return null;
+            }
+            if (count < 4) {
+                hi |= group << groupShift(count);
+            } else {
+                lo |= group << groupShift(count);
+            }
+            count++;
+
+            if (i == to) {
+                break;
+            }
+            if (s.charAt(i) != ':') {
+                return null;
+            }
+            i++;
+            if (i < to && s.charAt(i) == ':') {
+                if (compressAt >= 0) {
+                    return null;
+                }
+                compressAt = count;
+                i++;
+            } else if (i == to) {
+                // Trailing single colon
+                return null;
+            }
+        }
+
+        if (compressAt < 0 ? count != 8 : count == 8) {
+            return null;
+        }
+
+        // Shift the groups after "::" to the end, last first, leaving zeros behind
+        if (compressAt >= 0) {
+            int zeros = 8 - count;
+            for (int g = count - 1; g >= compressAt; g--) {
+                long group = ((g < 4 ? hi : lo) >>> groupShift(g)) & 0xFFFF;
+                if (g < 4) {
+                    hi &= ~(0xFFFFL << groupShift(g));
+                } else {
+                    lo &= ~(0xFFFFL << groupShift(g));
+                }
+                int target = g + zeros;
+                if (target < 4) {
+                    hi |= group << groupShift(target);
+                } else {
+                    lo |= group << groupShift(target);
+                }
+            }
+        }
+        return new RateLimitKey(hi, lo, type, method);
+    }
+
+    /**
+     * Bit offset of group g (0..7) within its half
+     */
+    private static int groupShift(int g) {
+        return 48 - 16 * (g & 3);
+    }
+
+    /**
+     * The client address in text form (IPv4 dotted, IPv6 uncompressed)
+     */
+    public String address() {
+        if (unparsed != null) {
+            return "unparsed#" + Long.toHexString(unparsed.hashCode());
+        }
+        if (hi == 0 && (lo >>> 32) == 0xFFFFL) {
+            return ((lo >>> 24) & 0xFF) + "." + ((lo >>> 16) & 0xFF) + "." + ((lo >>> 8) & 0xFF) + "." + (lo & 0xFF);
+        }
+        StringBuilder text = new StringBuilder(39);
+        for (int g = 0; g < 8; g++) {
+            long half = g < 4 ? hi : lo;
+            int shift = 48 - 16 * (g % 4);
+            if (g > 0) {
+                text.append(':');
+            }
+            text.append(Long.toHexString((half >>> shift) & 0xFFFF));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Stable text form, used as the shared store's row key and in logs
+     */
+    @Override
+    public String toString() {
+        return method == null
+                ? address() + ":" + type.name()
+                : address() + ":" + method + ":" + type.name();
+    }
+}
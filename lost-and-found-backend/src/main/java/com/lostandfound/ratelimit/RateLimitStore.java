@@ -0,0 +1,26 @@
+package com.lostandfound.ratelimit;
+
+import io.github.bucket4j.ConsumptionProbe;
+
+import java.util.Map;
+
+/**
+ * Backend that holds rate limit state. Selected with rate.limit.store
+ * (local = per-instance memory, jdbc = shared through the application database).
+ */
+public interface RateLimitStore {
+
+    /**
+     * Try to take one token for the key; the probe says whether it was granted
+     */
+    ConsumptionProbe tryConsume(RateLimitKey key);
+
+    void clear(RateLimitKey key);
+
+    void clearAll();
+
+    /**
+     * Store specific numbers for the admin stats endpoint
+     */
+    Map<String, Object> getStats();
+}
@@ -4,7 +4,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,16 +19,24 @@ import com.lostandfound.model.User;
 @Repository
 public interface ClaimRepository extends JpaRepository<Claim, Long> {
     
+    @EntityGraph(attributePaths = {"item", "claimedBy"})
     List<Claim> findByClaimedByOrderByClaimedAtDesc(User user);
     
     Optional<Claim> findByItemAndClaimedBy(Item item, User user);
     
-    boolean existsByItemAndClaimedBy(Item item, User user);
-    
+    @EntityGraph(attributePaths = "item")
     @Query("SELECT c FROM Claim c WHERE c.claimedAt < :cutoffDate")
     List<Claim> findOldClaims(@Param("cutoffDate") LocalDateTime cutoffDate);
     
     List<Claim> findByItem(Item item);
     
+    @EntityGraph(attributePaths = {"item", "claimedBy"})
     List<Claim> findAllByOrderByClaimedAtDesc();
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = {"item", "claimedBy"})
+    List<Claim> findAllByOrderByClaimedAtDesc(Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Claim c WHERE c.item.id = :itemId")
+    int deleteByItemId(@Param("itemId") Long itemId);
+}
@@ -0,0 +1,39 @@
+package com.lostandfound.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.lostandfound.model.Conversation;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, Long> {
+
+    @Query("SELECT c FROM Conversation c WHERE c.item.id = :itemId " +
+           "AND c.userLow.id = :userLowId AND c.userHigh.id = :userHighId")
+    Optional<Conversation> findByItemAndUsers(@Param("itemId") Long itemId,
+                                              @Param("userLowId") Long userLowId,
+                                              @Param("userHighId") Long userHighId);
+
+    /**
+     * Same lookup as a locking read, which also sees a row another transaction committed
+     * after this one's snapshot was taken
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT c FROM Conversation c WHERE c.item.id = :itemId " +
+           "AND c.userLow.id = :userLowId AND c.userHigh.id = :userHighId")
+    Optional<Conversation> findByItemAndUsersLocked(@Param("itemId") Long itemId,
+                                                    @Param("userLowId") Long userLowId,
+                                                    @Param("userHighId") Long userHighId);
+
+    @Modifying
+    @Query("DELETE FROM Conversation c WHERE c.item.id = :itemId")
+    int deleteByItemId(@Param("itemId") Long itemId);
+}
@@ -0,0 +1,89 @@
+package com.lostandfound.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.lostandfound.model.ConversationSummary;
+
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Long> {
+
+    // Inbox keyset pagination on (last_message_at, id): pass PageRequest.of(0, limit)
+
+    @EntityGraph(attributePaths = {"otherUser", "item"})
+    @Query("SELECT s FROM ConversationSummary s WHERE s.user.id = :userId AND s.lastMessageAt IS NOT NULL " +
+           "ORDER BY s.lastMessageAt DESC, s.id DESC")
+    List<ConversationSummary> findInboxFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"otherUser", "item"})
+    @Query("SELECT s FROM ConversationSummary s WHERE s.user.id = :userId AND s.lastMessageAt IS NOT NULL AND " +
+           "(s.lastMessageAt < :lastMessageAt OR (s.lastMessageAt = :lastMessageAt AND s.id < :id)) " +
+           "ORDER BY s.lastMessageAt DESC, s.id DESC")
+    List<ConversationSummary> findInboxPageAfter(@Param("userId") Long userId,
+                                                 @Param("lastMessageAt") LocalDateTime lastMessageAt,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
+
+    @Query("SELECT s FROM ConversationSummary s WHERE s.conversation.id = :conversationId AND s.user.id = :userId")
+    Optional<ConversationSummary> findByConversationAndUser(@Param("conversationId") Long conversationId,
+                                                            @Param("userId") Long userId);
+
+    /**
+     * Move both participants' rows to a newer message; a message committed out of
+     * order never replaces a later one. Newer means (sent_at, id): ids come from
+     * per-instance blocks, so a higher id alone is not a later message.
+     */
+    @Modifying
+    @Query("UPDATE ConversationSummary s SET s.lastMessageId = :messageId, s.lastMessage = :preview, " +
+           "s.lastMessageAt = :sentAt, s.lastSenderId = :senderId " +
+           "WHERE s.conversation.id = :conversationId AND (s.lastMessageId IS NULL " +
+           "OR s.lastMessageAt < :sentAt OR (s.lastMessageAt = :sentAt AND s.lastMessageId < :messageId))")
+    int updateLastMessage(@Param("conversationId") Long conversationId,
+                          @Param("messageId") Long messageId,
+                          @Param("preview") String preview,
+                          @Param("sentAt") LocalDateTime sentAt,
+                          @Param("senderId") Long senderId);
+
+    /**
+     * Point both rows at whatever message is now the latest, after a delete
+     */
+    @Modifying
+    @Query("UPDATE ConversationSummary s SET s.lastMessageId = :messageId, s.lastMessage = :preview, " +
+           "s.lastMessageAt = :sentAt, s.lastSenderId = :senderId " +
+           "WHERE s.conversation.id = :conversationId")
+    int resetLastMessage(@Param("conversationId") Long conversationId,
+                         @Param("messageId") Long messageId,
+                         @Param("preview") String preview,
+                         @Param("sentAt") LocalDateTime sentAt,
+                         @Param("senderId") Long senderId);
+
+    @Modifying
+    @Query("UPDATE ConversationSummary s SET s.unreadCount = s.unreadCount + :count " +
+           "WHERE s.conversation.id = :conversationId AND s.user.id = :userId")
+    int addUnread(@Param("conversationId") Long conversationId,
+                  @Param("userId") Long userId,
+                  @Param("count") int count);
+
+    @Modifying
+    @Query("UPDATE ConversationSummary s SET s.unreadCount = s.unreadCount - 1 " +
+           "WHERE s.conversation.id = :conversationId AND s.user.id = :userId AND s.unreadCount > 0")
+    int decrementUnread(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE ConversationSummary s SET s.unreadCount = 0 " +
+           "WHERE s.conversation.id = :conversationId AND s.user.id = :userId AND s.unreadCount > 0")
+    int clearUnread(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM ConversationSummary s WHERE s.item.id = :itemId")
+    int deleteByItemId(@Param("itemId") Long itemId);
+}
@@ -2,6 +2,8 @@ package com.lostandfound.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,5 +11,9 @@ import com.lostandfound.model.Feedback;
 
 @Repository
 public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
+    @EntityGraph(attributePaths = "user")
     List<Feedback> findAllByOrderBySubmittedAtDesc();
+
+    @EntityGraph(attributePaths = "user")
+    List<Feedback> findAllByOrderBySubmittedAtDesc(Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.lostandfound.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.lostandfound.model.Item;
+import com.lostandfound.model.ItemMatch;
+
+@Repository
+public interface ItemMatchRepository extends JpaRepository<ItemMatch, Long> {
+
+    /**
+     * Best matches for an item that are still open (not claimed)
+     */
+    @EntityGraph(attributePaths = {"matchedItem", "matchedItem.createdBy"})
+    @Query("SELECT m FROM ItemMatch m WHERE m.item.id = :itemId AND m.matchedItem.status <> :claimed " +
+           "ORDER BY m.score DESC, m.id")
+    List<ItemMatch> findOpenMatches(@Param("itemId") Long itemId,
+                                    @Param("claimed") Item.Status claimed,
+                                    Pageable pageable);
+
+    /**
+     * Rows that point at the item from the given other items
+     */
+    @Query("SELECT m FROM ItemMatch m WHERE m.matchedItem.id = :itemId AND m.item.id IN :otherIds")
+    List<ItemMatch> findIncoming(@Param("itemId") Long itemId, @Param("otherIds") Collection<Long> otherIds);
+
+    /**
+     * The item's own match list, leaving other items' lists alone
+     */
+    @Modifying
+    @Query("DELETE FROM ItemMatch m WHERE m.item.id = :itemId")
+    int deleteOutgoing(@Param("itemId") Long itemId);
+
+    /**
+     * Both directions, for an item that is being deleted
+     */
+    @Modifying
+    @Query("DELETE FROM ItemMatch m WHERE m.item.id = :itemId OR m.matchedItem.id = :itemId")
+    int deleteByItemId(@Param("itemId") Long itemId);
+}
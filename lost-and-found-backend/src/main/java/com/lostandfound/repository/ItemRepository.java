@@ -3,18 +3,44 @@ package com.lostandfound.repository;
 import com.lostandfound.model.Item;
 import com.lostandfound.model.Item.Status;
 import com.lostandfound.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    
+
+    // Methods whose results are mapped to ItemResponse load the creator in the same query
+
+    @EntityGraph(attributePaths = "createdBy")
     List<Item> findByCreatedByOrderByCreatedAtDesc(User user);
-    
+
+    @EntityGraph(attributePaths = "createdBy")
+    Optional<Item> findWithCreatorById(Long id);
+
+    @EntityGraph(attributePaths = "createdBy")
+    List<Item> findWithCreatorByIdIn(Collection<Long> ids);
+
+    /**
+     * Lock the item row until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = :id")
+    Optional<Item> findForUpdate(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = "createdBy")
     @Query("SELECT i FROM Item i WHERE " +
            "(:search IS NULL OR :search = '' OR " +
            "LOWER(i.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -22,8 +48,86 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
            "LOWER(i.location) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
            "(:status IS NULL OR i.status = :status) " +
            "ORDER BY i.createdAt DESC")
-    List<Item> searchItems(@Param("search") String search, 
+    List<Item> searchItems(@Param("search") String search,
                            @Param("status") Status status);
-    
+
+    // Keyset pagination on (created_at, id): pass PageRequest.of(0, limit) so only one page is read
+
+    @EntityGraph(attributePaths = "createdBy")
+    @Query("SELECT i FROM Item i WHERE " +
+           "(:search = '' OR " +
+           "LOWER(i.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(i.description) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(i.location) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
+           "(:status IS NULL OR i.status = :status) " +
+           "ORDER BY i.createdAt DESC, i.id DESC")
+    List<Item> searchItemsFirstPage(@Param("search") String search,
+                                    @Param("status") Status status,
+                                    Pageable pageable);
+
+    @EntityGraph(attributePaths = "createdBy")
+    @Query("SELECT i FROM Item i WHERE " +
+           "(:search = '' OR " +
+           "LOWER(i.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(i.description) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(i.location) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
+           "(:status IS NULL OR i.status = :status) AND " +
+           "(i.createdAt < :createdAt OR (i.createdAt = :createdAt AND i.id < :id)) " +
+           "ORDER BY i.createdAt DESC, i.id DESC")
+    List<Item> searchItemsPageAfter(@Param("search") String search,
+                                    @Param("status") Status status,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") Long id,
+                                    Pageable pageable);
+
+    @Query("SELECT COUNT(i) FROM Item i WHERE " +
+           "(:search = '' OR " +
+           "LOWER(i.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(i.description) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(i.location) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
+           "(:status IS NULL OR i.status = :status)")
+    long countSearchItems(@Param("search") String search,
+                          @Param("status") Status status);
+
+    @Query("SELECT i.createdBy.id FROM Item i WHERE i.id = :id")
+    Optional<Long> findCreatorIdById(@Param("id") Long id);
+
+    /**
+     * Atomically move an item to CLAIMED; returns 0 if it was already claimed.
+     * The row lock taken by the UPDATE serializes concurrent claims on the same item only.
+     */
+    @Modifying
+    @Query("UPDATE Item i SET i.status = :claimed, i.version = COALESCE(i.version, 0) + 1 " +
+           "WHERE i.id = :id AND i.status <> :claimed")
+    int markClaimed(@Param("id") Long id, @Param("claimed") Status claimed);
+
+    @EntityGraph(attributePaths = "createdBy")
     List<Item> findAllByOrderByCreatedAtDesc();
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = "createdBy")
+    List<Item> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    /**
+     * Open items created after the cutoff, for warming the match index
+     */
+    Slice<Item> findByStatusInAndCreatedAtAfter(Collection<Status> statuses, LocalDateTime cutoff, Pageable pageable);
+
+    @Query("SELECT i.id, i.imageHash FROM Item i WHERE i.imageHash IS NOT NULL")
+    List<Object[]> findAllImageHashes();
+
+    @Query("SELECT i FROM Item i WHERE i.image IS NOT NULL AND i.imageHash IS NULL AND i.id > :afterId ORDER BY i.id")
+    List<Item> findUnhashedImagesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Derived data only, so the optimistic lock version is left alone
+    @Modifying
+    @Query("UPDATE Item i SET i.imageHash = :hash WHERE i.id = :id")
+    int updateImageHash(@Param("id") Long id, @Param("hash") Long hash);
+
+    @Query("SELECT i.id, i.image FROM Item i WHERE i.image IS NOT NULL AND i.id > :afterId ORDER BY i.id")
+    List<Object[]> findImagePathsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Same image content at a new path, so the optimistic lock version is left alone
+    @Modifying
+    @Query("UPDATE Item i SET i.image = :image WHERE i.id = :id AND i.image = :previous")
+    int moveImage(@Param("id") Long id, @Param("previous") String previous, @Param("image") String image);
+}
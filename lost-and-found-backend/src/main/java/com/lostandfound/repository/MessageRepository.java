@@ -1,8 +1,16 @@
 package com.lostandfound.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.lostandfound.model.Message;
@@ -10,7 +18,61 @@ import com.lostandfound.model.User;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
+    @EntityGraph(attributePaths = {"sender", "receiver", "item"})
     List<Message> findByReceiverOrderBySentAtDesc(User receiver);
+
+    @EntityGraph(attributePaths = {"sender", "receiver", "item"})
     List<Message> findBySenderOrderBySentAtDesc(User sender);
+
+    @EntityGraph(attributePaths = {"sender", "receiver", "item"})
     List<Message> findAllByOrderBySentAtDesc();
-}
\ No newline at end of file
+
+    // Thread keyset pagination on (sent_at, id), newest first: pass PageRequest.of(0, limit)
+
+    @EntityGraph(attributePaths = {"sender", "receiver", "item"})
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId ORDER BY m.sentAt DESC, m.id DESC")
+    List<Message> findThreadFirstPage(@Param("conversationId") Long conversationId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"sender", "receiver", "item"})
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId AND " +
+           "(m.sentAt < :sentAt OR (m.sentAt = :sentAt AND m.id < :id)) " +
+           "ORDER BY m.sentAt DESC, m.id DESC")
+    List<Message> findThreadPageAfter(@Param("conversationId") Long conversationId,
+                                      @Param("sentAt") LocalDateTime sentAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId ORDER BY m.sentAt DESC, m.id DESC LIMIT 1")
+    Optional<Message> findLatestInConversation(@Param("conversationId") Long conversationId);
+
+    // Messages from before conversations existed, oldest first
+    @Query("SELECT m FROM Message m WHERE m.conversation IS NULL AND m.id > :afterId ORDER BY m.id")
+    List<Message> findWithoutConversationAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Unread counts as (receiver id, count) rows; only unread rows are read via idx_messages_unread
+
+    @Query("SELECT m.receiver.id, COUNT(m) FROM Message m WHERE m.readAt IS NULL GROUP BY m.receiver.id")
+    List<Object[]> countUnreadByReceiver();
+
+    @Query("SELECT m.receiver.id, COUNT(m) FROM Message m WHERE m.item.id = :itemId AND m.readAt IS NULL " +
+           "GROUP BY m.receiver.id")
+    List<Object[]> countUnreadByReceiverForItem(@Param("itemId") Long itemId);
+
+    @Query("SELECT COUNT(m) FROM Message m WHERE m.receiver.id = :receiverId AND m.readAt IS NULL")
+    long countUnread(@Param("receiverId") Long receiverId);
+
+    @Modifying
+    @Query("UPDATE Message m SET m.readAt = :readAt " +
+           "WHERE m.conversation.id = :conversationId AND m.receiver.id = :receiverId AND m.readAt IS NULL")
+    int markConversationRead(@Param("conversationId") Long conversationId,
+                             @Param("receiverId") Long receiverId,
+                             @Param("readAt") LocalDateTime readAt);
+
+    @Modifying
+    @Query("UPDATE Message m SET m.readAt = :readAt WHERE m.id = :id AND m.readAt IS NULL")
+    int markRead(@Param("id") Long id, @Param("readAt") LocalDateTime readAt);
+
+    @Modifying
+    @Query("DELETE FROM Message m WHERE m.item.id = :itemId")
+    int deleteByItemId(@Param("itemId") Long itemId);
+}
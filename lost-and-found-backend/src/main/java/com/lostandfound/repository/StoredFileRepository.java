@@ -0,0 +1,25 @@
+package com.lostandfound.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.lostandfound.model.StoredFile;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+    /**
+     * Row-locked lookup, so adding and releasing references to the same content
+     * (and creating or unlinking its file) happen one at a time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM StoredFile f WHERE f.sha256 = :sha256")
+    Optional<StoredFile> findForUpdate(@Param("sha256") String sha256);
+}
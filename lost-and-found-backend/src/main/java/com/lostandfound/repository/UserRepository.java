@@ -1,6 +1,7 @@
 package com.lostandfound.repository;
 
 import com.lostandfound.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,4 +13,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
     List<User> findByRoleNot(User.Role role);
+    List<User> findByRoleNot(User.Role role, Pageable pageable);
+    long countByRoleNot(User.Role role);
 }
\ No newline at end of file
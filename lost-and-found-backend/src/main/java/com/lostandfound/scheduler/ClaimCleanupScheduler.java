@@ -1,5 +1,6 @@
 package com.lostandfound.scheduler;
 
+import com.lostandfound.event.ItemChangedEvent;
 import com.lostandfound.model.Claim;
 import com.lostandfound.model.Item;
 import com.lostandfound.repository.ClaimRepository;
@@ -7,6 +8,7 @@ import com.lostandfound.repository.ItemRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,6 +24,7 @@ public class ClaimCleanupScheduler {
     
     private final ClaimRepository claimRepository;
     private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Scheduled(cron = "0 0 2 * * ?") // Run every day at 2 AM
     @Transactional
@@ -42,6 +45,7 @@ public class ClaimCleanupScheduler {
                 if (item.getStatus() == Item.Status.CLAIMED) {
                     item.setStatus(Item.Status.FOUND);
                     itemRepository.save(item);
+                    eventPublisher.publishEvent(new ItemChangedEvent(item.getId(), ItemChangedEvent.Type.STATUS_CHANGED));
                 }
             }
             
@@ -1,6 +1,7 @@
 package com.lostandfound.security;
 
 import com.lostandfound.util.CookieUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,6 +9,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,6 +19,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -27,6 +30,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService customUserDetailsService;
     private final CookieUtil cookieUtil;
+    private final SecurityEpochService securityEpochService;
+
+    // Build the principal from token claims instead of loading the user on every request
+    @Value("${jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -41,16 +49,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 jwt = getJwtFromHeader(request);
             }
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                Long userId = tokenProvider.getUserIdFromToken(jwt);
-                UserDetails userDetails = customUserDetailsService.loadUserById(userId);
+            // Signature and expiry are verified once; the claims are reused below
+            Optional<Claims> verified = StringUtils.hasText(jwt) ? tokenProvider.verifyToken(jwt) : Optional.empty();
+
+            if (verified.isPresent()) {
+                Claims claims = verified.get();
+                Long userId = Long.parseLong(claims.getSubject());
+                UserDetails userDetails = resolvePrincipal(userId, claims);
 
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                logger.debug("Set authentication for user: {}", userId);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    logger.debug("Set authentication for user: {}", userId);
+                } else {
+                    logger.debug("Rejected stale token for user: {}", userId);
+                }
             } else {
                 logger.debug("No valid JWT token found for request: {}", request.getRequestURI());
             }
@@ -61,6 +77,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Principal for a verified token, or null if the token predates a security epoch bump
+     */
+    private UserDetails resolvePrincipal(Long userId, Claims claims) {
+        Long epoch = claims.get(JwtTokenProvider.CLAIM_EPOCH, Long.class);
+
+        // Tokens from before this process started (or without an epoch) are checked against the database
+        if (!statelessPrincipal || epoch == null || !securityEpochService.canVouchFor(claims.getIssuedAt())) {
+            return customUserDetailsService.loadUserById(userId);
+        }
+
+        return securityEpochService.isCurrent(userId, epoch) ? UserPrincipal.fromClaims(claims) : null;
+    }
+
     /**
      * Get JWT from cookie (PRIMARY method)
      */
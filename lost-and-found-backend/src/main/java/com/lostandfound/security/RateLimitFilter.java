@@ -3,7 +3,8 @@ package com.lostandfound.security;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lostandfound.config.RateLimitConfig;
 import com.lostandfound.dto.response.ApiResponse;
-import io.github.bucket4j.Bucket;
+import com.lostandfound.ratelimit.ClientKeyResolver;
+import com.lostandfound.ratelimit.RateLimitKey;
 import io.github.bucket4j.ConsumptionProbe;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -19,6 +20,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 @Component
 @RequiredArgsConstructor
@@ -26,7 +28,27 @@ public class RateLimitFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
 
+    private static final String HEADER_REMAINING = "X-Rate-Limit-Remaining";
+    private static final String HEADER_RETRY_AFTER = "X-Rate-Limit-Retry-After-Seconds";
+
+    // Header values are precomputed so the allowed path formats no numbers
+    private static final String[] REMAINING_VALUES = new String[(int) Arrays.stream(RateLimitConfig.RateLimitType.values())
+            .mapToLong(RateLimitConfig.RateLimitType::getCapacity)
+            .max()
+            .orElse(0) + 1];
+    private static final String[] REFILL_SECONDS_VALUES = new String[RateLimitConfig.RateLimitType.values().length];
+
+    static {
+        for (int i = 0; i < REMAINING_VALUES.length; i++) {
+            REMAINING_VALUES[i] = Integer.toString(i);
+        }
+        for (RateLimitConfig.RateLimitType type : RateLimitConfig.RateLimitType.values()) {
+            REFILL_SECONDS_VALUES[type.ordinal()] = Long.toString(type.getRefillDuration().getSeconds());
+        }
+    }
+
     private final RateLimitConfig rateLimitConfig;
+    private final ClientKeyResolver clientKeyResolver;
     private final ObjectMapper objectMapper;
 
     @Value("${rate.limit.enabled:true}")
@@ -44,36 +66,31 @@ public class RateLimitFilter extends OncePerRequestFilter {
         }
 
         String path = request.getRequestURI();
-        String clientIp = getClientIP(request);
 
         // Determine rate limit type based on path
         RateLimitConfig.RateLimitType limitType = determineRateLimitType(path);
 
-        // Create unique key: IP + Path pattern
-        String bucketKey = clientIp + ":" + limitType.name();
+        // Unique key: client address + limit type
+        RateLimitKey bucketKey = clientKeyResolver.resolve(request, limitType, null);
 
-        // Get or create bucket for this key
-        Bucket bucket = rateLimitConfig.resolveBucket(bucketKey, limitType);
-
-        // Try to consume a token
-        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+        // Try to consume a token from the bucket for this key
+        ConsumptionProbe probe = rateLimitConfig.tryConsume(bucketKey);
 
         if (probe.isConsumed()) {
             // Request allowed - add rate limit headers
-            response.addHeader("X-Rate-Limit-Remaining", String.valueOf(probe.getRemainingTokens()));
-            response.addHeader("X-Rate-Limit-Retry-After-Seconds",
-                    String.valueOf(limitType.getRefillDuration().getSeconds()));
+            response.addHeader(HEADER_REMAINING, remainingValue(probe.getRemainingTokens()));
+            response.addHeader(HEADER_RETRY_AFTER, REFILL_SECONDS_VALUES[limitType.ordinal()]);
 
             filterChain.doFilter(request, response);
         } else {
             // Rate limit exceeded
             long waitForRefill = probe.getNanosToWaitForRefill() / 1_000_000_000;
 
-            logger.warn("Rate limit exceeded for IP: {} on path: {}", clientIp, path);
+            logger.warn("Rate limit exceeded for IP: {} on path: {}", bucketKey.address(), path);
 
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-            response.addHeader("X-Rate-Limit-Retry-After-Seconds", String.valueOf(waitForRefill));
+            response.addHeader(HEADER_RETRY_AFTER, String.valueOf(waitForRefill));
 
             ApiResponse apiResponse = ApiResponse.builder()
                     .success(false)
@@ -101,61 +118,10 @@ public class RateLimitFilter extends OncePerRequestFilter {
         }
     }
 
-    /**
-     * Extract client IP address with proper proxy handling
-     */
-    private String getClientIP(HttpServletRequest request) {
-        // Only trust X-Forwarded-For if behind a known proxy
-        String xfHeader = request.getHeader("X-Forwarded-For");
-
-        // Check if request is from trusted proxy
-        String remoteAddr = request.getRemoteAddr();
-        boolean isTrustedProxy = isTrustedProxy(remoteAddr);
-
-        if (isTrustedProxy && xfHeader != null && !xfHeader.isEmpty()) {
-            // X-Forwarded-For can contain multiple IPs, get the first one
-            String clientIp = xfHeader.split(",")[0].trim();
-
-            // Validate IP format to prevent injection
-            if (isValidIP(clientIp)) {
-                return clientIp;
-            }
-        }
-
-        return remoteAddr;
-    }
-
-    /**
-     * Check if IP is from trusted proxy
-     */
-    private boolean isTrustedProxy(String ip) {
-        // Add your trusted proxy IPs here (e.g., load balancer, reverse proxy)
-        // For local development, trust localhost
-        return "127.0.0.1".equals(ip) ||
-                "0:0:0:0:0:0:0:1".equals(ip) ||
-                "::1".equals(ip);
-        // In production, add your actual proxy IPs:
-        // return Arrays.asList("10.0.0.1", "172.16.0.1").contains(ip);
-    }
-
-    /**
-     * Validate IP address format
-     */
-    private boolean isValidIP(String ip) {
-        if (ip == null || ip.isEmpty()) {
-            return false;
-        }
-
-        // Simple validation for IPv4
-        String ipv4Pattern = "^((25[0-5]|(2[0-4]|1\\d|[1-9]|)\\d)\\.?\\b){4}$";
-
-        // Simple validation for IPv6
-        String ipv6Pattern = "^(([0-9a-fA-F]{1,4}:){7}[0-9a-fA-F]{1,4}|" +
-                "([0-9a-fA-F]{1,4}:){1,7}:|" +
-                "([0-9a-fA-F]{1,4}:){1,6}:[0-9a-fA-F]{1,4}|" +
-                "([0-9a-fA-F]{1,4}:){1,5}(:[0-9a-fA-F]{1,4}){1,2})$";
-
-        return ip.matches(ipv4Pattern) || ip.matches(ipv6Pattern);
+    private static String remainingValue(long remaining) {
+        return remaining >= 0 && remaining < REMAINING_VALUES.length
+                ? REMAINING_VALUES[(int) remaining]
+                : Long.toString(remaining);
     }
 
     /**
@@ -0,0 +1,58 @@
+package com.lostandfound.security;
+
+import com.lostandfound.event.SecurityEpochBumpedEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user security epoch, stamped into every access token. Bumping a user's epoch
+ * (logout, deletion, role change) makes all of their outstanding access tokens stale
+ * without a database lookup per request.
+ *
+ * Epochs live in memory only, so tokens issued before this process started cannot be
+ * vouched for and must be checked against the database instead. Nor are bumps shared
+ * between instances, so jwt.stateless-principal is only safe with a single instance.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecurityEpochService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecurityEpochService.class);
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, Long> epochs = new ConcurrentHashMap<>();
+
+    // JWT timestamps have second precision
+    private final Instant startedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+    public long currentEpoch(Long userId) {
+        return epochs.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * Invalidate every access token issued to the user so far
+     */
+    public void bump(Long userId) {
+        long epoch = epochs.merge(userId, 1L, Long::sum);
+        logger.debug("Security epoch for user {} is now {}", userId, epoch);
+        eventPublisher.publishEvent(new SecurityEpochBumpedEvent(userId));
+    }
+
+    public boolean canVouchFor(Date issuedAt) {
+        return issuedAt != null && !issuedAt.toInstant().isBefore(startedAt);
+    }
+
+    public boolean isCurrent(Long userId, long epoch) {
+        return currentEpoch(userId) == epoch;
+    }
+}
@@ -1,6 +1,7 @@
 package com.lostandfound.security;
 
 import com.lostandfound.model.User;
+import io.jsonwebtoken.Claims;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.springframework.security.core.GrantedAuthority;
@@ -34,6 +35,23 @@ public class UserPrincipal implements UserDetails {
         );
     }
     
+    /**
+     * Build a principal from verified access token claims, without a database lookup
+     */
+    public static UserPrincipal fromClaims(Claims claims) {
+        Collection<GrantedAuthority> authorities = Collections.singleton(
+            new SimpleGrantedAuthority(claims.get(JwtTokenProvider.CLAIM_ROLE, String.class))
+        );
+        
+        return new UserPrincipal(
+            Long.parseLong(claims.getSubject()),
+            claims.get(JwtTokenProvider.CLAIM_NAME, String.class),
+            claims.get(JwtTokenProvider.CLAIM_EMAIL, String.class),
+            null,
+            authorities
+        );
+    }
+    
     @Override
     public String getUsername() {
         return email;
@@ -0,0 +1,119 @@
+package com.lostandfound.service;
+
+import com.lostandfound.dto.response.AdminDashboardResponse;
+import com.lostandfound.dto.response.ClaimResponse;
+import com.lostandfound.dto.response.FeedbackResponse;
+import com.lostandfound.dto.response.ItemResponse;
+import com.lostandfound.model.User;
+import com.lostandfound.repository.ClaimRepository;
+import com.lostandfound.repository.FeedbackRepository;
+import com.lostandfound.repository.ItemRepository;
+import com.lostandfound.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the admin dashboard from one page of each list plus COUNT queries.
+ * The eight queries are independent and the pool has a thread for each by default,
+ * so the response takes as long as the slowest single query; a smaller
+ * admin.dashboard.parallelism queues the rest behind the first ones.
+ */
+@Service
+@RequiredArgsConstructor
+public class AdminDashboardService {
+
+    private final ItemService itemService;
+    private final ClaimService claimService;
+    private final FeedbackService feedbackService;
+    private final ItemRepository itemRepository;
+    private final ClaimRepository claimRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final UserRepository userRepository;
+
+    // Four pages and four counts
+    @Value("${admin.dashboard.parallelism:8}")
+    private int parallelism;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void startExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("admin-dashboard-");
+        threadFactory.setDaemon(true);
+
+        // When the queue is full the request thread runs the query itself instead of failing
+        executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(100), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void stopExecutor() {
+        executor.shutdown();
+    }
+
+    public AdminDashboardResponse getDashboard(int page, int size) {
+        CompletableFuture<List<ItemResponse>> items = async(() -> itemService.getItemsPage(page, size));
+        CompletableFuture<List<ClaimResponse>> claims = async(() -> claimService.getClaimsPage(page, size));
+        CompletableFuture<List<FeedbackResponse>> feedback = async(() -> feedbackService.getFeedbackPage(page, size));
+        CompletableFuture<List<User>> users = async(() -> userRepository.findByRoleNot(
+                User.Role.ADMIN, PageRequest.of(page, size, Sort.by("id"))));
+
+        CompletableFuture<Long> totalItems = async(itemRepository::count);
+        CompletableFuture<Long> totalClaims = async(claimRepository::count);
+        CompletableFuture<Long> totalFeedback = async(feedbackRepository::count);
+        CompletableFuture<Long> totalUsers = async(() -> userRepository.countByRoleNot(User.Role.ADMIN));
+
+        try {
+            CompletableFuture.allOf(items, claims, feedback, users,
+                    totalItems, totalClaims, totalFeedback, totalUsers).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        return AdminDashboardResponse.builder()
+                .items(items.join())
+                .claims(claims.join())
+                .feedback(feedback.join())
+                .users(users.join().stream().map(this::mapUser).collect(Collectors.toList()))
+                .totalItems(totalItems.join())
+                .totalClaims(totalClaims.join())
+                .totalFeedback(totalFeedback.join())
+                .totalUsers(totalUsers.join())
+                .build();
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, executor);
+    }
+
+    private Map<String, Object> mapUser(User user) {
+        Map<String, Object> userMap = new HashMap<>();
+        userMap.put("id", user.getId());
+        userMap.put("name", user.getName());
+        userMap.put("email", user.getEmail());
+        userMap.put("role", user.getRole().name());
+        userMap.put("createdAt", user.getCreatedAt());
+        return userMap;
+    }
+}
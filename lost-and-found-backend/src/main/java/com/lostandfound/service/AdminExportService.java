@@ -0,0 +1,240 @@
+package com.lostandfound.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lostandfound.exception.BadRequestException;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams whole admin tables as NDJSON or CSV. Rows are read as plain column tuples
+ * through a forward-only cursor in a stateless session (no persistence context),
+ * so memory use does not depend on the number of rows exported.
+ */
+@Service
+@RequiredArgsConstructor
+public class AdminExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminExportService.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectMapper objectMapper;
+
+    @Value("${export.fetch-size:500}")
+    private int fetchSize;
+
+    public enum ExportType {
+        ITEMS("SELECT i.id, i.name, i.description, i.location, i.status, i.image, u.id, u.name, i.createdAt " +
+                "FROM Item i JOIN i.createdBy u ORDER BY i.id",
+                "id", "name", "description", "location", "status", "image", "createdBy", "creatorName", "createdAt"),
+        CLAIMS("SELECT c.id, i.id, i.name, i.description, i.location, u.id, u.name, c.claimantName, c.claimantEmail, c.claimedAt " +
+                "FROM Claim c JOIN c.item i JOIN c.claimedBy u ORDER BY c.id",
+                "id", "itemId", "itemName", "description", "location", "claimedBy", "claimerName",
+                "claimantName", "claimantEmail", "claimedAt"),
+        USERS("SELECT u.id, u.name, u.email, u.role, u.createdAt FROM User u ORDER BY u.id",
+                "id", "name", "email", "role", "createdAt"),
+        FEEDBACK("SELECT f.id, u.id, u.name, f.feedbackText, f.submittedAt FROM Feedback f JOIN f.user u ORDER BY f.id",
+                "id", "userId", "userName", "feedbackText", "submittedAt");
+
+        private final String query;
+        private final List<String> columns;
+
+        ExportType(String query, String... columns) {
+            this.query = query;
+            this.columns = List.of(columns);
+        }
+
+        public String fileName(ExportFormat format) {
+            return name().toLowerCase(Locale.ROOT) + "." + format.getExtension();
+        }
+    }
+
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    public ExportType parseType(String type) {
+        try {
+            return ExportType.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid export type. Must be items, claims, users or feedback");
+        }
+    }
+
+    public ExportFormat parseFormat(String format) {
+        try {
+            return ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid export format. Must be ndjson or csv");
+        }
+    }
+
+    /**
+     * Write every row of the given type to out; returns the number of rows written
+     */
+    public long export(ExportType type, ExportFormat format, OutputStream out) throws IOException {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        long rows = 0;
+
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            // Some drivers only use a server-side cursor inside a transaction
+            Transaction transaction = session.beginTransaction();
+            try (ScrollableResults<Object[]> results = session.createSelectionQuery(type.query, Object[].class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+
+                RowWriter writer = format == ExportFormat.CSV
+                        ? new CsvRowWriter(out, type.columns)
+                        : new NdjsonRowWriter(out, type.columns);
+
+                while (results.next()) {
+                    writer.write(results.get());
+                    if (++rows % fetchSize == 0) {
+                        writer.flush();
+                    }
+                }
+                writer.flush();
+            } catch (IOException | RuntimeException | Error e) {
+                // Usually the client went away mid-download
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+            transaction.commit();
+        }
+
+        logger.info("Exported {} {} rows as {}", rows, type, format);
+        return rows;
+    }
+
+    private interface RowWriter {
+        void write(Object[] row) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+        private final List<String> columns;
+
+        NdjsonRowWriter(OutputStream out, List<String> columns) throws IOException {
+            this.generator = objectMapper.createGenerator(out);
+            // The response stream belongs to the container
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+            this.columns = columns;
+        }
+
+        @Override
+        public void write(Object[] row) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < row.length; i++) {
+                generator.writeFieldName(columns.get(i));
+                generator.writeObject(row[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out, List<String> columns) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(String.join(",", columns));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(Object[] row) throws IOException {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (row[i] instanceof String text) {
+                    writeField(neutralize(text));
+                } else if (row[i] != null) {
+                    writeField(row[i].toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        // Spreadsheets run user text that starts like a formula; a leading ' keeps it text
+        private static String neutralize(String text) {
+            if (text.isEmpty()) {
+                return text;
+            }
+            char first = text.charAt(0);
+            boolean formula = first == '=' || first == '+' || first == '-' || first == '@'
+                    || first == '\t' || first == '\r';
+            return formula ? "'" + text : text;
+        }
+
+        // RFC 4180: quote fields containing separators, quotes or line breaks; double inner quotes
+        private void writeField(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+    }
+}
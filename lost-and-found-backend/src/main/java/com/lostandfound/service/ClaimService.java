@@ -2,6 +2,8 @@ package com.lostandfound.service;
 
 import com.lostandfound.dto.response.ApiResponse;
 import com.lostandfound.dto.response.ClaimResponse;
+import com.lostandfound.event.ItemChangedEvent;
+import com.lostandfound.event.UserNotificationEvent;
 import com.lostandfound.exception.BadRequestException;
 import com.lostandfound.exception.ResourceNotFoundException;
 import com.lostandfound.exception.UnauthorizedException;
@@ -15,6 +17,9 @@ import com.lostandfound.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,6 +35,7 @@ public class ClaimService {
     private final ClaimRepository claimRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ApiResponse claimItem(Long itemId, UserPrincipal currentUser) {
@@ -41,46 +47,46 @@ public class ClaimService {
         User user = userRepository.findById(currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", currentUser.getId()));
 
-        // Use pessimistic locking to prevent race conditions
-        Item item = itemRepository.findById(itemId)
+        Long creatorId = itemRepository.findCreatorIdById(itemId)
                 .orElseThrow(() -> new ResourceNotFoundException("Item", "id", itemId));
 
-        // Synchronize on item to prevent concurrent claims
-        synchronized (this) {
-            // Re-fetch with lock to ensure we have latest state
-            item = itemRepository.findById(itemId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Item", "id", itemId));
-
-            // Check if item is already claimed
-            if (item.getStatus() == Item.Status.CLAIMED) {
-                throw new BadRequestException("This item has already been claimed by someone else");
-            }
-
-            // Check if user is trying to claim their own item
-            if (item.getCreatedBy().getId().equals(currentUser.getId())) {
-                throw new BadRequestException("You cannot claim your own item");
-            }
-
-            // Check if user has already claimed this item
-            if (claimRepository.existsByItemAndClaimedBy(item, user)) {
-                throw new BadRequestException("You have already submitted a claim for this item");
-            }
+        // Check if user is trying to claim their own item
+        if (creatorId.equals(currentUser.getId())) {
+            throw new BadRequestException("You cannot claim your own item");
+        }
 
-            // Create new claim
-            Claim claim = new Claim();
-            claim.setItem(item);
-            claim.setClaimedBy(user);
-            claim.setClaimantName(user.getName());
-            claim.setClaimantEmail(user.getEmail());
+        // Conditional update: only one transaction can move the item to CLAIMED
+        if (itemRepository.markClaimed(itemId, Item.Status.CLAIMED) == 0) {
+            throw new BadRequestException("This item has already been claimed by someone else");
+        }
 
-            claimRepository.save(claim);
+        Claim claim = new Claim();
+        claim.setItem(itemRepository.getReferenceById(itemId));
+        claim.setClaimedBy(user);
+        claim.setClaimantName(user.getName());
+        claim.setClaimantEmail(user.getEmail());
+
+        // The unique (item_id, claimed_by) constraint rejects a second claim by the same user
+        try {
+            claimRepository.saveAndFlush(claim);
+        } catch (DataIntegrityViolationException e) {
+            throw new BadRequestException("You have already submitted a claim for this item");
+        }
 
-            // Update item status
-            item.setStatus(Item.Status.CLAIMED);
-            itemRepository.save(item);
+        logger.info("User ID {} claimed item {}", user.getId(), itemId);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId, ItemChangedEvent.Type.STATUS_CHANGED));
 
-            logger.info("User ID {} claimed item {}", user.getId(), itemId);
-        }
+        // Tell the owner; item details are left out so the claim costs no extra item load
+        ClaimResponse notification = ClaimResponse.builder()
+                .id(claim.getId())
+                .itemId(itemId)
+                .claimedBy(user.getId())
+                .claimerName(user.getName())
+                .claimantName(claim.getClaimantName())
+                .claimantEmail(claim.getClaimantEmail())
+                .claimedAt(claim.getClaimedAt())
+                .build();
+        eventPublisher.publishEvent(new UserNotificationEvent(creatorId, UserNotificationEvent.Type.CLAIM, notification));
 
         return ApiResponse.builder()
                 .success(true)
@@ -107,6 +113,16 @@ public class ClaimService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Newest-first page of all claims for the admin dashboard
+     */
+    @Transactional(readOnly = true)
+    public List<ClaimResponse> getClaimsPage(int page, int size) {
+        return claimRepository.findAllByOrderByClaimedAtDesc(PageRequest.of(page, size)).stream()
+                .map(this::mapToClaimResponse)
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     public void deleteClaim(Long claimId) {
         Claim claim = claimRepository.findById(claimId)
@@ -122,6 +138,7 @@ public class ClaimService {
             if (remainingClaims.isEmpty()) {
                 item.setStatus(Item.Status.FOUND);
                 itemRepository.save(item);
+                eventPublisher.publishEvent(new ItemChangedEvent(item.getId(), ItemChangedEvent.Type.STATUS_CHANGED));
             }
         }
 
@@ -0,0 +1,220 @@
+package com.lostandfound.service;
+
+import com.lostandfound.model.Conversation;
+import com.lostandfound.model.ConversationSummary;
+import com.lostandfound.model.Item;
+import com.lostandfound.model.Message;
+import com.lostandfound.model.User;
+import com.lostandfound.repository.ConversationRepository;
+import com.lostandfound.repository.ConversationSummaryRepository;
+import com.lostandfound.repository.ItemRepository;
+import com.lostandfound.repository.MessageRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps conversations and their per-participant inbox rows in step with messages.
+ * Every method joins the caller's transaction, so a message and its summary update
+ * commit or roll back together.
+ */
+@Service
+@RequiredArgsConstructor
+public class ConversationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationService.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    // Same order as the summary update: ids alone do not follow send order across instances
+    private static final Comparator<Message> NEWEST_FIRST =
+            Comparator.comparing(Message::getSentAt).thenComparing(Message::getId).reversed();
+
+    private final ConversationRepository conversationRepository;
+    private final ConversationSummaryRepository conversationSummaryRepository;
+    private final ItemRepository itemRepository;
+    private final MessageRepository messageRepository;
+    private final UnreadMessageCounter unreadMessageCounter;
+    private final PlatformTransactionManager transactionManager;
+
+    private ExecutorService backfillExecutor;
+
+    /**
+     * The conversation between two users about an item, created with an inbox row for
+     * each of them on first use. Creation holds the item's row lock, so two first
+     * messages racing for the same pair cannot both insert: the second waits, then finds
+     * the first one's row instead of failing on uk_conversations_item_pair.
+     *
+     * Callers run at READ COMMITTED: under MySQL's REPEATABLE READ the locking read of a
+     * missing row takes a gap lock, and two first messages about different new items
+     * would deadlock on their inserts.
+     */
+    public Conversation conversationFor(Item item, User sender, User receiver) {
+        User low = sender.getId() < receiver.getId() ? sender : receiver;
+        User high = low == sender ? receiver : sender;
+
+        Optional<Conversation> existing = conversationRepository.findByItemAndUsers(item.getId(), low.getId(), high.getId());
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        itemRepository.findForUpdate(item.getId());
+        // Locking read: a plain one could still answer from this transaction's older snapshot
+        return conversationRepository.findByItemAndUsersLocked(item.getId(), low.getId(), high.getId())
+                .orElseGet(() -> {
+                    Conversation conversation = new Conversation();
+                    conversation.setItem(item);
+                    conversation.setUserLow(low);
+                    conversation.setUserHigh(high);
+                    conversation = conversationRepository.save(conversation);
+
+                    conversationSummaryRepository.save(newSummary(conversation, low, high));
+                    conversationSummaryRepository.save(newSummary(conversation, high, low));
+                    return conversation;
+                });
+    }
+
+    /**
+     * Show a just-saved message as the latest in both inboxes and count it as unread
+     * for the receiver
+     */
+    public void messageSent(Message message) {
+        // Inserts wait for the flush, which is also when sent_at is filled in
+        messageRepository.flush();
+        updateLastMessage(message);
+        conversationSummaryRepository.addUnread(message.getConversation().getId(), message.getReceiver().getId(), 1);
+    }
+
+    /**
+     * Same as messageSent for a batch of saved messages, with one summary update per
+     * conversation and one unread update per receiver instead of one each per message
+     */
+    public void messagesSent(List<Message> messages) {
+        messageRepository.flush();
+        Map<Long, Message> latest = new LinkedHashMap<>();
+        Map<List<Long>, Integer> unread = new LinkedHashMap<>();
+        for (Message message : messages) {
+            Long conversationId = message.getConversation().getId();
+            latest.merge(conversationId, message, (a, b) -> NEWEST_FIRST.compare(a, b) <= 0 ? a : b);
+            unread.merge(List.of(conversationId, message.getReceiver().getId()), 1, Integer::sum);
+        }
+        latest.values().forEach(this::updateLastMessage);
+        unread.forEach((key, count) -> conversationSummaryRepository.addUnread(key.get(0), key.get(1), count));
+    }
+
+    /**
+     * Point both inbox rows at the conversation's latest remaining message (or none)
+     */
+    public void messageDeleted(Long conversationId) {
+        messageRepository.flush();
+        Message latest = messageRepository.findLatestInConversation(conversationId).orElse(null);
+        if (latest == null) {
+            conversationSummaryRepository.resetLastMessage(conversationId, null, null, null, null);
+        } else {
+            conversationSummaryRepository.resetLastMessage(conversationId, latest.getId(),
+                    preview(latest.getMessage()), latest.getSentAt(), latest.getSender().getId());
+        }
+    }
+
+    public void markRead(Long conversationId, Long userId) {
+        conversationSummaryRepository.clearUnread(conversationId, userId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("conversation-backfill-");
+        threadFactory.setDaemon(true);
+        backfillExecutor = Executors.newSingleThreadExecutor(threadFactory);
+        backfillExecutor.execute(this::backfill);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (backfillExecutor != null) {
+            backfillExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Group messages sent before conversations existed. They are oldest first, so the
+     * last one of each conversation ends up as its summary; all are marked read, as
+     * nothing tracked reading before.
+     */
+    void backfill() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        long afterId = 0;
+        int assigned = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            long from = afterId;
+            List<Long> ids;
+            try {
+                ids = transactionTemplate.execute(status -> {
+                    List<Message> batch = messageRepository.findWithoutConversationAfter(from,
+                            PageRequest.of(0, BACKFILL_BATCH_SIZE));
+                    for (Message message : batch) {
+                        message.setConversation(conversationFor(message.getItem(), message.getSender(), message.getReceiver()));
+                        if (message.getReadAt() == null) {
+                            message.setReadAt(message.getSentAt());
+                        }
+                        updateLastMessage(message);
+                    }
+                    return batch.stream().map(Message::getId).toList();
+                });
+            } catch (DataAccessException e) {
+                // e.g. a new message created the same conversation meanwhile; the next start resumes here
+                logger.warn("Conversation backfill stopped after message {}: {}", from, e.getMessage());
+                break;
+            }
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+            assigned += ids.size();
+        }
+
+        if (assigned > 0) {
+            logger.info("Grouped {} existing messages into conversations", assigned);
+            // They were just marked read
+            unreadMessageCounter.reconcile();
+        }
+    }
+
+    private void updateLastMessage(Message message) {
+        conversationSummaryRepository.updateLastMessage(message.getConversation().getId(), message.getId(),
+                preview(message.getMessage()), message.getSentAt(), message.getSender().getId());
+    }
+
+    private static ConversationSummary newSummary(Conversation conversation, User user, User otherUser) {
+        ConversationSummary summary = new ConversationSummary();
+        summary.setConversation(conversation);
+        summary.setUser(user);
+        summary.setOtherUser(otherUser);
+        summary.setItem(conversation.getItem());
+        return summary;
+    }
+
+    private static String preview(String message) {
+        return message.length() <= ConversationSummary.PREVIEW_LENGTH
+                ? message
+                : message.substring(0, ConversationSummary.PREVIEW_LENGTH - 3) + "...";
+    }
+}
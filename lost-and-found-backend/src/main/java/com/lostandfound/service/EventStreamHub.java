@@ -0,0 +1,308 @@
+package com.lostandfound.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lostandfound.event.SecurityEpochBumpedEvent;
+import com.lostandfound.event.UserNotificationEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory fan-out of user notifications to open Server-Sent Event streams, so
+ * clients see new messages and claims without polling the list endpoints.
+ *
+ * A stream is an async servlet response: while idle it holds no thread, only its
+ * emitter and a small bounded queue. Publishing serializes the event once and
+ * offers it to each of the user's queues without blocking; a queue that is full
+ * (a client not reading) drops the event and counts it. A few writer threads drain
+ * queues that have something in them, one connection at a time.
+ */
+@Service
+@RequiredArgsConstructor
+public class EventStreamHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamHub.class);
+
+    private static final Pending CONNECTED = new Pending("connected", "{}");
+    private static final Pending HEARTBEAT = new Pending(null, null);
+
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    // Events a connection can fall behind by before new ones are dropped
+    @Value("${events.queue-capacity:64}")
+    private int queueCapacity;
+
+    // Opening one more closes the user's oldest stream
+    @Value("${events.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    // Streams are closed after this; EventSource reconnects on its own
+    @Value("${events.timeout:30m}")
+    private Duration timeout;
+
+    // Keeps proxies from closing idle streams and finds clients that went away
+    @Value("${events.heartbeat:25s}")
+    private Duration heartbeat;
+
+    @Value("${events.writer-threads:4}")
+    private int writerThreads;
+
+    private final Map<Long, List<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private ThreadPoolExecutor writer;
+    private ScheduledExecutorService heartbeatExecutor;
+
+    private record Pending(String name, String data) {
+    }
+
+    private static final class Connection {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Pending> queue;
+        // Set while a writer task for this connection is queued or running
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Connection(Long userId, SseEmitter emitter, int capacity) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        CustomizableThreadFactory writerFactory = new CustomizableThreadFactory("event-stream-");
+        writerFactory.setDaemon(true);
+        // Unbounded, but holds at most one task per open connection
+        writer = new ThreadPoolExecutor(writerThreads, writerThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), writerFactory);
+        writer.allowCoreThreadTimeOut(true);
+
+        CustomizableThreadFactory heartbeatFactory = new CustomizableThreadFactory("event-stream-heartbeat-");
+        heartbeatFactory.setDaemon(true);
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(heartbeatFactory);
+        heartbeatExecutor.scheduleWithFixedDelay(this::sendHeartbeats,
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("events.connections", connectionCount, AtomicInteger::get)
+                    .description("Open event streams")
+                    .register(registry);
+            registry.more().counter("events.delivered", List.of(), delivered);
+            registry.more().counter("events.dropped", List.of(), dropped);
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeatExecutor.shutdownNow();
+        writer.shutdownNow();
+        connections.values().forEach(userConnections -> userConnections.forEach(connection -> {
+            remove(connection);
+            connection.emitter.complete();
+        }));
+    }
+
+    /**
+     * Open a stream for the user; the first event is "connected"
+     */
+    public SseEmitter connect(Long userId) {
+        return register(userId, new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter register(Long userId, SseEmitter emitter) {
+        Connection connection = new Connection(userId, emitter, queueCapacity);
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> {
+            remove(connection);
+            emitter.complete();
+        });
+        emitter.onError(e -> remove(connection));
+
+        List<Connection> evicted = new ArrayList<>();
+        connections.compute(userId, (id, current) -> {
+            List<Connection> next = current == null ? new ArrayList<>() : new ArrayList<>(current);
+            next.add(connection);
+            while (next.size() > maxConnectionsPerUser) {
+                evicted.add(next.remove(0));
+            }
+            return List.copyOf(next);
+        });
+        connectionCount.incrementAndGet();
+        for (Connection oldest : evicted) {
+            remove(oldest);
+            oldest.emitter.complete();
+        }
+
+        connection.queue.offer(CONNECTED);
+        schedule(connection);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotification(UserNotificationEvent event) {
+        publish(event.getUserId(), event.getType().eventName(), event.getData());
+    }
+
+    /**
+     * Streams were authorized when they opened; once the user's tokens are revoked they
+     * are closed, and reconnecting needs a valid token again
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSecurityEpochBumped(SecurityEpochBumpedEvent event) {
+        disconnect(event.getUserId());
+    }
+
+    /**
+     * Close every stream the user has open
+     */
+    public void disconnect(Long userId) {
+        List<Connection> userConnections = connections.get(userId);
+        if (userConnections == null) {
+            return;
+        }
+        for (Connection connection : userConnections) {
+            remove(connection);
+            connection.emitter.complete();
+        }
+        logger.debug("Closed {} event streams of user {}", userConnections.size(), userId);
+    }
+
+    /**
+     * Queue an event on every stream the user has open. Never blocks.
+     */
+    public void publish(Long userId, String name, Object data) {
+        List<Connection> userConnections = connections.get(userId);
+        if (userConnections == null) {
+            return;
+        }
+
+        Pending event;
+        try {
+            event = new Pending(name, objectMapper.writeValueAsString(data));
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not serialize {} event for user {}", name, userId, e);
+            return;
+        }
+        for (Connection connection : userConnections) {
+            if (connection.queue.offer(event)) {
+                schedule(connection);
+            } else {
+                dropped.increment();
+                logger.debug("Event stream of user {} is full, dropped {} event", userId, name);
+            }
+        }
+    }
+
+    int connectionCount() {
+        return connectionCount.get();
+    }
+
+    long droppedCount() {
+        return dropped.sum();
+    }
+
+    private void sendHeartbeats() {
+        for (List<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                // A full queue already has something to send
+                if (connection.queue.offer(HEARTBEAT)) {
+                    schedule(connection);
+                }
+            }
+        }
+    }
+
+    private void schedule(Connection connection) {
+        if (connection.scheduled.compareAndSet(false, true)) {
+            try {
+                writer.execute(() -> drain(connection));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                connection.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Connection connection) {
+        try {
+            Pending event;
+            while (!connection.closed.get() && (event = connection.queue.poll()) != null) {
+                if (!send(connection, event)) {
+                    return;
+                }
+            }
+        } finally {
+            connection.scheduled.set(false);
+        }
+        // Something may have been queued after the last poll but before the flag cleared
+        if (!connection.closed.get() && !connection.queue.isEmpty()) {
+            schedule(connection);
+        }
+    }
+
+    private boolean send(Connection connection, Pending event) {
+        try {
+            if (event == HEARTBEAT) {
+                connection.emitter.send(SseEmitter.event().comment(""));
+            } else {
+                connection.emitter.send(SseEmitter.event().name(event.name()).data(event.data()));
+                if (event != CONNECTED) {
+                    delivered.increment();
+                }
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the stream already completed; the container reports the rest
+            logger.debug("Closing event stream of user {}: {}", connection.userId, e.getMessage());
+            remove(connection);
+            return false;
+        }
+    }
+
+    private void remove(Connection connection) {
+        if (!connection.closed.compareAndSet(false, true)) {
+            return;
+        }
+        connectionCount.decrementAndGet();
+        connection.queue.clear();
+        connections.computeIfPresent(connection.userId, (id, current) -> {
+            List<Connection> next = current.stream().filter(c -> c != connection).toList();
+            return next.isEmpty() ? null : next;
+        });
+    }
+}
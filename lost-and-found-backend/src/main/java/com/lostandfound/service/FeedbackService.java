@@ -10,6 +10,7 @@ import com.lostandfound.repository.FeedbackRepository;
 import com.lostandfound.repository.UserRepository;
 import com.lostandfound.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -48,6 +49,13 @@ public class FeedbackService {
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
+    public List<FeedbackResponse> getFeedbackPage(int page, int size) {
+        return feedbackRepository.findAllByOrderBySubmittedAtDesc(PageRequest.of(page, size)).stream()
+                .map(this::mapToFeedbackResponse)
+                .collect(Collectors.toList());
+    }
+    
     @Transactional
     public void deleteFeedback(Long feedbackId) {
         Feedback feedback = feedbackRepository.findById(feedbackId)
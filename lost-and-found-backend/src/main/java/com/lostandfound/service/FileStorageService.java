@@ -1,27 +1,63 @@
 package com.lostandfound.service;
 
 import com.lostandfound.config.FileStorageProperties;
+import com.lostandfound.config.FileStorageProperties.StorageMode;
 import com.lostandfound.exception.BadRequestException;
+import com.lostandfound.model.StoredFile;
+import com.lostandfound.repository.StoredFileRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
 public class FileStorageService {
 
     private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
+
+    // ab/cd/<sha256>.<ext> below the upload directory
+    private static final Pattern CONTENT_PATH =
+            Pattern.compile("([0-9a-f]{2})/([0-9a-f]{2})/(\\1\\2[0-9a-f]{60})(\\.[a-z0-9]{1,10})?");
+    // ab/cd/<sha256>_<width>.jpg, a resized copy written next to the original
+    private static final Pattern CONTENT_VARIANT_PATH =
+            Pattern.compile("([0-9a-f]{2})/([0-9a-f]{2})/(\\1\\2[0-9a-f]{60}_[0-9]{1,5})\\.jpg");
+    private static final Pattern EXTENSION = Pattern.compile("\\.[a-z0-9]{1,10}");
+
+    // Uploads are written here while being hashed, then moved into place
+    private static final String TEMP_DIR = ".tmp";
+
     private final FileStorageProperties fileStorageProperties;
+    private final StoredFileRepository storedFileRepository;
+    private final PlatformTransactionManager transactionManager;
 
     public String storeFile(MultipartFile file) {
         // Normalize file name
@@ -33,6 +69,12 @@ public class FileStorageService {
                 throw new BadRequestException("Filename contains invalid path sequence " + originalFileName);
             }
 
+            if (fileStorageProperties.getStorageMode() == StorageMode.CONTENT_ADDRESSED) {
+                try (InputStream in = file.getInputStream()) {
+                    return storeContent(in, originalFileName);
+                }
+            }
+
             // Create unique filename
             String fileExtension = "";
             if (originalFileName.contains(".")) {
@@ -50,37 +92,303 @@ public class FileStorageService {
             Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
 
             return "uploads/" + uniqueFileName;
-        } catch (IOException ex) {
+        } catch (IOException | UncheckedIOException ex) {
             throw new BadRequestException("Could not store file " + originalFileName + ". Please try again!");
         }
     }
 
-    public void deleteFile(String filePath) {
+    /**
+     * Copy an already stored flat upload into the content-addressed store and return
+     * its new path; empty if the file is missing. The caller swaps the item over and
+     * deletes the old file.
+     */
+    public Optional<String> storeExistingFile(String filePath) throws IOException {
+        Optional<Path> source = resolveStoredFile(filePath).filter(Files::isRegularFile);
+        if (source.isEmpty()) {
+            return Optional.empty();
+        }
+        try (InputStream in = Files.newInputStream(source.get())) {
+            return Optional.of(storeContent(in, source.get().getFileName().toString()));
+        }
+    }
+
+    public boolean isContentAddressed(String filePath) {
+        return contentHashOf(filePath) != null;
+    }
+
+    /**
+     * SHA-256 of a content-addressed original, which is also its name; empty for flat
+     * uploads and for thumbnail variants
+     */
+    public Optional<String> contentHash(String filePath) {
+        return Optional.ofNullable(contentHashOf(filePath));
+    }
+
+    /**
+     * Hash the stream while copying it to a temp file, then either add a reference to
+     * the stored copy of the same bytes or move the temp file into place as the first
+     * copy. Joins the caller's transaction, so a rolled back item save also rolls back
+     * its reference, and content nothing else refers to is then removed again.
+     */
+    private String storeContent(InputStream in, String fileName) throws IOException {
+        Path tempDir = uploadLocation().resolve(TEMP_DIR);
+        Files.createDirectories(tempDir);
+        Path temp = Files.createTempFile(tempDir, "upload-", ".tmp");
         try {
-            if (filePath != null && filePath.startsWith("uploads/")) {
-                String fileName = filePath.replace("uploads/", "");
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream digesting = new DigestInputStream(in, digest)) {
+                size = Files.copy(digesting, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String sha256 = HexFormat.of().formatHex(digest.digest());
 
-                // Prevent path traversal
-                if (fileName.contains("..") || fileName.contains("/") || fileName.contains("\\")) {
-                    logger.error("Invalid file path detected: {}", filePath);
-                    return;
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            return transactionTemplate.execute(status -> addReference(sha256, extension(fileName), size, temp));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private String addReference(String sha256, String extension, long size, Path temp) {
+        if (!storedFileRepository.existsById(sha256)) {
+            claimRow(sha256, extension, size);
+        }
+        // claimRow commits on its own and the file move cannot be rolled back
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    discardIfUnreferenced(sha256);
                 }
+            }
+        });
+        StoredFile stored = storedFileRepository.findForUpdate(sha256)
+                .orElseGet(() -> new StoredFile(sha256, contentPath(sha256, extension), size, 0, null));
+        stored.setRefCount(stored.getRefCount() + 1);
+        // Flushed first, so the file is only created while this transaction holds the row
+        stored = storedFileRepository.saveAndFlush(stored);
 
-                Path fileStorageLocation = Paths.get(fileStorageProperties.getUploadDir())
-                        .toAbsolutePath().normalize();
-                Path targetLocation = fileStorageLocation.resolve(fileName).normalize();
+        Path target = resolveStoredFile(stored.getPath())
+                .orElseThrow(() -> new IllegalStateException("Invalid stored file path " + sha256));
+        try {
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return stored.getPath();
+    }
 
-                // Ensure the resolved path is still within the upload directory
-                if (!targetLocation.startsWith(fileStorageLocation)) {
-                    logger.error("Path traversal attempt detected: {}", filePath);
-                    return;
-                }
+    /**
+     * Insert the row for new content with no references, in its own transaction, so
+     * the caller's transaction never fails on the primary key. When two first uploads
+     * of the same bytes race, the loser's insert hits the duplicate key and it goes on
+     * to the locked lookup like any later upload. If the caller's transaction rolls
+     * back, discardIfUnreferenced removes the row again.
+     */
+    private void claimRow(String sha256, String extension, long size) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            transactionTemplate.executeWithoutResult(status -> storedFileRepository.saveAndFlush(
+                    new StoredFile(sha256, contentPath(sha256, extension), size, 0, null)));
+        } catch (DataIntegrityViolationException ex) {
+            logger.debug("Stored file {} was created by a concurrent upload", sha256);
+        }
+    }
+
+    /**
+     * Delete the file once the surrounding transaction commits, so a rolled back
+     * delete or update still has its image. Deletes immediately outside a transaction.
+     */
+    public void deleteFileAfterCommit(String filePath) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteFile(filePath);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteFile(filePath);
+            }
+        });
+    }
 
-                Files.deleteIfExists(targetLocation);
+    /**
+     * Delete a flat upload, or drop one reference to a content-addressed file and
+     * unlink it once nothing uses it any more
+     */
+    public void deleteFile(String filePath) {
+        String sha256 = contentHashOf(filePath);
+        if (sha256 != null) {
+            releaseReference(sha256);
+            return;
+        }
+        try {
+            Optional<Path> targetLocation = resolveStoredFile(filePath);
+            if (targetLocation.isPresent()) {
+                Files.deleteIfExists(targetLocation.get());
+                deleteVariants(filePath);
             }
         } catch (IOException ex) {
             // Log error but don't throw exception
             logger.error("Could not delete file: {}", filePath, ex);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Path of the resized JPEG of a stored image: "uploads/x.png" becomes "uploads/x_480.jpg"
+     */
+    public String variantPath(String filePath, int width) {
+        int dot = filePath.lastIndexOf('.');
+        String stem = dot > filePath.lastIndexOf('/') ? filePath.substring(0, dot) : filePath;
+        return stem + "_" + width + ".jpg";
+    }
+
+    /**
+     * All configured variant paths of a stored image by width, smallest first
+     */
+    public Map<Integer, String> variantPaths(String filePath) {
+        Map<Integer, String> variants = new TreeMap<>();
+        if (filePath != null) {
+            for (Integer width : fileStorageProperties.getThumbnailWidths()) {
+                variants.put(width, variantPath(filePath, width));
+            }
+        }
+        return variants;
+    }
+
+    private void deleteVariants(String filePath) throws IOException {
+        for (String variant : variantPaths(filePath).values()) {
+            Optional<Path> variantLocation = resolveStoredFile(variant);
+            if (variantLocation.isPresent()) {
+                Files.deleteIfExists(variantLocation.get());
+            }
+        }
+    }
+
+    /**
+     * Runs in its own transaction, as it is usually called after the item's transaction
+     * has committed. The file is unlinked while the row is still locked, so an upload of
+     * the same bytes waits and then writes a fresh copy.
+     */
+    private void releaseReference(String sha256) {
+        updateLocked(sha256, stored -> {
+            if (stored.getRefCount() > 1) {
+                stored.setRefCount(stored.getRefCount() - 1);
+                return;
+            }
+            unlink(stored);
+        });
+    }
+
+    /**
+     * Remove content whose only upload rolled back; anything a committed upload has
+     * referenced since is left alone
+     */
+    private void discardIfUnreferenced(String sha256) {
+        updateLocked(sha256, stored -> {
+            if (stored.getRefCount() == 0) {
+                logger.debug("Removing stored file {} left by a rolled back upload", sha256);
+                unlink(stored);
+            }
+        });
+    }
+
+    private void updateLocked(String sha256, Consumer<StoredFile> update) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    storedFileRepository.findForUpdate(sha256).ifPresent(update));
+        } catch (RuntimeException ex) {
+            // Log error but don't throw exception
+            logger.error("Could not release stored file: {}", sha256, ex);
+        }
+    }
+
+    private void unlink(StoredFile stored) {
+        storedFileRepository.delete(stored);
+        storedFileRepository.flush();
+        try {
+            Optional<Path> targetLocation = resolveStoredFile(stored.getPath());
+            if (targetLocation.isPresent()) {
+                Files.deleteIfExists(targetLocation.get());
+            }
+            deleteVariants(stored.getPath());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Location on disk of a stored "uploads/..." path; empty for anything that could
+     * escape the upload directory
+     */
+    public Optional<Path> resolveStoredFile(String filePath) {
+        if (filePath == null || !filePath.startsWith("uploads/")) {
+            return Optional.empty();
+        }
+        String fileName = filePath.substring("uploads/".length());
+
+        // Prevent path traversal; only content-addressed paths may have directories
+        boolean contentPath = CONTENT_PATH.matcher(fileName).matches()
+                || CONTENT_VARIANT_PATH.matcher(fileName).matches();
+        if (fileName.contains("..") || (!contentPath && fileName.contains("/")) || fileName.contains("\\")) {
+            logger.error("Invalid file path detected: {}", filePath);
+            return Optional.empty();
+        }
+
+        Path fileStorageLocation = uploadLocation();
+        Path targetLocation = fileStorageLocation.resolve(fileName).normalize();
+
+        // Ensure the resolved path is still within the upload directory
+        if (!targetLocation.startsWith(fileStorageLocation)) {
+            logger.error("Path traversal attempt detected: {}", filePath);
+            return Optional.empty();
+        }
+        return Optional.of(targetLocation);
+    }
+
+    private Path uploadLocation() {
+        return Paths.get(fileStorageProperties.getUploadDir()).toAbsolutePath().normalize();
+    }
+
+    /**
+     * SHA-256 of a content-addressed "uploads/ab/cd/<sha256>.ext" path, null for flat paths
+     */
+    private static String contentHashOf(String filePath) {
+        if (filePath == null || !filePath.startsWith("uploads/")) {
+            return null;
+        }
+        Matcher matcher = CONTENT_PATH.matcher(filePath.substring("uploads/".length()));
+        return matcher.matches() ? matcher.group(3) : null;
+    }
+
+    private static String contentPath(String sha256, String extension) {
+        return "uploads/" + sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256 + extension;
+    }
+
+    /**
+     * Lower-case extension of the original name, kept so the file is served with the
+     * right content type; empty if it is missing or unusual
+     */
+    private static String extension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0) {
+            return "";
+        }
+        String extension = fileName.substring(dot).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? extension : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
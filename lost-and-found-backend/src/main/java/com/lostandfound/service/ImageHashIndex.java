@@ -0,0 +1,288 @@
+package com.lostandfound.service;
+
+import com.lostandfound.event.ItemChangedEvent;
+import com.lostandfound.model.Item;
+import com.lostandfound.repository.ItemRepository;
+import com.lostandfound.util.ImageHash;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Perceptual hashes of item images in a BK-tree, so "which items look like this one"
+ * is answered by visiting only the branches within the wanted Hamming distance
+ * instead of comparing against every image.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageHashIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageHashIndex.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 100;
+
+    private final ItemRepository itemRepository;
+    private final FileStorageService fileStorageService;
+    private final PlatformTransactionManager transactionManager;
+
+    // Up to this many differing bits counts as "visually similar"
+    @Value("${image-hash.max-distance:10}")
+    private int maxDistance;
+
+    // Up to this many counts as the same photo posted again
+    @Value("${image-hash.duplicate-distance:4}")
+    private int duplicateDistance;
+
+    // Same cap as thumbnails; bigger images are not hashed at all
+    @Value("${thumbnail.max-pixels:50000000}")
+    private long maxPixels;
+
+    private final Map<Long, Long> hashByItem = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+
+    private ExecutorService backfillExecutor;
+
+    public record Similar(long itemId, int distance) {
+    }
+
+    /**
+     * One distinct hash; every item with exactly this hash hangs off the same node
+     */
+    private static final class Node {
+        private final long hash;
+        private final List<Long> itemIds = new ArrayList<>(1);
+        private final Map<Integer, Node> children = new HashMap<>();
+
+        private Node(long hash) {
+            this.hash = hash;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int loaded = 0;
+        for (Object[] row : itemRepository.findAllImageHashes()) {
+            put((Long) row[0], (Long) row[1]);
+            loaded++;
+        }
+        logger.info("Image hash index loaded with {} images", loaded);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("image-hash-");
+        threadFactory.setDaemon(true);
+        backfillExecutor = Executors.newSingleThreadExecutor(threadFactory);
+        backfillExecutor.execute(this::backfill);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (backfillExecutor != null) {
+            backfillExecutor.shutdownNow();
+        }
+    }
+
+    public boolean isNearDuplicate(int distance) {
+        return distance <= duplicateDistance;
+    }
+
+    /**
+     * Hash of an uploaded image, null if it cannot be decoded or is over max-pixels
+     */
+    public Long hash(MultipartFile image) {
+        try (InputStream in = image.getInputStream()) {
+            return ImageHash.dHash(in, maxPixels).orElse(null);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not hash uploaded image {}", image.getOriginalFilename(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Items whose image is within max-distance of the hash, closest first
+     */
+    public List<Similar> findSimilar(long hash) {
+        return findSimilar(hash, maxDistance);
+    }
+
+    public List<Similar> findSimilar(long hash, int distance) {
+        List<Similar> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (root != null) {
+                collect(root, hash, distance, result);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(Comparator.comparingInt(Similar::distance).thenComparingLong(Similar::itemId));
+        return result;
+    }
+
+    private void collect(Node node, long hash, int limit, List<Similar> result) {
+        int distance = ImageHash.distance(node.hash, hash);
+        if (distance <= limit) {
+            for (Long itemId : node.itemIds) {
+                result.add(new Similar(itemId, distance));
+            }
+        }
+        // Triangle inequality: only children at distance d +- limit can hold matches
+        for (int d = Math.max(0, distance - limit); d <= distance + limit; d++) {
+            Node child = node.children.get(d);
+            if (child != null) {
+                collect(child, hash, limit, result);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.getType() == ItemChangedEvent.Type.DELETED) {
+            remove(event.getItemId());
+            return;
+        }
+        if (event.getType() == ItemChangedEvent.Type.STATUS_CHANGED
+                || event.getType() == ItemChangedEvent.Type.IMAGE_MOVED) {
+            // The image content didn't change
+            return;
+        }
+
+        Long hash = itemRepository.findById(event.getItemId()).map(Item::getImageHash).orElse(null);
+        if (hash == null) {
+            remove(event.getItemId());
+        } else {
+            put(event.getItemId(), hash);
+        }
+    }
+
+    private void put(Long itemId, Long hash) {
+        lock.writeLock().lock();
+        try {
+            Long previous = hashByItem.put(itemId, hash);
+            if (hash.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                detach(itemId, previous);
+            }
+
+            if (root == null) {
+                root = new Node(hash);
+                root.itemIds.add(itemId);
+                return;
+            }
+            Node node = root;
+            while (true) {
+                int distance = ImageHash.distance(node.hash, hash);
+                if (distance == 0) {
+                    node.itemIds.add(itemId);
+                    return;
+                }
+                Node child = node.children.get(distance);
+                if (child == null) {
+                    child = new Node(hash);
+                    child.itemIds.add(itemId);
+                    node.children.put(distance, child);
+                    return;
+                }
+                node = child;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            Long previous = hashByItem.remove(itemId);
+            if (previous != null) {
+                detach(itemId, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Take the item off its hash's node. The node itself stays, since the tree's shape
+     * depends on it; a node with no items is simply skipped by lookups.
+     */
+    private void detach(Long itemId, long hash) {
+        Node node = root;
+        while (node != null) {
+            int distance = ImageHash.distance(node.hash, hash);
+            if (distance == 0) {
+                node.itemIds.remove(itemId);
+                return;
+            }
+            node = node.children.get(distance);
+        }
+    }
+
+    /**
+     * Hash images uploaded before hashing existed, reading them from the upload directory
+     */
+    private void backfill() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long afterId = 0;
+        int hashed = 0;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findUnhashedImagesAfter(afterId, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+            for (Item item : batch) {
+                afterId = item.getId();
+                Long hash = hashStoredFile(item.getImage());
+                if (hash == null) {
+                    continue;
+                }
+                transactionTemplate.executeWithoutResult(status -> itemRepository.updateImageHash(item.getId(), hash));
+                put(item.getId(), hash);
+                hashed++;
+            }
+        } while (!batch.isEmpty() && !Thread.currentThread().isInterrupted());
+
+        if (hashed > 0) {
+            logger.info("Hashed {} existing item images", hashed);
+        }
+    }
+
+    private Long hashStoredFile(String imagePath) {
+        Optional<Path> path = fileStorageService.resolveStoredFile(imagePath);
+        if (path.isEmpty() || !Files.isReadable(path.get())) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(path.get())) {
+            return ImageHash.dHash(in, maxPixels).orElse(null);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not hash stored image {}", imagePath, e);
+            return null;
+        }
+    }
+}
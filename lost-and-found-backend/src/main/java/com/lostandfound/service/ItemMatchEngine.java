@@ -0,0 +1,426 @@
+package com.lostandfound.service;
+
+import com.lostandfound.event.ItemChangedEvent;
+import com.lostandfound.model.Item;
+import com.lostandfound.model.ItemMatch;
+import com.lostandfound.repository.ItemMatchRepository;
+import com.lostandfound.repository.ItemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Suggests FOUND items for LOST ones and vice versa. Open items from the match window
+ * are kept in an in-memory inverted index; a new or edited item is scored by TF-IDF
+ * cosine similarity against only those opposite-status items that share a term with it,
+ * and its best matches are stored in item_matches.
+ */
+@Service
+@RequiredArgsConstructor
+public class ItemMatchEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemMatchEngine.class);
+
+    private static final int WARMUP_BATCH_SIZE = 500;
+
+    // A word in the name says more about the item than one in the description
+    private static final int NAME_WEIGHT = 2;
+
+    private static final CharArraySet STOP_WORDS = new CharArraySet(List.of(
+            "a", "an", "and", "are", "at", "be", "by", "for", "from", "has", "have", "i", "in", "is", "it",
+            "its", "lost", "found", "my", "near", "of", "on", "or", "the", "this", "to", "was", "with"), true);
+
+    private final ItemRepository itemRepository;
+    private final ItemMatchRepository itemMatchRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${match.enabled:true}")
+    private boolean enabled;
+
+    @Value("${match.top-k:10}")
+    private int topK;
+
+    @Value("${match.min-score:0.15}")
+    private double minScore;
+
+    // Only items reported within this long of each other are compared
+    @Value("${match.window:60d}")
+    private Duration window;
+
+    @Value("${match.parallelism:0}")
+    private int parallelism;
+
+    // Below this many candidates, scoring on one thread is cheaper than forking
+    @Value("${match.parallel-threshold:2000}")
+    private int parallelThreshold;
+
+    // With the queue full, an event waits this long for room and is then dropped
+    @Value("${match.enqueue-timeout:100ms}")
+    private Duration enqueueTimeout;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final Analyzer analyzer = new StandardAnalyzer(STOP_WORDS);
+
+    private final Map<Long, MatchDocument> documents = new ConcurrentHashMap<>();
+    private final Map<Item.Status, Map<String, Set<Long>>> postings = Map.of(
+            Item.Status.LOST, new ConcurrentHashMap<>(),
+            Item.Status.FOUND, new ConcurrentHashMap<>());
+
+    private ThreadPoolExecutor matchExecutor;
+    private ForkJoinPool scoringPool;
+    private TransactionTemplate transactionTemplate;
+
+    private record MatchDocument(long id, Item.Status status, long createdAtMillis, Map<String, Integer> termFrequencies) {
+    }
+
+    private record ScoredCandidate(long itemId, double score) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Item matching disabled");
+            return;
+        }
+
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // One worker keeps index updates in commit order and is the only writer of the index
+        // and item_matches; scoring itself fans out below. Nothing ever runs on the caller.
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("item-match-");
+        threadFactory.setDaemon(true);
+        matchExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(1000), threadFactory, waitThenDrop());
+        scoringPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+
+        meterRegistry.ifAvailable(registry ->
+                registry.more().counter("match.events.dropped", List.of(), dropped));
+
+        matchExecutor.execute(this::warmUp);
+    }
+
+    /**
+     * A dropped event leaves that item's index entry and matches stale until its next
+     * change or restart, which is better than a second writer racing the worker
+     */
+    private RejectedExecutionHandler waitThenDrop() {
+        return (task, executor) -> {
+            if (executor.isShutdown()) {
+                return;
+            }
+            try {
+                if (executor.getQueue().offer(task, enqueueTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            dropped.increment();
+            logger.warn("Match queue full, dropped an item change ({} dropped so far)", dropped.sum());
+        };
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (matchExecutor != null) {
+            matchExecutor.shutdownNow();
+            scoringPool.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Keep the term index in step with committed item changes; new and edited items get fresh matches
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (!enabled || matchExecutor == null) {
+            return;
+        }
+        matchExecutor.execute(() -> {
+            try {
+                apply(event);
+            } catch (RuntimeException e) {
+                logger.error("Matching failed for item {}", event.getItemId(), e);
+            }
+        });
+    }
+
+    private void apply(ItemChangedEvent event) {
+        if (event.getType() == ItemChangedEvent.Type.DELETED) {
+            remove(event.getItemId());
+            return;
+        }
+
+        Item item = itemRepository.findById(event.getItemId()).orElse(null);
+        if (item == null || item.getStatus() == Item.Status.CLAIMED) {
+            // Claimed items are no longer anyone's candidate
+            remove(event.getItemId());
+            return;
+        }
+
+        MatchDocument document = index(item);
+        if (event.getType() == ItemChangedEvent.Type.CREATED || event.getType() == ItemChangedEvent.Type.UPDATED) {
+            storeMatches(document, findMatches(document));
+        }
+    }
+
+    /**
+     * Best opposite-status candidates for a document, highest score first
+     */
+    private List<ScoredCandidate> findMatches(MatchDocument document) {
+        Map<String, Integer> terms = document.termFrequencies();
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Set<Long>> opposite = postings.get(opposite(document.status()));
+        long windowMillis = window.toMillis();
+
+        Set<Long> candidates = new HashSet<>();
+        for (String term : terms.keySet()) {
+            Set<Long> ids = opposite.get(term);
+            if (ids != null) {
+                candidates.addAll(ids);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Double> queryWeights = new HashMap<>();
+        double sumOfSquares = 0;
+        for (Map.Entry<String, Integer> entry : terms.entrySet()) {
+            double weight = entry.getValue() * idf(entry.getKey());
+            queryWeights.put(entry.getKey(), weight);
+            sumOfSquares += weight * weight;
+        }
+        double queryNorm = Math.sqrt(sumOfSquares);
+
+        Stream<Long> stream = candidates.size() >= parallelThreshold
+                ? candidates.parallelStream()
+                : candidates.stream();
+        Stream<ScoredCandidate> scored = stream
+                .map(documents::get)
+                .filter(candidate -> candidate != null
+                        && Math.abs(candidate.createdAtMillis() - document.createdAtMillis()) <= windowMillis)
+                .map(candidate -> new ScoredCandidate(candidate.id(), cosine(queryWeights, queryNorm, candidate)))
+                .filter(candidate -> candidate.score() >= minScore)
+                .sorted(Comparator.comparingDouble(ScoredCandidate::score).reversed()
+                        .thenComparingLong(ScoredCandidate::itemId))
+                .limit(topK);
+
+        if (candidates.size() < parallelThreshold) {
+            return scored.toList();
+        }
+        // Run the parallel pipeline on our own pool, not the JVM-wide common pool
+        try {
+            return scoringPool.submit(scored::toList).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Match scoring failed", e.getCause());
+        }
+    }
+
+    private double cosine(Map<String, Double> queryWeights, double queryNorm, MatchDocument candidate) {
+        double dot = 0;
+        double sumOfSquares = 0;
+        for (Map.Entry<String, Integer> entry : candidate.termFrequencies().entrySet()) {
+            double weight = entry.getValue() * idf(entry.getKey());
+            sumOfSquares += weight * weight;
+            Double queryWeight = queryWeights.get(entry.getKey());
+            if (queryWeight != null) {
+                dot += queryWeight * weight;
+            }
+        }
+        return sumOfSquares == 0 || queryNorm == 0 ? 0 : dot / (queryNorm * Math.sqrt(sumOfSquares));
+    }
+
+    private double idf(String term) {
+        int documentFrequency = 0;
+        for (Map<String, Set<Long>> statusPostings : postings.values()) {
+            Set<Long> ids = statusPostings.get(term);
+            if (ids != null) {
+                documentFrequency += ids.size();
+            }
+        }
+        return Math.log((documents.size() + 1.0) / (documentFrequency + 1.0)) + 1.0;
+    }
+
+    /**
+     * Replace the item's own list and add or rescore it in each match's list. Other
+     * items' lists keep everything else they hold; those were chosen when they were scored.
+     */
+    private void storeMatches(MatchDocument document, List<ScoredCandidate> matches) {
+        transactionTemplate.executeWithoutResult(status -> {
+            itemMatchRepository.deleteOutgoing(document.id());
+
+            Item item = itemRepository.getReferenceById(document.id());
+            Map<Long, ItemMatch> incoming = matches.isEmpty()
+                    ? Map.of()
+                    : itemMatchRepository.findIncoming(document.id(),
+                                    matches.stream().map(ScoredCandidate::itemId).toList()).stream()
+                            .collect(Collectors.toMap(match -> match.getItem().getId(), Function.identity()));
+
+            List<ItemMatch> rows = new ArrayList<>(matches.size() * 2);
+            for (ScoredCandidate match : matches) {
+                Item other = itemRepository.getReferenceById(match.itemId());
+                rows.add(new ItemMatch(null, item, other, match.score(), null));
+
+                ItemMatch reverse = incoming.get(match.itemId());
+                if (reverse != null) {
+                    // Managed, so the new score is written on commit
+                    reverse.setScore(match.score());
+                } else {
+                    rows.add(new ItemMatch(null, other, item, match.score(), null));
+                }
+            }
+            itemMatchRepository.saveAll(rows);
+        });
+        logger.debug("Stored {} matches for item {}", matches.size(), document.id());
+    }
+
+    private MatchDocument index(Item item) {
+        remove(item.getId());
+
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        addTerms(termFrequencies, item.getName(), NAME_WEIGHT);
+        addTerms(termFrequencies, item.getDescription(), 1);
+        addTerms(termFrequencies, item.getLocation(), 1);
+
+        LocalDateTime createdAt = item.getCreatedAt() != null ? item.getCreatedAt() : LocalDateTime.now();
+        MatchDocument document = new MatchDocument(item.getId(), item.getStatus(),
+                createdAt.toInstant(ZoneOffset.UTC).toEpochMilli(), Map.copyOf(termFrequencies));
+
+        documents.put(document.id(), document);
+        Map<String, Set<Long>> statusPostings = postings.get(document.status());
+        for (String term : termFrequencies.keySet()) {
+            statusPostings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(document.id());
+        }
+        return document;
+    }
+
+    private void remove(Long itemId) {
+        MatchDocument document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        Map<String, Set<Long>> statusPostings = postings.get(document.status());
+        for (String term : document.termFrequencies().keySet()) {
+            statusPostings.computeIfPresent(term, (t, ids) -> {
+                ids.remove(itemId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private void addTerms(Map<String, Integer> termFrequencies, String text, int weight) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        try (TokenStream stream = analyzer.tokenStream("text", text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                if (term.length() > 1) {
+                    termFrequencies.merge(term.toString(), weight, Integer::sum);
+                }
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Item.Status opposite(Item.Status status) {
+        return status == Item.Status.LOST ? Item.Status.FOUND : Item.Status.LOST;
+    }
+
+    /**
+     * Load open items from the match window; older ones can never match a new report
+     */
+    private void warmUp() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(window);
+        int pageNumber = 0;
+        Slice<Item> page;
+        do {
+            page = itemRepository.findByStatusInAndCreatedAtAfter(
+                    EnumSet.of(Item.Status.LOST, Item.Status.FOUND), cutoff,
+                    PageRequest.of(pageNumber++, WARMUP_BATCH_SIZE, Sort.by("id")));
+            page.forEach(this::index);
+        } while (page.hasNext());
+
+        logger.info("Match index loaded with {} open items", documents.size());
+    }
+
+    /**
+     * Drop items that have aged out of the match window
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void pruneExpired() {
+        if (!enabled || matchExecutor == null) {
+            return;
+        }
+        matchExecutor.execute(() -> {
+            long cutoff = LocalDateTime.now().minus(window).toInstant(ZoneOffset.UTC).toEpochMilli();
+            List<Long> expired = documents.values().stream()
+                    .filter(document -> document.createdAtMillis() < cutoff)
+                    .map(MatchDocument::id)
+                    .toList();
+            expired.forEach(this::remove);
+            logger.info("Pruned {} items from the match index", expired.size());
+        });
+    }
+}
@@ -0,0 +1,65 @@
+package com.lostandfound.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lostandfound.dto.response.ItemResponse;
+import com.lostandfound.event.ItemChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Single item responses by id, filled on read and dropped whenever the item changes.
+ * Hit, miss and eviction counts are published to actuator as cache "items".
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemResponseCache {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${item.cache.max-size:10000}")
+    private long maxSize;
+
+    // Upper bound on staleness if a change is ever missed (e.g. a read served by a lagging replica)
+    @Value("${item.cache.ttl:10m}")
+    private Duration ttl;
+
+    private Cache<Long, ItemResponse> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "items"));
+    }
+
+    /**
+     * Cached response, or the loader's result (cached) if absent. A change committed
+     * while the loader runs still evicts its result, since invalidation waits for it.
+     */
+    public ItemResponse get(Long itemId, Function<Long, ItemResponse> loader) {
+        return cache.get(itemId, loader);
+    }
+
+    public void invalidate(Long itemId) {
+        cache.invalidate(itemId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        invalidate(event.getItemId());
+    }
+}
@@ -0,0 +1,116 @@
+package com.lostandfound.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lostandfound.dto.response.ItemPageResponse;
+import com.lostandfound.event.ItemChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived cache of public item listing pages. Concurrent requests for the same
+ * page share one in-flight query. Any item change moves to a new generation, so
+ * pages cached before it are never served again and simply age out. The cache is
+ * bounded by the number of items held across all pages, not by the number of pages.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemSearchCache {
+
+    private final ItemService itemService;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    // Pages hold at most ItemService.MAX_PAGE_SIZE items each
+    @Value("${search.cache.max-items:20000}")
+    private long maxItems;
+
+    @Value("${search.cache.ttl:5s}")
+    private Duration ttl;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private AsyncCache<PageKey, ItemPageResponse> cache;
+
+    private record PageKey(long generation, String search, String status, String cursor,
+                           int limit, boolean includeCount) {
+    }
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxItems)
+                // Empty pages still take an entry
+                .weigher((PageKey key, ItemPageResponse page) -> page.getItems().size() + 1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "item-search"));
+    }
+
+    /**
+     * Same contract as ItemService.searchItemsPage
+     */
+    public ItemPageResponse searchItemsPage(String search, String status, String cursor,
+                                            int limit, boolean includeCount) {
+        PageKey key = new PageKey(
+                generation.get(),
+                search == null ? "" : search.trim(),
+                normalizeStatus(status),
+                cursor == null || cursor.isEmpty() ? null : cursor,
+                Math.max(1, Math.min(limit, ItemService.MAX_PAGE_SIZE)),
+                includeCount);
+
+        CompletableFuture<ItemPageResponse> created = new CompletableFuture<>();
+        CompletableFuture<ItemPageResponse> future = cache.get(key, (k, executor) -> created);
+
+        // The first caller runs the query on its own thread; the rest wait for its result
+        if (future == created) {
+            try {
+                created.complete(itemService.searchItemsPage(
+                        key.search(), key.status(), key.cursor(), key.limit(), key.includeCount()));
+            } catch (Throwable e) {
+                // Errors too, or waiting callers would block forever on a future that is never completed.
+                // Failed futures are dropped from the cache, so the next request retries.
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    private static String normalizeStatus(String status) {
+        if (status == null || status.isEmpty() || status.equalsIgnoreCase("all")) {
+            return "";
+        }
+        return status.toUpperCase(Locale.ROOT);
+    }
+}
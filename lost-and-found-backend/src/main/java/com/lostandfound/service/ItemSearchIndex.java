@@ -0,0 +1,344 @@
+package com.lostandfound.service;
+
+import com.lostandfound.event.ItemChangedEvent;
+import com.lostandfound.model.Item;
+import com.lostandfound.repository.ItemRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Embedded on-disk Lucene index over item name, description and location.
+ * Used by ItemService.searchItems when search.engine=lucene (the default);
+ * search.engine=jpql keeps the original LIKE query.
+ */
+@Service
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemSearchIndex.class);
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_STATUS = "status";
+
+    // Field boosts: a hit in the name matters more than one in the description
+    private static final Map<String, Float> TEXT_FIELDS = Map.of(
+            "name", 3.0f,
+            "location", 2.0f,
+            "description", 1.0f
+    );
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final ItemRepository itemRepository;
+
+    @Value("${search.engine:lucene}")
+    private String searchEngine;
+
+    @Value("${search.index-dir:./search-index}")
+    private String indexDir;
+
+    @Value("${search.max-results:1000}")
+    private int maxResults;
+
+    @Value("${search.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    // Serializes document writes with rebuild()
+    private final Object writeLock = new Object();
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!isEnabled()) {
+            logger.info("Lucene search index disabled (search.engine={})", searchEngine);
+            return;
+        }
+
+        Path indexPath = Paths.get(indexDir).toAbsolutePath().normalize();
+        Files.createDirectories(indexPath);
+
+        directory = FSDirectory.open(indexPath);
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        writer = new IndexWriter(directory, config);
+        searcherManager = new SearcherManager(writer, null);
+
+        logger.info("Opened search index at {} ({} documents)", indexPath, writer.getDocStats().numDocs);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        } catch (IOException e) {
+            logger.error("Error closing search index", e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return "lucene".equalsIgnoreCase(searchEngine);
+    }
+
+    /**
+     * Populate a fresh (or explicitly stale) index from the database once the app is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfNeeded() {
+        if (!isEnabled()) {
+            return;
+        }
+        if (rebuildOnStartup || (writer.getDocStats().numDocs == 0 && itemRepository.count() > 0)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Keep the index in step with committed item changes
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        try {
+            // Read under the lock, so the change that reads the newest row also writes last
+            synchronized (writeLock) {
+                Item item = event.getType() == ItemChangedEvent.Type.DELETED
+                        ? null
+                        : itemRepository.findById(event.getItemId()).orElse(null);
+                if (item != null) {
+                    writer.updateDocument(idTerm(item.getId()), toDocument(item));
+                } else {
+                    writer.deleteDocuments(idTerm(event.getItemId()));
+                }
+            }
+            // Near-real-time: searchers see the change without waiting for a commit. Blocking,
+            // because maybeRefresh skips while another thread refreshes, and that refresh
+            // may have started before this write
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            logger.error("Failed to update search index for item {}", event.getItemId(), e);
+        }
+    }
+
+    /**
+     * Make item changes durable (an fsync), on a schedule instead of per change.
+     * Searches see changes before this; a crash loses at most one interval, which
+     * search.rebuild-on-startup=true repairs. Closing the writer also commits.
+     */
+    @Scheduled(fixedDelayString = "${search.commit-interval-ms:60000}",
+            initialDelayString = "${search.commit-interval-ms:60000}")
+    public void commit() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            synchronized (writeLock) {
+                if (writer.hasUncommittedChanges()) {
+                    writer.commit();
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to commit search index", e);
+        }
+    }
+
+    /**
+     * Return ids of the best matching items, most relevant first
+     */
+    public List<Long> search(String text, Item.Status status) throws IOException {
+        return search(text, status, 0, maxResults);
+    }
+
+    /**
+     * Return one page of ranked ids; results deeper than search.max-results are not reachable
+     */
+    public List<Long> search(String text, Item.Status status, int offset, int count) throws IOException {
+        Query query = buildQuery(text, status);
+        int depth = Math.min(offset + count, maxResults);
+        if (query == null || offset >= depth) {
+            return List.of();
+        }
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs topDocs = searcher.search(query, depth);
+            StoredFields storedFields = searcher.storedFields();
+
+            List<Long> ids = new ArrayList<>(Math.max(0, topDocs.scoreDocs.length - offset));
+            for (int i = offset; i < topDocs.scoreDocs.length; i++) {
+                ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                ids.add(Long.parseLong(storedFields.document(scoreDoc.doc).get(FIELD_ID)));
+            }
+            return ids;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Number of matching items (not capped by search.max-results)
+     */
+    public long count(String text, Item.Status status) throws IOException {
+        Query query = buildQuery(text, status);
+        if (query == null) {
+            return 0;
+        }
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            return searcher.count(query);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private Query buildQuery(String text, Item.Status status) throws IOException {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return null;
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (int i = 0; i < terms.size(); i++) {
+            // Treat the last term as a prefix so results update while the user is typing
+            boolean prefix = i == terms.size() - 1;
+            query.add(termAcrossFields(terms.get(i), prefix), BooleanClause.Occur.MUST);
+        }
+        if (status != null) {
+            query.add(new TermQuery(new Term(FIELD_STATUS, status.name())), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    /**
+     * Drop the index and re-read every item from the database
+     */
+    public int rebuild() {
+        if (!isEnabled()) {
+            return 0;
+        }
+
+        // Item updates wait, so none lands between deleteAll and the re-add of that item
+        try {
+            synchronized (writeLock) {
+                return rebuildLocked();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rebuild search index", e);
+        }
+    }
+
+    private int rebuildLocked() throws IOException {
+        writer.deleteAll();
+
+        int indexed = 0;
+        Page<Item> page;
+        int pageNumber = 0;
+        do {
+            page = itemRepository.findAll(PageRequest.of(pageNumber++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            for (Item item : page) {
+                writer.addDocument(toDocument(item));
+                indexed++;
+            }
+        } while (page.hasNext());
+
+        writer.commit();
+        searcherManager.maybeRefreshBlocking();
+        logger.info("Rebuilt search index with {} items", indexed);
+        return indexed;
+    }
+
+    private Query termAcrossFields(String term, boolean prefix) {
+        BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+        TEXT_FIELDS.forEach((field, boost) -> {
+            Term fieldTerm = new Term(field, term);
+            Query query = prefix ? new PrefixQuery(fieldTerm) : new TermQuery(fieldTerm);
+            anyField.add(new BoostQuery(query, boost), BooleanClause.Occur.SHOULD);
+        });
+        return anyField.build();
+    }
+
+    private List<String> analyze(String text) throws IOException {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream tokens = analyzer.tokenStream("name", text)) {
+            CharTermAttribute termAttribute = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken() && terms.size() < 10) {
+                terms.add(termAttribute.toString());
+            }
+            tokens.end();
+        }
+        return terms;
+    }
+
+    private Document toDocument(Item item) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, item.getId().toString(), Field.Store.YES));
+        document.add(new StringField(FIELD_STATUS, item.getStatus().name(), Field.Store.NO));
+        document.add(new TextField("name", item.getName(), Field.Store.NO));
+        document.add(new TextField("description", item.getDescription(), Field.Store.NO));
+        document.add(new TextField("location", item.getLocation(), Field.Store.NO));
+        return document;
+    }
+
+    private Term idTerm(Long itemId) {
+        return new Term(FIELD_ID, itemId.toString());
+    }
+}
@@ -1,25 +1,40 @@
 package com.lostandfound.service;
 
 import com.lostandfound.dto.request.ItemRequest;
+import com.lostandfound.dto.response.ItemMatchResponse;
+import com.lostandfound.dto.response.ItemPageResponse;
 import com.lostandfound.dto.response.ItemResponse;
+import com.lostandfound.dto.response.SimilarImageResponse;
+import com.lostandfound.event.ItemChangedEvent;
 import com.lostandfound.exception.BadRequestException;
 import com.lostandfound.exception.ResourceNotFoundException;
 import com.lostandfound.exception.UnauthorizedException;
 import com.lostandfound.model.Item;
 import com.lostandfound.model.User;
 import com.lostandfound.repository.ClaimRepository;
+import com.lostandfound.repository.ConversationRepository;
+import com.lostandfound.repository.ConversationSummaryRepository;
+import com.lostandfound.repository.ItemMatchRepository;
 import com.lostandfound.repository.ItemRepository;
 import com.lostandfound.repository.MessageRepository;
 import com.lostandfound.repository.UserRepository;
 import com.lostandfound.security.UserPrincipal;
+import com.lostandfound.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,11 +43,23 @@ public class ItemService {
 
     private static final Logger logger = LoggerFactory.getLogger(ItemService.class);
 
+    static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_MATCHES = 50;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final ClaimRepository claimRepository;
     private final MessageRepository messageRepository;
+    private final ConversationSummaryRepository conversationSummaryRepository;
+    private final ConversationRepository conversationRepository;
+    private final UnreadMessageCounter unreadMessageCounter;
+    private final ItemMatchRepository itemMatchRepository;
     private final FileStorageService fileStorageService;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemResponseCache itemResponseCache;
+    private final ImageHashIndex imageHashIndex;
+    private final ThumbnailService thumbnailService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ItemResponse createItem(ItemRequest request, MultipartFile image, UserPrincipal currentUser) {
@@ -57,8 +84,11 @@ public class ItemService {
         }
 
         String imagePath = null;
+        Long imageHash = null;
         if (image != null && !image.isEmpty()) {
             imagePath = fileStorageService.storeFile(image);
+            imageHash = imageHashIndex.hash(image);
+            thumbnailService.generateAfterCommit(imagePath);
         }
 
         Item item = new Item();
@@ -67,30 +97,105 @@ public class ItemService {
         item.setLocation(request.getLocation().trim());
         item.setStatus(status);
         item.setImage(imagePath);
+        item.setImageHash(imageHash);
         item.setCreatedBy(user);
 
-        item = itemRepository.save(item);
+        // Flushed so the response carries created_at
+        item = itemRepository.saveAndFlush(item);
         logger.info("User ID {} created new item: {}", user.getId(), item.getId());
 
+        if (imageHash != null) {
+            List<Long> duplicates = imageHashIndex.findSimilar(imageHash).stream()
+                    .filter(similar -> imageHashIndex.isNearDuplicate(similar.distance()))
+                    .map(ImageHashIndex.Similar::itemId)
+                    .collect(Collectors.toList());
+            if (!duplicates.isEmpty()) {
+                logger.warn("Item {} image is a near-duplicate of items {}", item.getId(), duplicates);
+            }
+        }
+        eventPublisher.publishEvent(new ItemChangedEvent(item.getId(), ItemChangedEvent.Type.CREATED));
+
         return mapToItemResponse(item);
     }
 
-    @Transactional(readOnly = true)
+    // No transaction here: a cache hit should not borrow a connection
     public ItemResponse getItemById(Long itemId) {
+        ItemResponse cached = itemResponseCache.get(itemId, id -> {
+            Item item = itemRepository.findWithCreatorById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Item", "id", id));
+            return mapWithoutThumbnails(item);
+        });
+        // Variants are written after commit on another thread without changing the item,
+        // so they are looked up per request instead of being cached with it
+        return withThumbnails(cached);
+    }
+
+    /**
+     * Suggested opposite-status items for an item, best first; claimed items are left out
+     */
+    @Transactional(readOnly = true)
+    public List<ItemMatchResponse> getItemMatches(Long itemId, int limit) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new ResourceNotFoundException("Item", "id", itemId);
+        }
+
+        int size = Math.max(1, Math.min(limit, MAX_MATCHES));
+        return itemMatchRepository.findOpenMatches(itemId, Item.Status.CLAIMED, PageRequest.of(0, size)).stream()
+                .map(match -> ItemMatchResponse.builder()
+                        .item(mapToItemResponse(match.getMatchedItem()))
+                        .score(match.getScore())
+                        .matchedAt(match.getMatchedAt())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Other open items whose image looks like this item's, closest first
+     */
+    @Transactional(readOnly = true)
+    public List<SimilarImageResponse> getSimilarImageItems(Long itemId, int limit) {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ResourceNotFoundException("Item", "id", itemId));
+        if (item.getImageHash() == null) {
+            return List.of();
+        }
 
-        return mapToItemResponse(item);
+        int size = Math.max(1, Math.min(limit, MAX_MATCHES));
+        Map<Long, Integer> distances = imageHashIndex.findSimilar(item.getImageHash()).stream()
+                .filter(similar -> similar.itemId() != itemId)
+                .collect(Collectors.toMap(ImageHashIndex.Similar::itemId, ImageHashIndex.Similar::distance,
+                        (a, b) -> a, LinkedHashMap::new));
+
+        Map<Long, Item> itemsById = itemRepository.findWithCreatorByIdIn(distances.keySet()).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        return distances.entrySet().stream()
+                .map(entry -> itemsById.get(entry.getKey()))
+                .filter(Objects::nonNull)
+                .filter(similar -> similar.getStatus() != Item.Status.CLAIMED)
+                .limit(size)
+                .map(similar -> {
+                    int distance = distances.get(similar.getId());
+                    return SimilarImageResponse.builder()
+                            .item(mapToItemResponse(similar))
+                            .distance(distance)
+                            .nearDuplicate(imageHashIndex.isNearDuplicate(distance))
+                            .build();
+                })
+                .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public List<ItemResponse> searchItems(String search, String status) {
-        Item.Status itemStatus = null;
-        if (status != null && !status.isEmpty() && !status.equalsIgnoreCase("all")) {
+        Item.Status itemStatus = parseStatusFilter(status);
+
+        // Ranked full-text search when the Lucene index is enabled
+        String query = search == null ? "" : search.trim();
+        if (itemSearchIndex.isEnabled() && !query.isEmpty()) {
             try {
-                itemStatus = Item.Status.valueOf(status.toUpperCase());
-            } catch (IllegalArgumentException e) {
-                throw new BadRequestException("Invalid status: " + status + ". Must be LOST, FOUND, or CLAIMED");
+                return findRankedItems(itemSearchIndex.search(query, itemStatus), itemStatus);
+            } catch (IOException e) {
+                logger.error("Search index query failed, falling back to database search", e);
             }
         }
 
@@ -107,6 +212,114 @@ public class ItemService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * One page of search results. Plain listings and database searches page by
+     * keyset on (created_at, id); ranked index searches page by offset.
+     * The total is only counted when asked for.
+     */
+    @Transactional(readOnly = true)
+    public ItemPageResponse searchItemsPage(String search, String status, String cursor,
+                                            int limit, boolean includeCount) {
+        Item.Status itemStatus = parseStatusFilter(status);
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        String query = search == null ? "" : search.trim();
+        if (itemSearchIndex.isEnabled() && !query.isEmpty()) {
+            try {
+                return findRankedPage(query, itemStatus, pageCursor, pageSize, includeCount);
+            } catch (IOException e) {
+                // An offset cursor means nothing to the database search; restarting
+                // at page one would silently repeat results
+                if (pageCursor != null) {
+                    logger.error("Search index query failed for a follow-up page", e);
+                    throw new BadRequestException("Search is unavailable for this cursor, please search again");
+                }
+                logger.error("Search index query failed, falling back to database search", e);
+            }
+        }
+
+        if (pageCursor != null && !pageCursor.isKeyset()) {
+            throw new BadRequestException("Invalid pagination cursor");
+        }
+
+        String sanitizedSearch = sanitizeSearchInput(search);
+
+        // Fetch one extra row to learn whether another page exists
+        PageRequest firstRows = PageRequest.of(0, pageSize + 1);
+        List<Item> items = pageCursor == null
+                ? itemRepository.searchItemsFirstPage(sanitizedSearch, itemStatus, firstRows)
+                : itemRepository.searchItemsPageAfter(sanitizedSearch, itemStatus,
+                        pageCursor.getTimestamp(), pageCursor.getId(), firstRows);
+
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = items.subList(0, pageSize);
+        }
+
+        String next = null;
+        if (hasMore) {
+            Item last = items.get(items.size() - 1);
+            next = PageCursor.after(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return ItemPageResponse.builder()
+                .items(items.stream().map(this::mapToItemResponse).collect(Collectors.toList()))
+                .next(next)
+                .hasMore(hasMore)
+                .total(includeCount ? itemRepository.countSearchItems(sanitizedSearch, itemStatus) : null)
+                .build();
+    }
+
+    private ItemPageResponse findRankedPage(String query, Item.Status status, PageCursor pageCursor,
+                                            int pageSize, boolean includeCount) throws IOException {
+        if (pageCursor != null && pageCursor.isKeyset()) {
+            throw new BadRequestException("Invalid pagination cursor");
+        }
+
+        int offset = pageCursor == null ? 0 : pageCursor.getOffset();
+        List<Long> ids = itemSearchIndex.search(query, status, offset, pageSize + 1);
+
+        boolean hasMore = ids.size() > pageSize;
+        if (hasMore) {
+            ids = ids.subList(0, pageSize);
+        }
+
+        return ItemPageResponse.builder()
+                .items(findRankedItems(ids, status))
+                .next(hasMore ? PageCursor.atOffset(offset + pageSize).encode() : null)
+                .hasMore(hasMore)
+                .total(includeCount ? itemSearchIndex.count(query, status) : null)
+                .build();
+    }
+
+    private Item.Status parseStatusFilter(String status) {
+        if (status == null || status.isEmpty() || status.equalsIgnoreCase("all")) {
+            return null;
+        }
+        try {
+            return Item.Status.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid status: " + status + ". Must be LOST, FOUND, or CLAIMED");
+        }
+    }
+
+    /**
+     * Load items for ranked index hits, preserving the index order
+     */
+    private List<ItemResponse> findRankedItems(List<Long> ids, Item.Status status) {
+        Map<Long, Item> itemsById = itemRepository.findWithCreatorByIdIn(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        // The database is the source of truth; skip hits the index hasn't caught up with
+        return ids.stream()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
+                .filter(item -> status == null || item.getStatus() == status)
+                .map(this::mapToItemResponse)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Sanitize search input to prevent SQL wildcard injection
      */
@@ -129,6 +342,16 @@ public class ItemService {
         return sanitized;
     }
 
+    /**
+     * Newest-first page of all items for the admin dashboard
+     */
+    @Transactional(readOnly = true)
+    public List<ItemResponse> getItemsPage(int page, int size) {
+        return itemRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(page, size)).stream()
+                .map(this::mapToItemResponse)
+                .collect(Collectors.toList());
+    }
+
     @Transactional(readOnly = true)
     public List<ItemResponse> getUserItems(UserPrincipal currentUser) {
         if (currentUser == null) {
@@ -187,14 +410,17 @@ public class ItemService {
         if (image != null && !image.isEmpty()) {
             // Delete old image
             if (item.getImage() != null) {
-                fileStorageService.deleteFile(item.getImage());
+                fileStorageService.deleteFileAfterCommit(item.getImage());
             }
             String imagePath = fileStorageService.storeFile(image);
             item.setImage(imagePath);
+            item.setImageHash(imageHashIndex.hash(image));
+            thumbnailService.generateAfterCommit(imagePath);
         }
 
         item = itemRepository.save(item);
         logger.info("User ID {} updated item: {}", user.getId(), item.getId());
+        eventPublisher.publishEvent(new ItemChangedEvent(item.getId(), ItemChangedEvent.Type.UPDATED));
 
         return mapToItemResponse(item);
     }
@@ -219,21 +445,24 @@ public class ItemService {
             throw new UnauthorizedException("You don't have permission to delete this item");
         }
 
-        // Delete related claims
-        claimRepository.deleteAll(claimRepository.findByItem(item));
-
-        // Delete related messages
-        messageRepository.deleteAll(messageRepository.findAll().stream()
-                .filter(m -> m.getItem().getId().equals(itemId))
-                .collect(Collectors.toList()));
+        // Delete related claims, messages, conversations and match suggestions, one statement each
+        claimRepository.deleteByItemId(itemId);
+        for (Object[] unread : messageRepository.countUnreadByReceiverForItem(itemId)) {
+            unreadMessageCounter.adjustAfterCommit((Long) unread[0], -(Long) unread[1]);
+        }
+        messageRepository.deleteByItemId(itemId);
+        conversationSummaryRepository.deleteByItemId(itemId);
+        conversationRepository.deleteByItemId(itemId);
+        itemMatchRepository.deleteByItemId(itemId);
 
-        // Delete image file if exists
+        // Delete image file if exists, once the rows are gone for good
         if (item.getImage() != null) {
-            fileStorageService.deleteFile(item.getImage());
+            fileStorageService.deleteFileAfterCommit(item.getImage());
         }
 
         itemRepository.delete(item);
         logger.info("User ID {} deleted item: {}", user.getId(), itemId);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId, ItemChangedEvent.Type.DELETED));
     }
 
     @Transactional
@@ -253,24 +482,31 @@ public class ItemService {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ResourceNotFoundException("Item", "id", itemId));
 
-        // Delete related claims
-        claimRepository.deleteAll(claimRepository.findByItem(item));
-
-        // Delete related messages
-        messageRepository.deleteAll(messageRepository.findAll().stream()
-                .filter(m -> m.getItem().getId().equals(itemId))
-                .collect(Collectors.toList()));
+        // Delete related claims, messages, conversations and match suggestions, one statement each
+        claimRepository.deleteByItemId(itemId);
+        for (Object[] unread : messageRepository.countUnreadByReceiverForItem(itemId)) {
+            unreadMessageCounter.adjustAfterCommit((Long) unread[0], -(Long) unread[1]);
+        }
+        messageRepository.deleteByItemId(itemId);
+        conversationSummaryRepository.deleteByItemId(itemId);
+        conversationRepository.deleteByItemId(itemId);
+        itemMatchRepository.deleteByItemId(itemId);
 
-        // Delete image file if exists
+        // Delete image file if exists, once the rows are gone for good
         if (item.getImage() != null) {
-            fileStorageService.deleteFile(item.getImage());
+            fileStorageService.deleteFileAfterCommit(item.getImage());
         }
 
         itemRepository.delete(item);
         logger.info("Admin ID {} deleted item: {}", user.getId(), itemId);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId, ItemChangedEvent.Type.DELETED));
     }
 
     private ItemResponse mapToItemResponse(Item item) {
+        return withThumbnails(mapWithoutThumbnails(item));
+    }
+
+    private ItemResponse mapWithoutThumbnails(Item item) {
         return ItemResponse.builder()
                 .id(item.getId())
                 .name(item.getName())
@@ -283,4 +519,13 @@ public class ItemService {
                 .createdAt(item.getCreatedAt())
                 .build();
     }
+
+    private ItemResponse withThumbnails(ItemResponse response) {
+        if (response.getImage() == null) {
+            return response;
+        }
+        return response.toBuilder()
+                .thumbnails(thumbnailService.availableVariants(response.getImage()))
+                .build();
+    }
 }
\ No newline at end of file
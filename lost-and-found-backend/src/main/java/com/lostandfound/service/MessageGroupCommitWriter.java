@@ -0,0 +1,376 @@
+package com.lostandfound.service;
+
+import com.lostandfound.dto.request.MessageRequest;
+import com.lostandfound.dto.response.ApiResponse;
+import com.lostandfound.dto.response.MessageResponse;
+import com.lostandfound.event.UserNotificationEvent;
+import com.lostandfound.exception.ResourceNotFoundException;
+import com.lostandfound.exception.UnauthorizedException;
+import com.lostandfound.model.Conversation;
+import com.lostandfound.model.Item;
+import com.lostandfound.model.Message;
+import com.lostandfound.model.User;
+import com.lostandfound.repository.ItemRepository;
+import com.lostandfound.repository.MessageRepository;
+import com.lostandfound.repository.UserRepository;
+import com.lostandfound.security.UserPrincipal;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Optional group commit for message sends (messages.group-commit.enabled). Sends are
+ * validated on the request thread and queued; one writer thread takes whatever has
+ * queued up (waiting at most max-delay for more, up to batch-size) and writes it in
+ * a single transaction: one IN query each for users and items, batched inserts for
+ * the messages and one summary update per conversation. A burst of chat costs a
+ * handful of statements and one commit instead of a transaction per message.
+ *
+ * Durability: "commit" (default) answers the sender once the batch has committed,
+ * exactly like the direct path. "queued" answers as soon as the message is queued,
+ * so messages still in memory are lost if the process dies. Queued messages are
+ * written on a clean shutdown either way. A "commit" sender waits at most send-timeout;
+ * past that it is answered as in "queued" mode and the message is still written.
+ */
+@Service
+@RequiredArgsConstructor
+public class MessageGroupCommitWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageGroupCommitWriter.class);
+
+    public enum Durability {
+        COMMIT, QUEUED
+    }
+
+    private final MessageService messageService;
+    private final ConversationService conversationService;
+    private final UnreadMessageCounter unreadMessageCounter;
+    private final MessageRepository messageRepository;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${messages.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${messages.group-commit.batch-size:200}")
+    private int batchSize;
+
+    // How long the writer waits for more messages after the first one of a batch
+    @Value("${messages.group-commit.max-delay:2ms}")
+    private Duration maxDelay;
+
+    // Sends beyond this go through the direct path instead
+    @Value("${messages.group-commit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${messages.group-commit.durability:commit}")
+    private Durability durability;
+
+    @Value("${messages.group-commit.send-timeout:10s}")
+    private Duration sendTimeout;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    private BlockingQueue<PendingMessage> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private record PendingMessage(Long senderId, Long receiverId, Long itemId, String text,
+                                  LocalDateTime sentAt, CompletableFuture<MessageResponse> result) {
+    }
+
+    private record ConversationKey(Long itemId, Long lowUserId, Long highUserId) {
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("message-writer-");
+        threadFactory.setDaemon(true);
+        writer = threadFactory.newThread(this::run);
+        writer.start();
+
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("messages.group-commit.queue.depth", queue, BlockingQueue::size)
+                    .description("Messages waiting for the group-commit writer")
+                    .register(registry);
+            registry.more().counter("messages.group-commit.batches", List.of(), batches);
+            registry.more().counter("messages.group-commit.messages", List.of(), written);
+        });
+    }
+
+    /**
+     * Write what is still queued, then stop
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public boolean isEnabled() {
+        return enabled && running;
+    }
+
+    /**
+     * Send through the queue, or empty if it is full (the caller then uses the
+     * direct path). Validation and lookup failures surface as the same exceptions
+     * as MessageService.sendMessage; in "queued" mode lookup failures are only logged.
+     */
+    public Optional<ApiResponse> send(MessageRequest request, UserPrincipal currentUser) {
+        if (currentUser == null) {
+            throw new UnauthorizedException("You must be logged in to send a message");
+        }
+        String text = messageService.validatedText(request, currentUser.getId());
+
+        CompletableFuture<MessageResponse> result = submit(currentUser.getId(), request.getReceiverId(),
+                request.getItemId(), text);
+        if (result == null) {
+            return Optional.empty();
+        }
+
+        if (durability == Durability.QUEUED) {
+            return Optional.of(queuedResponse());
+        }
+        try {
+            result.get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Message from user {} not committed within {}, answering as queued",
+                    currentUser.getId(), sendTimeout);
+            logFailure(result, currentUser.getId(), request.getReceiverId());
+            return Optional.of(queuedResponse());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logFailure(result, currentUser.getId(), request.getReceiverId());
+            return Optional.of(queuedResponse());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return Optional.of(ApiResponse.builder()
+                .success(true)
+                .message("Message sent successfully")
+                .build());
+    }
+
+    private static ApiResponse queuedResponse() {
+        return ApiResponse.builder()
+                .success(true)
+                .message("Message queued")
+                .build();
+    }
+
+    private static void logFailure(CompletableFuture<MessageResponse> result, Long senderId, Long receiverId) {
+        result.exceptionally(e -> {
+            logger.warn("Queued message from user {} to user {} was not saved: {}",
+                    senderId, receiverId, e.getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * Queue an already validated message; the future completes once its batch has
+     * committed. Null if the queue is full or the writer is stopping.
+     */
+    public CompletableFuture<MessageResponse> submit(Long senderId, Long receiverId, Long itemId, String text) {
+        CompletableFuture<MessageResponse> result = new CompletableFuture<>();
+        PendingMessage pending = new PendingMessage(senderId, receiverId, itemId, text, LocalDateTime.now(), result);
+        if (!running || !queue.offer(pending)) {
+            return null;
+        }
+        // stop() may have run since the check above, and the writer may already have seen
+        // an empty queue and exited. Take the message back unless the writer has it.
+        if (!running && queue.remove(pending)) {
+            return null;
+        }
+        if (durability == Durability.QUEUED) {
+            logFailure(result, senderId, receiverId);
+        }
+        return result;
+    }
+
+    private void run() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelay.toNanos();
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                // Only stop() ends the loop, after the queue is empty
+                Thread.interrupted();
+            } catch (Throwable e) {
+                // Anything else, Errors included, fails only this batch; the writer keeps going
+                logger.error("Message writer failed", e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+
+        // Nothing is left behind with a future no one completes
+        queue.drainTo(batch);
+        IllegalStateException stopped = new IllegalStateException("Message writer stopped");
+        batch.forEach(pending -> pending.result().completeExceptionally(stopped));
+    }
+
+    /**
+     * Write a batch in one transaction. If it fails as a whole (e.g. an item was
+     * deleted in between), each message is retried alone so only the bad one fails.
+     */
+    private void write(List<PendingMessage> batch) {
+        Map<PendingMessage, RuntimeException> rejected = new HashMap<>();
+        List<Message> messages;
+        try {
+            // READ COMMITTED, as ConversationService.conversationFor requires
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+            messages = transactionTemplate.execute(status -> insert(batch, rejected));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            logger.warn("Message batch of {} failed, writing one at a time: {}", batch.size(), e.getMessage());
+            for (PendingMessage pending : batch) {
+                write(List.of(pending));
+            }
+            return;
+        }
+
+        batches.increment();
+        written.add(messages.size());
+        int next = 0;
+        for (PendingMessage pending : batch) {
+            RuntimeException failure = rejected.get(pending);
+            if (failure != null) {
+                pending.result().completeExceptionally(failure);
+            } else {
+                pending.result().complete(messageService.mapToMessageResponse(messages.get(next++)));
+            }
+        }
+    }
+
+    private List<Message> insert(List<PendingMessage> batch, Map<PendingMessage, RuntimeException> rejected) {
+        rejected.clear();
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> itemIds = new HashSet<>();
+        for (PendingMessage pending : batch) {
+            userIds.add(pending.senderId());
+            userIds.add(pending.receiverId());
+            itemIds.add(pending.itemId());
+        }
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        Map<ConversationKey, Conversation> conversations = new HashMap<>();
+        List<Message> messages = new ArrayList<>(batch.size());
+        for (PendingMessage pending : batch) {
+            User sender = users.get(pending.senderId());
+            User receiver = users.get(pending.receiverId());
+            Item item = items.get(pending.itemId());
+            if (sender == null) {
+                rejected.put(pending, new ResourceNotFoundException("User", "id", pending.senderId()));
+                continue;
+            }
+            if (receiver == null) {
+                rejected.put(pending, new ResourceNotFoundException("Receiver user", "id", pending.receiverId()));
+                continue;
+            }
+            if (item == null) {
+                rejected.put(pending, new ResourceNotFoundException("Item", "id", pending.itemId()));
+                continue;
+            }
+
+            ConversationKey key = new ConversationKey(item.getId(),
+                    Math.min(sender.getId(), receiver.getId()), Math.max(sender.getId(), receiver.getId()));
+            Message message = new Message();
+            message.setSender(sender);
+            message.setReceiver(receiver);
+            message.setItem(item);
+            message.setMessage(pending.text());
+            message.setSentAt(pending.sentAt());
+            message.setConversation(conversations.computeIfAbsent(key,
+                    k -> conversationService.conversationFor(item, sender, receiver)));
+            messages.add(message);
+        }
+        if (messages.isEmpty()) {
+            return messages;
+        }
+
+        // Ids come from the pooled table generator, so these flush as JDBC batches
+        messageRepository.saveAll(messages);
+        conversationService.messagesSent(messages);
+        for (Message message : messages) {
+            unreadMessageCounter.adjustAfterCommit(message.getReceiver().getId(), 1);
+            eventPublisher.publishEvent(new UserNotificationEvent(message.getReceiver().getId(),
+                    UserNotificationEvent.Type.MESSAGE, messageService.mapToMessageResponse(message)));
+        }
+        return messages;
+    }
+}
@@ -2,23 +2,36 @@ package com.lostandfound.service;
 
 import com.lostandfound.dto.request.MessageRequest;
 import com.lostandfound.dto.response.ApiResponse;
+import com.lostandfound.dto.response.ConversationPageResponse;
+import com.lostandfound.dto.response.ConversationResponse;
+import com.lostandfound.dto.response.MessagePageResponse;
 import com.lostandfound.dto.response.MessageResponse;
+import com.lostandfound.event.UserNotificationEvent;
 import com.lostandfound.exception.BadRequestException;
 import com.lostandfound.exception.ResourceNotFoundException;
 import com.lostandfound.exception.UnauthorizedException;
+import com.lostandfound.model.Conversation;
+import com.lostandfound.model.ConversationSummary;
 import com.lostandfound.model.Item;
 import com.lostandfound.model.Message;
 import com.lostandfound.model.User;
+import com.lostandfound.repository.ConversationRepository;
+import com.lostandfound.repository.ConversationSummaryRepository;
 import com.lostandfound.repository.ItemRepository;
 import com.lostandfound.repository.MessageRepository;
 import com.lostandfound.repository.UserRepository;
 import com.lostandfound.security.UserPrincipal;
+import com.lostandfound.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -28,11 +41,19 @@ public class MessageService {
 
     private static final Logger logger = LoggerFactory.getLogger(MessageService.class);
 
+    static final int MAX_PAGE_SIZE = 100;
+
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ConversationRepository conversationRepository;
+    private final ConversationSummaryRepository conversationSummaryRepository;
+    private final ConversationService conversationService;
+    private final UnreadMessageCounter unreadMessageCounter;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Transactional
+    // READ COMMITTED, as ConversationService.conversationFor requires
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public ApiResponse sendMessage(MessageRequest request, UserPrincipal currentUser) {
         if (currentUser == null) {
             throw new UnauthorizedException("You must be logged in to send a message");
@@ -47,29 +68,22 @@ public class MessageService {
         Item item = itemRepository.findById(request.getItemId())
                 .orElseThrow(() -> new ResourceNotFoundException("Item", "id", request.getItemId()));
 
-        // Validate sender is not sending to themselves
-        if (sender.getId().equals(receiver.getId())) {
-            throw new BadRequestException("You cannot send a message to yourself");
-        }
-
-        // Validate message content
-        if (request.getMessage() == null || request.getMessage().trim().isEmpty()) {
-            throw new BadRequestException("Message content cannot be empty");
-        }
-
-        if (request.getMessage().trim().length() > 1000) {
-            throw new BadRequestException("Message content cannot exceed 1000 characters");
-        }
+        String text = validatedText(request, sender.getId());
 
         Message message = new Message();
         message.setSender(sender);
         message.setReceiver(receiver);
         message.setItem(item);
-        message.setMessage(request.getMessage().trim());
+        message.setMessage(text);
+        message.setConversation(conversationService.conversationFor(item, sender, receiver));
 
         messageRepository.save(message);
+        conversationService.messageSent(message);
+        unreadMessageCounter.adjustAfterCommit(receiver.getId(), 1);
         logger.info("User {} sent message to user {} about item {}",
                 sender.getEmail(), receiver.getEmail(), item.getId());
+        eventPublisher.publishEvent(new UserNotificationEvent(receiver.getId(),
+                UserNotificationEvent.Type.MESSAGE, mapToMessageResponse(message)));
 
         return ApiResponse.builder()
                 .success(true)
@@ -77,6 +91,27 @@ public class MessageService {
                 .build();
     }
 
+    /**
+     * The trimmed message text, after the checks that need no database lookup
+     */
+    public String validatedText(MessageRequest request, Long senderId) {
+        // Validate sender is not sending to themselves
+        if (senderId.equals(request.getReceiverId())) {
+            throw new BadRequestException("You cannot send a message to yourself");
+        }
+
+        // Validate message content
+        if (request.getMessage() == null || request.getMessage().trim().isEmpty()) {
+            throw new BadRequestException("Message content cannot be empty");
+        }
+
+        if (request.getMessage().trim().length() > 1000) {
+            throw new BadRequestException("Message content cannot exceed 1000 characters");
+        }
+
+        return request.getMessage().trim();
+    }
+
     @Transactional(readOnly = true)
     public List<MessageResponse> getUserMessages(UserPrincipal currentUser) {
         if (currentUser == null) {
@@ -128,13 +163,163 @@ public class MessageService {
             throw new UnauthorizedException("You don't have permission to delete this message");
         }
 
+        Conversation conversation = message.getConversation();
+        boolean unread = message.getReadAt() == null;
+        Long receiverId = message.getReceiver().getId();
         messageRepository.delete(message);
+        if (conversation != null) {
+            conversationService.messageDeleted(conversation.getId());
+            if (unread) {
+                conversationSummaryRepository.decrementUnread(conversation.getId(), receiverId);
+            }
+        }
+        if (unread) {
+            unreadMessageCounter.adjustAfterCommit(receiverId, -1);
+        }
         logger.info("User {} deleted message {}", user.getEmail(), messageId);
     }
 
-    private MessageResponse mapToMessageResponse(Message message) {
+    /**
+     * Mark one received message as read; marking it again changes nothing
+     */
+    @Transactional
+    public void markMessageRead(Long messageId, UserPrincipal currentUser) {
+        if (currentUser == null) {
+            throw new UnauthorizedException("You must be logged in to read messages");
+        }
+
+        Message message = messageRepository.findById(messageId)
+                .orElseThrow(() -> new ResourceNotFoundException("Message", "id", messageId));
+        if (!message.getReceiver().getId().equals(currentUser.getId())) {
+            throw new UnauthorizedException("Only the receiver can mark a message as read");
+        }
+
+        if (messageRepository.markRead(messageId, LocalDateTime.now()) > 0) {
+            if (message.getConversation() != null) {
+                conversationSummaryRepository.decrementUnread(message.getConversation().getId(), currentUser.getId());
+            }
+            unreadMessageCounter.adjustAfterCommit(currentUser.getId(), -1);
+        }
+    }
+
+    /**
+     * Served from memory, without a query
+     */
+    public long getUnreadCount(UserPrincipal currentUser) {
+        if (currentUser == null) {
+            throw new UnauthorizedException("You must be logged in to view messages");
+        }
+        return unreadMessageCounter.get(currentUser.getId());
+    }
+
+    /**
+     * The current user's conversations, most recently active first
+     */
+    @Transactional(readOnly = true)
+    public ConversationPageResponse getInbox(UserPrincipal currentUser, String cursor, int limit) {
+        if (currentUser == null) {
+            throw new UnauthorizedException("You must be logged in to view messages");
+        }
+
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        if (pageCursor != null && !pageCursor.isKeyset()) {
+            throw new BadRequestException("Invalid pagination cursor");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PageRequest fetch = PageRequest.of(0, pageSize + 1);
+
+        List<ConversationSummary> summaries = pageCursor == null
+                ? conversationSummaryRepository.findInboxFirstPage(currentUser.getId(), fetch)
+                : conversationSummaryRepository.findInboxPageAfter(currentUser.getId(),
+                        pageCursor.getTimestamp(), pageCursor.getId(), fetch);
+
+        boolean hasMore = summaries.size() > pageSize;
+        if (hasMore) {
+            summaries = summaries.subList(0, pageSize);
+        }
+        String next = null;
+        if (hasMore) {
+            ConversationSummary last = summaries.get(summaries.size() - 1);
+            next = PageCursor.after(last.getLastMessageAt(), last.getId()).encode();
+        }
+
+        return ConversationPageResponse.builder()
+                .conversations(summaries.stream().map(this::mapToConversationResponse).collect(Collectors.toList()))
+                .next(next)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * One page of a conversation's messages, newest first. Opening the first page
+     * marks the conversation as read for the current user.
+     */
+    @Transactional
+    public MessagePageResponse getConversationMessages(Long conversationId, UserPrincipal currentUser,
+                                                       String cursor, int limit) {
+        if (currentUser == null) {
+            throw new UnauthorizedException("You must be logged in to view messages");
+        }
+
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Conversation", "id", conversationId));
+        if (!conversation.hasParticipant(currentUser.getId())) {
+            throw new UnauthorizedException("You don't have permission to view this conversation");
+        }
+
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        if (pageCursor != null && !pageCursor.isKeyset()) {
+            throw new BadRequestException("Invalid pagination cursor");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PageRequest fetch = PageRequest.of(0, pageSize + 1);
+
+        List<Message> messages;
+        if (pageCursor == null) {
+            int read = messageRepository.markConversationRead(conversationId, currentUser.getId(), LocalDateTime.now());
+            conversationService.markRead(conversationId, currentUser.getId());
+            unreadMessageCounter.adjustAfterCommit(currentUser.getId(), -read);
+            messages = messageRepository.findThreadFirstPage(conversationId, fetch);
+        } else {
+            messages = messageRepository.findThreadPageAfter(conversationId,
+                    pageCursor.getTimestamp(), pageCursor.getId(), fetch);
+        }
+
+        boolean hasMore = messages.size() > pageSize;
+        if (hasMore) {
+            messages = messages.subList(0, pageSize);
+        }
+        String next = null;
+        if (hasMore) {
+            Message last = messages.get(messages.size() - 1);
+            next = PageCursor.after(last.getSentAt(), last.getId()).encode();
+        }
+
+        return MessagePageResponse.builder()
+                .messages(messages.stream().map(this::mapToMessageResponse).collect(Collectors.toList()))
+                .next(next)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private ConversationResponse mapToConversationResponse(ConversationSummary summary) {
+        return ConversationResponse.builder()
+                .id(summary.getConversation().getId())
+                .itemId(summary.getItem().getId())
+                .itemName(summary.getItem().getName())
+                .otherUserId(summary.getOtherUser().getId())
+                .otherUserName(summary.getOtherUser().getName())
+                .lastMessage(summary.getLastMessage())
+                .lastSenderId(summary.getLastSenderId())
+                .lastMessageAt(summary.getLastMessageAt())
+                .unreadCount(summary.getUnreadCount())
+                .build();
+    }
+
+    MessageResponse mapToMessageResponse(Message message) {
         return MessageResponse.builder()
                 .id(message.getId())
+                .conversationId(message.getConversation() != null ? message.getConversation().getId() : null)
                 .senderId(message.getSender().getId())
                 .senderName(message.getSender().getName())
                 .receiverId(message.getReceiver().getId())
@@ -142,6 +327,7 @@ public class MessageService {
                 .itemName(message.getItem().getName())
                 .message(message.getMessage())
                 .sentAt(message.getSentAt())
+                .readAt(message.getReadAt())
                 .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,367 @@
+package com.lostandfound.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.lostandfound.repository.ItemRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes resized JPEG copies of each uploaded image next to the original, so list
+ * views can load a small file instead of the full upload. Work runs on a small
+ * bounded pool after the upload's transaction commits; the image is decoded once
+ * (subsampled when much larger than the biggest variant) and every width is scaled
+ * from that. Written without metadata, which drops EXIF location and camera data.
+ */
+@Service
+@RequiredArgsConstructor
+public class ThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 100;
+
+    private final FileStorageService fileStorageService;
+    private final ItemRepository itemRepository;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${thumbnail.threads:2}")
+    private int threads;
+
+    // Images waiting beyond this are dropped (and picked up by the next startup backfill)
+    @Value("${thumbnail.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${thumbnail.quality:0.8}")
+    private float quality;
+
+    // Larger images are not decoded at all, guarding memory against decompression bombs
+    @Value("${thumbnail.max-pixels:50000000}")
+    private long maxPixels;
+
+    @Value("${thumbnail.variant-cache-size:10000}")
+    private long variantCacheSize;
+
+    // How long an image with variants still missing is trusted before the files are checked again
+    @Value("${thumbnail.missing-recheck:1m}")
+    private Duration missingRecheck;
+
+    // Image path -> variants that exist on disk; complete answers stay until evicted
+    private Cache<String, Map<Integer, String>> availableVariants;
+
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private ThreadPoolExecutor executor;
+    private ExecutorService backfillExecutor;
+
+    @PostConstruct
+    public void init() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("thumbnail-");
+        threadFactory.setDaemon(true);
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+
+        availableVariants = Caffeine.newBuilder()
+                .maximumSize(variantCacheSize)
+                .expireAfter(new Expiry<String, Map<Integer, String>>() {
+                    @Override
+                    public long expireAfterCreate(String imagePath, Map<Integer, String> variants, long currentTime) {
+                        return variants.size() == fileStorageService.variantPaths(imagePath).size()
+                                ? Long.MAX_VALUE
+                                : missingRecheck.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String imagePath, Map<Integer, String> variants,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(imagePath, variants, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String imagePath, Map<Integer, String> variants,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("thumbnail.queue.depth", executor, pool -> pool.getQueue().size())
+                    .description("Images waiting for thumbnail generation")
+                    .register(registry);
+            Gauge.builder("thumbnail.active", executor, ThreadPoolExecutor::getActiveCount)
+                    .register(registry);
+            registry.more().counter("thumbnail.generated", List.of(), generated);
+            registry.more().counter("thumbnail.failed", List.of(), failed);
+            registry.more().counter("thumbnail.rejected", List.of(), rejected);
+        });
+    }
+
+    /**
+     * Find images that are missing variants (uploaded before thumbnails existed, or
+     * dropped from a full queue) and generate them on a background thread
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("thumbnail-backfill-");
+        threadFactory.setDaemon(true);
+        backfillExecutor = Executors.newSingleThreadExecutor(threadFactory);
+        backfillExecutor.execute(this::backfill);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+        if (backfillExecutor != null) {
+            backfillExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Queue variant generation once the surrounding transaction commits, so a rolled
+     * back upload is never processed. Queues immediately outside a transaction.
+     */
+    public void generateAfterCommit(String imagePath) {
+        // The same bytes may have been uploaded, deleted and uploaded again
+        availableVariants.invalidate(imagePath);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(imagePath);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(imagePath);
+            }
+        });
+    }
+
+    private void submit(String imagePath) {
+        try {
+            executor.execute(() -> generate(imagePath));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Thumbnail queue full, skipping {}", imagePath);
+        }
+    }
+
+    /**
+     * Write every missing variant of a stored image. Returns false if the image could
+     * not be read or decoded.
+     */
+    public boolean generate(String imagePath) {
+        Optional<Path> source = fileStorageService.resolveStoredFile(imagePath).filter(Files::isRegularFile);
+        if (source.isEmpty()) {
+            return false;
+        }
+
+        List<Integer> widths = missingWidths(imagePath);
+        if (widths.isEmpty()) {
+            return true;
+        }
+
+        try {
+            BufferedImage image = decode(source.get(), widths.get(widths.size() - 1));
+            if (image == null) {
+                failed.increment();
+                return false;
+            }
+            // Largest first, each one scaled down from the previous
+            BufferedImage current = image;
+            for (int i = widths.size() - 1; i >= 0; i--) {
+                int width = widths.get(i);
+                // Never scaled up; small originals just get re-encoded
+                current = resize(current, Math.min(width, current.getWidth()));
+                Path target = fileStorageService.resolveStoredFile(fileStorageService.variantPath(imagePath, width))
+                        .orElseThrow();
+                writeJpeg(current, target);
+            }
+            availableVariants.invalidate(imagePath);
+            generated.increment();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            logger.warn("Could not generate thumbnails for {}", imagePath, e);
+            return false;
+        }
+    }
+
+    /**
+     * Decode the image, skipping pixels when it is over twice the largest wanted width
+     */
+    private BufferedImage decode(Path source, int largestWidth) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    logger.warn("Image {} is {}x{}, too large to thumbnail", source.getFileName(), width, height);
+                    return null;
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, width / (2 * largestWidth));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Bilinear scaling in halving steps, which keeps quality close to area averaging
+     * at a fraction of the cost. Also flattens transparency onto white for JPEG.
+     */
+    private static BufferedImage resize(BufferedImage source, int width) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            int height = Math.max(1, Math.round((float) source.getHeight() * currentWidth / source.getWidth()));
+            BufferedImage scaled = new BufferedImage(currentWidth, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = scaled.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, currentWidth, height, Color.WHITE, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = scaled;
+        } while (currentWidth > width);
+        return current;
+    }
+
+    /**
+     * Write through a temp file and rename, so a half-written variant is never served
+     */
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), ".thumbnail-", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void backfill() {
+        long afterId = 0;
+        int generatedImages = 0;
+        List<Object[]> batch;
+        do {
+            batch = itemRepository.findImagePathsAfter(afterId, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+            for (Object[] row : batch) {
+                afterId = (Long) row[0];
+                String image = (String) row[1];
+                if (!missingWidths(image).isEmpty() && generate(image)) {
+                    generatedImages++;
+                }
+            }
+        } while (!batch.isEmpty() && !Thread.currentThread().isInterrupted());
+
+        if (generatedImages > 0) {
+            logger.info("Generated thumbnails for {} existing images", generatedImages);
+        }
+    }
+
+    /**
+     * Variant paths by width that exist on disk, so clients are never sent to a missing
+     * file and fall back to the original instead. The file check is cached per image.
+     */
+    public Map<Integer, String> availableVariants(String imagePath) {
+        return availableVariants.get(imagePath, path -> {
+            Map<Integer, String> existing = new TreeMap<>();
+            for (Map.Entry<Integer, String> variant : fileStorageService.variantPaths(path).entrySet()) {
+                Optional<Path> target = fileStorageService.resolveStoredFile(variant.getValue());
+                if (target.isPresent() && Files.isRegularFile(target.get())) {
+                    existing.put(variant.getKey(), variant.getValue());
+                }
+            }
+            return existing;
+        });
+    }
+
+    /**
+     * Configured widths with no variant file yet, smallest first
+     */
+    private List<Integer> missingWidths(String imagePath) {
+        List<Integer> widths = new ArrayList<>();
+        for (Map.Entry<Integer, String> variant : fileStorageService.variantPaths(imagePath).entrySet()) {
+            Optional<Path> target = fileStorageService.resolveStoredFile(variant.getValue());
+            if (target.isPresent() && !Files.exists(target.get())) {
+                widths.add(variant.getKey());
+            }
+        }
+        return widths;
+    }
+}
@@ -0,0 +1,118 @@
+package com.lostandfound.service;
+
+import com.lostandfound.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Unread message count per receiver, held in memory so the badge endpoint runs no
+ * query. Sends, reads and deletes adjust the counter once their transaction commits;
+ * a periodic pass recounts from read_at and corrects any drift (e.g. an update that
+ * committed while a pass was running, or changes made by another instance).
+ */
+@Service
+@RequiredArgsConstructor
+public class UnreadMessageCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnreadMessageCounter.class);
+
+    private final MessageRepository messageRepository;
+
+    // Only receivers with unread messages (or a recent change) have an entry
+    private final Map<Long, LongAdder> counts = new ConcurrentHashMap<>();
+
+    // Until the first full count, unknown users are counted in the database
+    private volatile boolean loaded;
+
+    public long get(Long userId) {
+        LongAdder count = counts.get(userId);
+        if (count != null) {
+            return Math.max(0, count.sum());
+        }
+        return loaded ? 0 : messageRepository.countUnread(userId);
+    }
+
+    /**
+     * Change the user's count once the surrounding transaction commits; a rolled back
+     * send or read leaves it alone. Applies immediately outside a transaction.
+     */
+    public void adjustAfterCommit(Long userId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            adjust(userId, delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                adjust(userId, delta);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reconcile();
+    }
+
+    /**
+     * Replace every counter with the database count, in one grouped query over the
+     * unread rows only
+     */
+    @Scheduled(fixedDelayString = "${unread.reconcile-interval-ms:300000}",
+            initialDelayString = "${unread.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        Map<Long, Long> actual = new HashMap<>();
+        for (Object[] row : messageRepository.countUnreadByReceiver()) {
+            actual.put((Long) row[0], (Long) row[1]);
+        }
+
+        int corrected = 0;
+        for (Map.Entry<Long, LongAdder> entry : counts.entrySet()) {
+            long expected = actual.getOrDefault(entry.getKey(), 0L);
+            long current = entry.getValue().sum();
+            if (current != expected) {
+                entry.getValue().add(expected - current);
+                corrected++;
+            }
+            if (expected == 0) {
+                counts.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<Long, Long> entry : actual.entrySet()) {
+            if (!counts.containsKey(entry.getKey())) {
+                counts.computeIfAbsent(entry.getKey(), id -> new LongAdder()).add(entry.getValue());
+                if (loaded) {
+                    corrected++;
+                }
+            }
+        }
+
+        if (loaded && corrected > 0) {
+            logger.info("Corrected unread message counts of {} users", corrected);
+        }
+        loaded = true;
+    }
+
+    private void adjust(Long userId, long delta) {
+        // Before the first count, reads go to the database, which already has this change
+        if (!loaded) {
+            return;
+        }
+        counts.computeIfAbsent(userId, id -> new LongAdder()).add(delta);
+    }
+}
@@ -0,0 +1,169 @@
+package com.lostandfound.service;
+
+import com.lostandfound.event.ItemChangedEvent;
+import com.lostandfound.repository.ItemRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moves images stored as flat UUID_name files into the content-addressed store.
+ * Each item is switched over in its own transaction and the old file is deleted
+ * after commit, so the migration can be stopped and re-run at any point. Runs on a
+ * background thread, one run at a time; progress() reports the current or last run.
+ */
+@Service
+@RequiredArgsConstructor
+public class UploadMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadMigrationService.class);
+
+    private static final int BATCH_SIZE = 100;
+
+    private final ItemRepository itemRepository;
+    private final FileStorageService fileStorageService;
+    private final ThumbnailService thumbnailService;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public enum State { IDLE, RUNNING, FINISHED, STOPPED, FAILED }
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger migrated = new AtomicInteger();
+    private final AtomicInteger missing = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile State state = State.IDLE;
+    private volatile long lastItemId;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile boolean stopping;
+
+    /**
+     * Start a run in the background; false if one is already running
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        migrated.set(0);
+        missing.set(0);
+        failed.set(0);
+        lastItemId = 0;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        state = State.RUNNING;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("upload-migration-");
+        threadFactory.setDaemon(true);
+        threadFactory.newThread(this::run).start();
+        return true;
+    }
+
+    public Map<String, Object> progress() {
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("state", state);
+        progress.put("migrated", migrated.get());
+        progress.put("missing", missing.get());
+        progress.put("failed", failed.get());
+        progress.put("lastItemId", lastItemId);
+        progress.put("startedAt", startedAt);
+        progress.put("finishedAt", finishedAt);
+        return progress;
+    }
+
+    /**
+     * Let a running migration stop after its current item; a later run carries on
+     */
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    private void run() {
+        try {
+            migrateToContentAddressed();
+            state = stopping ? State.STOPPED : State.FINISHED;
+        } catch (Throwable e) {
+            state = State.FAILED;
+            logger.error("Upload migration failed after item {}", lastItemId, e);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private void migrateToContentAddressed() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long afterId = 0;
+
+        List<Object[]> batch;
+        do {
+            batch = itemRepository.findImagePathsAfter(afterId, PageRequest.of(0, BATCH_SIZE));
+            for (Object[] row : batch) {
+                if (stopping) {
+                    logger.info("Upload migration stopped after item {}", lastItemId);
+                    return;
+                }
+                Long itemId = (Long) row[0];
+                String image = (String) row[1];
+                afterId = itemId;
+                lastItemId = itemId;
+                if (fileStorageService.isContentAddressed(image)) {
+                    continue;
+                }
+
+                try {
+                    Boolean moved = transactionTemplate.execute(status -> migrate(itemId, image));
+                    if (Boolean.TRUE.equals(moved)) {
+                        migrated.incrementAndGet();
+                    } else {
+                        missing.incrementAndGet();
+                    }
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    logger.error("Could not migrate image {} of item {}", image, itemId, e);
+                }
+            }
+        } while (!batch.isEmpty());
+
+        logger.info("Upload migration finished: {} migrated, {} missing, {} failed",
+                migrated.get(), missing.get(), failed.get());
+    }
+
+    private boolean migrate(Long itemId, String image) {
+        Optional<String> contentPath;
+        try {
+            contentPath = fileStorageService.storeExistingFile(image);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + image, e);
+        }
+        if (contentPath.isEmpty()) {
+            return false;
+        }
+
+        if (itemRepository.moveImage(itemId, image, contentPath.get()) == 0) {
+            // The item changed its image meanwhile; rolling back gives back the reference
+            throw new IllegalStateException("Item " + itemId + " no longer uses " + image);
+        }
+        fileStorageService.deleteFileAfterCommit(image);
+        thumbnailService.generateAfterCommit(contentPath.get());
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId, ItemChangedEvent.Type.IMAGE_MOVED));
+        return true;
+    }
+}
@@ -10,6 +10,7 @@ import com.lostandfound.model.RefreshToken;
 import com.lostandfound.model.User;
 import com.lostandfound.repository.UserRepository;
 import com.lostandfound.security.JwtTokenProvider;
+import com.lostandfound.security.SecurityEpochService;
 import com.lostandfound.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -36,6 +37,7 @@ public class UserService {
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
     private final RefreshTokenService refreshTokenService;
+    private final SecurityEpochService securityEpochService;
 
     @Value("${jwt.expiration}")
     private Long jwtExpirationMs;
@@ -71,7 +73,8 @@ public class UserService {
         user.setRole(User.Role.USER);
 
         try {
-            user = userRepository.save(user);
+            // Flushed so a duplicate email fails here rather than at commit
+            user = userRepository.saveAndFlush(user);
             logger.info("New user registered successfully with ID: {}", user.getId());
         } catch (Exception e) {
             logger.error("Error during user registration", e);
@@ -175,6 +178,7 @@ public class UserService {
 
         // Delete all refresh tokens for this user
         refreshTokenService.revokeAllUserTokens(userId);
+        securityEpochService.bump(userId);
 
         logger.info("User logged out successfully with ID: {}", user.getId());
     }
@@ -242,6 +246,9 @@ public class UserService {
         // Delete the user (cascading will handle related data if configured)
         userRepository.delete(userToDelete);
 
+        // Outstanding access tokens of the deleted user stop working immediately
+        securityEpochService.bump(userId);
+
         logger.info("Successfully deleted user ID: {}", userToDelete.getId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.lostandfound.util;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * 64-bit difference hash (dHash). The image is shrunk to 9x8 grey pixels and each bit
+ * says whether a pixel is brighter than its right neighbour, so re-encoded, resized or
+ * slightly edited copies of a photo land within a few bits of each other.
+ */
+public final class ImageHash {
+
+    private static final int WIDTH = 9;
+    private static final int HEIGHT = 8;
+
+    private ImageHash() {
+    }
+
+    /**
+     * Hash of the image in the stream; empty if ImageIO cannot decode it or it has more
+     * than maxPixels pixels. Only the header is read before that check, and the image
+     * is decoded subsampled, so a huge photo never becomes a huge raster.
+     */
+    public static Optional<Long> dHash(InputStream in, long maxPixels) throws IOException {
+        try (ImageInputStream imageIn = ImageIO.createImageInputStream(in)) {
+            if (imageIn == null) {
+                return Optional.empty();
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageIn);
+            if (!readers.hasNext()) {
+                return Optional.empty();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageIn, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    return Optional.empty();
+                }
+
+                // Keep at least 8x the hash grid for the averaging steps below
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.min(width / (WIDTH * 8), height / (HEIGHT * 8)));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return Optional.of(dHash(reader.read(0, param)));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    public static long dHash(BufferedImage image) {
+        // Bilinear halving steps average the whole picture into the 9x8 grid
+        BufferedImage current = image;
+        while (current.getWidth() >= WIDTH * 2 || current.getHeight() >= HEIGHT * 2) {
+            int width = current.getWidth() >= WIDTH * 2 ? current.getWidth() / 2 : current.getWidth();
+            int height = current.getHeight() >= HEIGHT * 2 ? current.getHeight() / 2 : current.getHeight();
+            current = scale(current, width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        BufferedImage grey = scale(current, WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+
+        long hash = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH - 1; x++) {
+                int left = grey.getRaster().getSample(x, y, 0);
+                int right = grey.getRaster().getSample(x + 1, y, 0);
+                hash = (hash << 1) | (left > right ? 1 : 0);
+            }
+        }
+        return hash;
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height, int type) {
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Number of differing bits; 0 means visually identical
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+}
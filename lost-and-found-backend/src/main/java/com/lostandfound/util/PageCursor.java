@@ -0,0 +1,78 @@
+package com.lostandfound.util;
+
+import com.lostandfound.exception.BadRequestException;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque pagination cursor handed to clients as "next".
+ * Either a keyset position (timestamp + id of the last row returned)
+ * or a plain offset for relevance-ranked results.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PageCursor {
+
+    private static final String KEYSET = "k";
+    private static final String OFFSET = "o";
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime timestamp;
+    private final Long id;
+    private final Integer offset;
+
+    public static PageCursor after(LocalDateTime timestamp, Long id) {
+        return new PageCursor(timestamp, id, null);
+    }
+
+    public static PageCursor atOffset(int offset) {
+        return new PageCursor(null, null, offset);
+    }
+
+    public boolean isKeyset() {
+        return offset == null;
+    }
+
+    public String encode() {
+        String payload = isKeyset()
+                ? KEYSET + SEPARATOR + timestamp + SEPARATOR + id
+                : OFFSET + SEPARATOR + offset;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a client-supplied cursor; returns null for a missing cursor (first page)
+     */
+    public static PageCursor decode(String token) {
+        if (!StringUtils.hasText(token)) {
+            return null;
+        }
+
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] parts = payload.split("\\" + SEPARATOR);
+
+            if (parts.length == 3 && KEYSET.equals(parts[0])) {
+                return after(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+            }
+            if (parts.length == 2 && OFFSET.equals(parts[0])) {
+                int offset = Integer.parseInt(parts[1]);
+                if (offset >= 0) {
+                    return atOffset(offset);
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // fall through to the generic error below
+        }
+
+        throw new BadRequestException("Invalid pagination cursor");
+    }
+}
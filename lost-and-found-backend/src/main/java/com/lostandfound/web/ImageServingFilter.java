@@ -0,0 +1,296 @@
+package com.lostandfound.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lostandfound.service.FileStorageService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Serves /uploads/** and /static/** straight from the upload directory, ahead of the
+ * security filters: images are public, so parsing JWT cookies and charging rate limit
+ * buckets for every card thumbnail only costs time. On Tomcat the body is handed to
+ * the connector's sendfile, so the bytes go from page cache to socket without passing
+ * through the JVM; elsewhere it falls back to FileChannel.transferTo.
+ *
+ * Responses carry a strong ETag (the content hash) and Last-Modified, answer
+ * conditional requests with 304 and support single byte ranges. Content-addressed
+ * originals never change content, so they are cached as immutable for a year;
+ * thumbnail variants and flat uploads are hashed on first use and get the normal
+ * max-age.
+ */
+public class ImageServingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageServingFilter.class);
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private final FileStorageService fileStorageService;
+    private final String flatCacheControl;
+
+    // Content hashes of flat uploads and variants, which have to be read once to get one
+    private final Cache<Path, FileTag> fileTags;
+
+    private record FileTag(long size, long lastModified, String etag) {
+    }
+
+    record ByteRange(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    public ImageServingFilter(FileStorageService fileStorageService, long flatMaxAgeSeconds, long tagCacheSize) {
+        this.fileStorageService = fileStorageService;
+        this.flatCacheControl = "public, max-age=" + flatMaxAgeSeconds;
+        this.fileTags = Caffeine.newBuilder().maximumSize(tagCacheSize).build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !"GET".equals(method) && !"HEAD".equals(method);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String storedPath = storedPath(request);
+        Optional<Path> file = storedPath != null ? fileStorageService.resolveStoredFile(storedPath) : Optional.empty();
+        BasicFileAttributes attributes = file.isPresent() ? attributes(file.get()) : null;
+        if (attributes == null || !attributes.isRegularFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path path = file.get();
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        // Only an original is named by its own hash; a variant's name is the hash of its
+        // source, and a variant is rewritten when thumbnails are regenerated
+        Optional<String> contentHash = fileStorageService.contentHash(storedPath);
+        String etag = contentHash.isPresent()
+                ? "\"" + contentHash.get() + "\""
+                : fileTag(path, length, lastModified);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, contentHash.isPresent() ? IMMUTABLE : flatCacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(MediaTypeFactory.getMediaType(path.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        ByteRange range = new ByteRange(0, length - 1);
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && rangeApplies(request, etag)) {
+            ByteRange requested = parseRange(rangeHeader, length);
+            if (requested == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (requested.length() < length) {
+                range = requested;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + range.start() + "-" + range.end() + "/" + length);
+            }
+        }
+        response.setContentLengthLong(range.length());
+
+        if ("HEAD".equals(request.getMethod()) || range.length() == 0) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file itself once this filter returns
+            request.setAttribute(SENDFILE_FILENAME, path.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, range.start());
+            request.setAttribute(SENDFILE_END, range.end() + 1);
+            return;
+        }
+        transfer(path, range, response);
+    }
+
+    /**
+     * "uploads/..." path of the request, decoded; null if it has nothing after the prefix
+     */
+    private static String storedPath(HttpServletRequest request) {
+        String uri = request.getRequestURI().substring(request.getContextPath().length());
+        String rest;
+        if (uri.startsWith("/uploads/")) {
+            rest = uri.substring("/uploads/".length());
+        } else if (uri.startsWith("/static/")) {
+            rest = uri.substring("/static/".length());
+        } else {
+            return null;
+        }
+        rest = UriUtils.decode(rest, StandardCharsets.UTF_8);
+        return rest.isEmpty() ? null : "uploads/" + rest;
+    }
+
+    private static BasicFileAttributes attributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private String fileTag(Path path, long size, long lastModified) throws IOException {
+        FileTag tag = fileTags.getIfPresent(path);
+        if (tag == null || tag.size() != size || tag.lastModified() != lastModified) {
+            tag = new FileTag(size, lastModified, "\"" + sha256(path) + "\"");
+            fileTags.put(path, tag);
+        }
+        return tag.etag();
+    }
+
+    private static String sha256(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * If-None-Match wins over If-Modified-Since, as in RFC 9110
+     */
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matches(ifNoneMatch, etag, false);
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            // Header dates have whole seconds
+            return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A Range is only honoured if If-Range (when sent) still names this exact content
+     */
+    private static boolean rangeApplies(HttpServletRequest request, String etag) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        return ifRange == null || matches(ifRange, etag, true);
+    }
+
+    private static boolean matches(String header, String etag, boolean strong) {
+        for (String candidate : header.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*")) {
+                return !strong;
+            }
+            if (!strong && candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One "bytes=" range, clamped to the file. Multiple ranges are answered with the
+     * whole file, which RFC 9110 allows; null means the range cannot be satisfied.
+     */
+    static ByteRange parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new ByteRange(0, length - 1);
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new ByteRange(0, length - 1);
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last n bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return null;
+                }
+                return new ByteRange(Math.max(0, length - suffix), length - 1);
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            if (start >= length || start > end) {
+                return null;
+            }
+            return new ByteRange(start, end);
+        } catch (NumberFormatException e) {
+            // Malformed ranges are ignored rather than rejected
+            return new ByteRange(0, length - 1);
+        }
+    }
+
+    private static void transfer(Path path, ByteRange range, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = range.start();
+            long remaining = range.length();
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        } catch (IOException e) {
+            // Usually the client went away mid-download
+            logger.debug("Image transfer of {} stopped: {}", path.getFileName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.lostandfound.benchmark;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Wall time and allocation of a block of work on the calling thread, printed per
+ * operation. Shared by the -Dbenchmark=true tests; warm-up is left to the caller.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void measure(String name, long operations, Work work) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        work.run();
+        long nanos = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+
+        System.out.printf("%s: %.0f ns/op, %.0f bytes/op%n",
+                name, (double) nanos / operations, (double) bytes / operations);
+    }
+
+    @FunctionalInterface
+    public interface Work {
+        void run() throws Exception;
+    }
+}
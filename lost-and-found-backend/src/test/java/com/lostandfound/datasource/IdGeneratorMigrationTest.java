@@ -0,0 +1,86 @@
+package com.lostandfound.datasource;
+
+import com.lostandfound.model.IdGenerators;
+import com.lostandfound.model.RefreshToken;
+import com.lostandfound.model.User;
+import com.lostandfound.repository.RefreshTokenRepository;
+import com.lostandfound.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A table that was filled by AUTO_INCREMENT keeps working after the switch to the
+ * table generator: new ids start above the existing ones.
+ */
+@DataJpaTest
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@Import(IdGeneratorMigration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdGeneratorMigrationTest {
+
+    private static final long LEGACY_ID = 5000;
+
+    @Autowired
+    private IdGeneratorMigration migration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Test
+    void newIdsStartAboveRowsWrittenByIdentity() {
+        User user = saveUser("legacy");
+
+        // A row from before the switch, and a generator row that knows nothing about it
+        jdbcTemplate.update("INSERT INTO refresh_tokens (id, user_id, token, expiry_date, revoked, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)", LEGACY_ID, user.getId(), "legacy-token",
+                Timestamp.from(Instant.now()), false, Timestamp.valueOf(LocalDateTime.now()));
+        jdbcTemplate.update("UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN + " = 1 " +
+                "WHERE " + IdGenerators.SEGMENT_COLUMN + " = 'refresh_tokens'");
+
+        migration.migrate();
+        long raised = nextValue("refresh_tokens");
+        migration.migrate();
+        assertThat(nextValue("refresh_tokens")).isEqualTo(raised);
+
+        RefreshToken token = refreshTokenRepository.save(RefreshToken.builder()
+                .user(saveUser("current"))
+                .token("new-token")
+                .expiryDate(Instant.now().plusSeconds(60))
+                .build());
+
+        assertThat(token.getId()).isGreaterThan(LEGACY_ID);
+        assertThat(refreshTokenRepository.count()).isEqualTo(2);
+    }
+
+    private User saveUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+
+    private long nextValue(String segment) {
+        return jdbcTemplate.queryForObject("SELECT " + IdGenerators.VALUE_COLUMN + " FROM " + IdGenerators.TABLE +
+                " WHERE " + IdGenerators.SEGMENT_COLUMN + " = ?", Long.class, segment);
+    }
+}
@@ -0,0 +1,107 @@
+package com.lostandfound.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two embedded databases stand in for the primary and the replica; each knows its own name.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReplicaLagMonitor lagMonitor;
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        replica.execute("CREATE TABLE replica_lag (seconds BIGINT)");
+        replica.update("INSERT INTO replica_lag VALUES (0)");
+
+        lagMonitor = new ReplicaLagMonitor(replica.getDataSource(), Duration.ofSeconds(5),
+                Duration.ofHours(1), "SELECT seconds FROM replica_lag");
+        lagMonitor.start();
+
+        routing = new ReadWriteRoutingDataSource(primary.getDataSource(), replica.getDataSource(), lagMonitor);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lagMonitor.stop();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertThat(nodeIn(readOnlyTransaction)).isEqualTo("replica");
+        assertThat(nodeIn(writeTransaction)).isEqualTo("primary");
+        // No transaction at all is treated as a write
+        assertThat(currentNode()).isEqualTo("primary");
+
+        assertThat(routing.getStats())
+                .containsEntry("replicaConnections", 1L)
+                .containsEntry("replicaFallbacks", 0L);
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        replica.update("UPDATE replica_lag SET seconds = 30");
+        lagMonitor.check();
+
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+        assertThat(nodeIn(readOnlyTransaction)).isEqualTo("primary");
+        assertThat(routing.getStats()).containsEntry("replicaFallbacks", 1L);
+
+        replica.update("UPDATE replica_lag SET seconds = 1");
+        lagMonitor.check();
+
+        assertThat(nodeIn(readOnlyTransaction)).isEqualTo("replica");
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() {
+        replica.execute("DROP TABLE replica_lag");
+        lagMonitor.check();
+
+        assertThat(lagMonitor.getLagSeconds()).isEqualTo(-1);
+        assertThat(nodeIn(readOnlyTransaction)).isEqualTo("primary");
+    }
+
+    private String nodeIn(TransactionTemplate transaction) {
+        return transaction.execute(status -> currentNode());
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static JdbcTemplate database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE node (name VARCHAR(16))");
+        template.update("INSERT INTO node VALUES (?)", name);
+        return template;
+    }
+}
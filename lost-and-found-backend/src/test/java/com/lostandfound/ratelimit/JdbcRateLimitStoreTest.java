@@ -0,0 +1,219 @@
+package com.lostandfound.ratelimit;
+
+import com.lostandfound.config.RateLimitConfig.RateLimitType;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two store instances over one embedded database stand in for two application nodes.
+ */
+class JdbcRateLimitStoreTest {
+
+    private static final RateLimitKey KEY = RateLimitKey.of("10.0.0.1", RateLimitType.AUTH, null);
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcRateLimitStore nodeA;
+    private JdbcRateLimitStore nodeB;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:rate-limit-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // Start of a minute, so every AUTH request in a test lands in the same window
+        now = Instant.parse("2024-01-01T10:00:00Z");
+        nodeA = newStore();
+        nodeB = newStore();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.stop();
+        nodeB.stop();
+    }
+
+    @Test
+    void consumptionOnOneNodeIsVisibleToTheOtherAfterSync() {
+        long capacity = RateLimitType.AUTH.getCapacity();
+
+        for (int i = 0; i < capacity - 1; i++) {
+            assertThat(nodeA.tryConsume(KEY).isConsumed()).isTrue();
+        }
+        assertThat(nodeB.tryConsume(KEY).getRemainingTokens()).isEqualTo(capacity - 1);
+
+        nodeA.sync();
+        nodeB.sync();
+
+        // Cluster-wide the window is now full
+        assertThat(nodeB.tryConsume(KEY).isConsumed()).isFalse();
+        nodeA.sync();
+        assertThat(nodeA.tryConsume(KEY).isConsumed()).isFalse();
+        assertThat(storedTokens()).isEqualTo(capacity);
+    }
+
+    @Test
+    void newWindowStartsFromZero() {
+        long capacity = RateLimitType.AUTH.getCapacity();
+        for (int i = 0; i < capacity; i++) {
+            nodeA.tryConsume(KEY);
+        }
+        nodeA.sync();
+        assertThat(nodeA.tryConsume(KEY).isConsumed()).isFalse();
+
+        advance(Duration.ofMinutes(1));
+
+        assertThat(nodeA.tryConsume(KEY).getRemainingTokens()).isEqualTo(capacity - 1);
+        nodeA.sync();
+        assertThat(storedTokens()).isEqualTo(1);
+    }
+
+    @Test
+    void clearRemovesSharedState() {
+        nodeA.tryConsume(KEY);
+        nodeA.sync();
+
+        nodeA.clear(KEY);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_limit_buckets", Long.class)).isZero();
+    }
+
+    @Test
+    void batchWithoutPerRowCountsStillInsertsNewKeys() {
+        // What Connector/J reports for a batch sent with rewriteBatchedStatements=true
+        JdbcTemplate noInfo = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                           ParameterizedPreparedStatementSetter<T> pss) {
+                int[][] counts = super.batchUpdate(sql, batchArgs, batchSize, pss);
+                for (int[] chunk : counts) {
+                    Arrays.fill(chunk, Statement.SUCCESS_NO_INFO);
+                }
+                return counts;
+            }
+        };
+        JdbcRateLimitStore node = newStore(noInfo);
+        try {
+            node.tryConsume(KEY);
+            node.sync();
+            assertThat(storedTokens()).isEqualTo(1);
+
+            // The row exists now, so the next batch updates it instead of inserting again
+            node.tryConsume(KEY);
+            node.tryConsume(KEY);
+            node.sync();
+            assertThat(storedTokens()).isEqualTo(3);
+        } finally {
+            node.stop();
+        }
+    }
+
+    @Test
+    void failedFlushLeavesNoPartialBatchAndIsRetried() {
+        RateLimitKey other = RateLimitKey.of("10.0.0.2", RateLimitType.AUTH, null);
+        nodeA.tryConsume(KEY);
+        nodeA.sync();
+
+        // KEY's row is updated by the batch, then inserting the new key fails
+        boolean[] failInsert = {true};
+        JdbcTemplate failing = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public int update(String sql, Object... args) {
+                if (sql.startsWith("INSERT") && failInsert[0]) {
+                    failInsert[0] = false;
+                    throw new DataAccessResourceFailureException("connection lost");
+                }
+                return super.update(sql, args);
+            }
+        };
+        JdbcRateLimitStore node = newStore(failing);
+        try {
+            node.tryConsume(KEY);
+            node.tryConsume(other);
+            node.sync();
+            assertThat(storedTokens()).isEqualTo(1);
+
+            node.sync();
+            assertThat(storedTokens()).isEqualTo(2);
+            assertThat(storedTokens(other)).isEqualTo(1);
+        } finally {
+            node.stop();
+        }
+    }
+
+    @Test
+    void failedReadBackDoesNotFlushAgain() {
+        boolean[] failQuery = {true};
+        JdbcTemplate failing = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public void query(String sql, RowCallbackHandler rch, Object... args) {
+                if (failQuery[0]) {
+                    failQuery[0] = false;
+                    throw new DataAccessResourceFailureException("connection lost");
+                }
+                super.query(sql, rch, args);
+            }
+        };
+        JdbcRateLimitStore node = newStore(failing);
+        try {
+            long capacity = RateLimitType.AUTH.getCapacity();
+            node.tryConsume(KEY);
+            node.sync();
+            node.sync();
+
+            assertThat(storedTokens()).isEqualTo(1);
+            assertThat(node.tryConsume(KEY).getRemainingTokens()).isEqualTo(capacity - 2);
+        } finally {
+            node.stop();
+        }
+    }
+
+    private long storedTokens() {
+        return storedTokens(KEY);
+    }
+
+    private long storedTokens(RateLimitKey key) {
+        return jdbcTemplate.queryForObject(
+                "SELECT tokens_used FROM rate_limit_buckets WHERE bucket_key = ?", Long.class, key.toString());
+    }
+
+    private void advance(Duration duration) {
+        now = now.plus(duration);
+        nodeA.setClock(Clock.fixed(now, ZoneOffset.UTC));
+        nodeB.setClock(Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private JdbcRateLimitStore newStore() {
+        return newStore(jdbcTemplate);
+    }
+
+    private JdbcRateLimitStore newStore(JdbcTemplate jdbcTemplate) {
+        JdbcRateLimitStore store = new JdbcRateLimitStore(jdbcTemplate,
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        // Long interval: the tests drive sync() themselves
+        ReflectionTestUtils.setField(store, "syncInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(store, "maxBuckets", 1000L);
+        store.setClock(Clock.fixed(now, ZoneOffset.UTC));
+        store.start();
+        return store;
+    }
+}
@@ -0,0 +1,145 @@
+package com.lostandfound.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lostandfound.annotation.RateLimit;
+import com.lostandfound.benchmark.Benchmarks;
+import com.lostandfound.aspect.RateLimitAspect;
+import com.lostandfound.config.RateLimitConfig;
+import com.lostandfound.config.RateLimitConfig.RateLimitType;
+import com.lostandfound.security.RateLimitFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+/**
+ * Time and allocation per request of the rate limit path: building the bucket key
+ * the old way (split, regex check, "ip:TYPE" string) next to RateLimitKey, then
+ * RateLimitFilter and a @RateLimit method through RateLimitAspect, against the local
+ * store. Requests come through a trusted proxy with IPv4 and IPv6 X-Forwarded-For
+ * addresses, spread over enough clients that no bucket runs dry.
+ * Run with -Dbenchmark=true.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RateLimitBenchmarkTest {
+
+    private static final int CLIENTS = 4000;
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private static final String IPV4_PATTERN = "^((25[0-5]|(2[0-4]|1\\d|[1-9]|)\\d)\\.?\\b){4}$";
+    private static final String IPV6_PATTERN = "^(([0-9a-fA-F]{1,4}:){7}[0-9a-fA-F]{1,4}|" +
+            "([0-9a-fA-F]{1,4}:){1,7}:|" +
+            "([0-9a-fA-F]{1,4}:){1,6}:[0-9a-fA-F]{1,4}|" +
+            "([0-9a-fA-F]{1,4}:){1,5}(:[0-9a-fA-F]{1,4}){1,2})$";
+
+    @Test
+    void parseFilterAndAspect() throws Exception {
+        String[] addresses = new String[CLIENTS];
+        MockHttpServletRequest[] requests = new MockHttpServletRequest[CLIENTS];
+        ServletRequestAttributes[] attributes = new ServletRequestAttributes[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            addresses[i] = i % 2 == 0
+                    ? "203.0." + (i >> 8) + "." + (i & 0xFF)
+                    : "2001:db8:" + Integer.toHexString(i) + "::" + Integer.toHexString((i * 31) & 0xFFFF);
+            requests[i] = new MockHttpServletRequest("GET", "/items");
+            requests[i].setRemoteAddr("127.0.0.1");
+            requests[i].addHeader("X-Forwarded-For", addresses[i] + ", 10.0.0.1");
+            attributes[i] = new ServletRequestAttributes(requests[i]);
+        }
+
+        LocalRateLimitStore store = new LocalRateLimitStore();
+        ReflectionTestUtils.setField(store, "maxBuckets", 100_000L);
+        ReflectionTestUtils.setField(store, "idleTimeout", Duration.ofMinutes(5));
+        store.initCache();
+        RateLimitConfig rateLimitConfig = new RateLimitConfig(store);
+        ClientKeyResolver resolver = new ClientKeyResolver();
+
+        RateLimitFilter filter = new RateLimitFilter(rateLimitConfig, resolver, new ObjectMapper());
+        ReflectionTestUtils.setField(filter, "rateLimitEnabled", true);
+        // Headers are discarded so the response does not grow over the run
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            @Override
+            public void addHeader(String name, String value) {
+            }
+        };
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new LimitedEndpoint());
+        proxyFactory.addAspect(new RateLimitAspect(rateLimitConfig, resolver));
+        LimitedEndpoint endpoint = proxyFactory.getProxy();
+
+        Operation stringKey = i -> {
+            if (concatenatedKey(requests[i], RateLimitType.API).isEmpty()) {
+                throw new IllegalStateException(addresses[i]);
+            }
+        };
+        Operation recordKey = i -> {
+            if (resolver.resolve(requests[i], RateLimitType.API, null) == null) {
+                throw new IllegalStateException(addresses[i]);
+            }
+        };
+        Operation filterRequest = i -> filter.doFilter(requests[i], response, NO_OP_CHAIN);
+        Operation aspectCall = i -> {
+            RequestContextHolder.setRequestAttributes(attributes[i]);
+            endpoint.call();
+        };
+
+        try {
+            // Each client takes (WARMUP + ITERATIONS) / CLIENTS tokens per bucket, under API's capacity
+            measure("Key (string concatenation)", stringKey);
+            measure("Key (RateLimitKey)", recordKey);
+            measure("Filter", filterRequest);
+            measure("Aspect", aspectCall);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private void measure(String name, Operation operation) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run(i % CLIENTS);
+        }
+        Benchmarks.measure(name, ITERATIONS, () -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                operation.run(i % CLIENTS);
+            }
+        });
+    }
+
+    /**
+     * The key as RateLimitFilter built it before RateLimitKey
+     */
+    private static String concatenatedKey(HttpServletRequest request, RateLimitType limitType) {
+        String clientIp = request.getRemoteAddr();
+        String xfHeader = request.getHeader("X-Forwarded-For");
+        if ("127.0.0.1".equals(clientIp) && xfHeader != null && !xfHeader.isEmpty()) {
+            String forwarded = xfHeader.split(",")[0].trim();
+            if (forwarded.matches(IPV4_PATTERN) || forwarded.matches(IPV6_PATTERN)) {
+                clientIp = forwarded;
+            }
+        }
+        return clientIp + ":" + limitType.name();
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run(int client) throws Exception;
+    }
+
+    static class LimitedEndpoint {
+
+        @RateLimit(type = RateLimitType.API)
+        public void call() {
+        }
+    }
+}
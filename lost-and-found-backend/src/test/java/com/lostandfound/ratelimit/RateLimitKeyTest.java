@@ -0,0 +1,136 @@
+package com.lostandfound.ratelimit;
+
+import com.lostandfound.config.RateLimitConfig.RateLimitType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The hand-written parser against InetAddress, which is the reference for what a literal means.
+ */
+class RateLimitKeyTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            // input                                   | same address as
+            "0.0.0.0                                   | 0.0.0.0",
+            "192.0.2.1                                 | 192.0.2.1",
+            "255.255.255.255                           | 255.255.255.255",
+            "::                                        | ::",
+            "::1                                       | ::1",
+            "1::                                       | 1::",
+            "2001:db8::1                               | 2001:db8::1",
+            "2001:DB8:0:0:8:800:200C:417A              | 2001:db8:0:0:8:800:200c:417a",
+            "2001:0db8:0000:0000:0000:0000:0000:0001   | 2001:db8::1",
+            "0000:0000:0000:0000:0000:0000:0000:0000   | ::",
+            "1:2:3:4:5:6:7:8                           | 1:2:3:4:5:6:7:8",
+            "1:2:3:4:5:6:7::                           | 1:2:3:4:5:6:7:0",
+            "::2:3:4:5:6:7:8                           | 0:2:3:4:5:6:7:8",
+            "1:2::7:8                                  | 1:2:0:0:0:0:7:8",
+            "ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff   | ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff",
+            "::ffff:192.0.2.1                          | ::ffff:192.0.2.1",
+            "::ffff:c000:201                           | 192.0.2.1",
+            "::192.0.2.1                               | ::192.0.2.1",
+            "64:ff9b::192.0.2.1                        | 64:ff9b::c000:201",
+            "1:2:3:4:5:6:192.0.2.1                     | 1:2:3:4:5:6:c000:201",
+            "fe80::1%eth0                              | fe80::1",
+            "fe80::1%1                                 | fe80::1",
+    })
+    void validLiteralsMatchInetAddress(String input, String sameAs) throws Exception {
+        RateLimitKey key = RateLimitKey.parse(input, 0, input.length(), RateLimitType.API, null);
+
+        assertThat(key).as(input).isNotNull();
+        byte[] expected = toIpv6(InetAddress.getByName(sameAs).getAddress());
+        assertThat(toBytes(key)).as(input).isEqualTo(expected);
+        // The text form names the same address again
+        assertThat(toIpv6(InetAddress.getByName(key.address()).getAddress())).as(input).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "%eth0",
+            "1.2.3",
+            "1.2.3.4.5",
+            "1.2.3.256",
+            "1..2.3",
+            ".1.2.3",
+            "1.2.3.",
+            // Leading zeros in a dotted quad are octal to some parsers and decimal to others
+            "010.0.0.1",
+            "1.2.3.04",
+            "1.2.3.-4",
+            " 1.2.3.4",
+            ":",
+            ":::",
+            "1:::2",
+            "1::2::3",
+            ":1:2:3:4:5:6:7",
+            "1:2:3:4:5:6:7:",
+            "1:2:3:4:5:6:7:8:9",
+            "1:2:3:4:5:6:7:8::",
+            "::1:2:3:4:5:6:7:8",
+            "1:2:3:4:5:6:7",
+            "12345::",
+            "g::1",
+            "::ffff:1.2.3",
+            "::ffff:256.0.0.1",
+            "1:2:3:4:5:6:7:1.2.3.4",
+            "::1.2.3.4:5",
+            "localhost",
+            "unknown",
+    })
+    void invalidLiteralsAreRejected(String input) {
+        assertThat(RateLimitKey.parse(input, 0, input.length(), RateLimitType.API, null)).as(input).isNull();
+    }
+
+    @Test
+    void parsesOnlyTheGivenRange() {
+        String header = " 203.0.113.7 , 10.0.0.1";
+
+        RateLimitKey key = RateLimitKey.parse(header, 1, 12, RateLimitType.API, null);
+
+        assertThat(key).isEqualTo(RateLimitKey.of("203.0.113.7", RateLimitType.API, null));
+        assertThat(key.address()).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void ipv4AndItsMappedFormShareABucket() {
+        assertThat(RateLimitKey.of("::ffff:192.0.2.1", RateLimitType.AUTH, null))
+                .isEqualTo(RateLimitKey.of("192.0.2.1", RateLimitType.AUTH, null));
+    }
+
+    @Test
+    void unparsedAddressesStillGetAStableKey() {
+        RateLimitKey key = RateLimitKey.of("not-an-address", RateLimitType.AUTH, "login");
+
+        assertThat(key).isEqualTo(RateLimitKey.of("not-an-address", RateLimitType.AUTH, "login"));
+        assertThat(key.toString()).startsWith("unparsed#").endsWith(":login:AUTH");
+    }
+
+    private static byte[] toBytes(RateLimitKey key) {
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (key.hi() >>> (56 - 8 * i));
+            bytes[8 + i] = (byte) (key.lo() >>> (56 - 8 * i));
+        }
+        return bytes;
+    }
+
+    // InetAddress turns IPv4-mapped literals into Inet4Address; map back to compare
+    private static byte[] toIpv6(byte[] address) {
+        if (address.length == 16) {
+            return address;
+        }
+        byte[] mapped = new byte[16];
+        mapped[10] = (byte) 0xFF;
+        mapped[11] = (byte) 0xFF;
+        System.arraycopy(address, 0, mapped, 12, 4);
+        return mapped;
+    }
+}
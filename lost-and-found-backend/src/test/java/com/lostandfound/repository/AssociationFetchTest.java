@@ -0,0 +1,172 @@
+package com.lostandfound.repository;
+
+import com.lostandfound.model.Claim;
+import com.lostandfound.model.Feedback;
+import com.lostandfound.model.Item;
+import com.lostandfound.model.Message;
+import com.lostandfound.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every list query that feeds a response mapper must load the associations the
+ * mapper reads in the same statement, so a list costs one query regardless of size.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AssociationFetchTest {
+
+    private static final int ROWS = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ClaimRepository claimRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    private Statistics statistics;
+    private User owner;
+    private User finder;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < ROWS; i++) {
+            // A distinct user per row so lazy loads cannot be served from the persistence context
+            User creator = persistUser("creator" + i);
+            User claimer = persistUser("claimer" + i);
+
+            Item item = new Item();
+            item.setName("Item " + i);
+            item.setDescription("Description " + i);
+            item.setLocation("Library");
+            item.setStatus(Item.Status.FOUND);
+            item.setCreatedBy(creator);
+            entityManager.persist(item);
+
+            Claim claim = new Claim();
+            claim.setItem(item);
+            claim.setClaimedBy(claimer);
+            claim.setClaimantName(claimer.getName());
+            claim.setClaimantEmail(claimer.getEmail());
+            entityManager.persist(claim);
+
+            Message message = new Message();
+            message.setSender(claimer);
+            message.setReceiver(creator);
+            message.setItem(item);
+            message.setMessage("Is this mine?");
+            entityManager.persist(message);
+
+            Feedback feedback = new Feedback();
+            feedback.setUser(claimer);
+            feedback.setFeedbackText("Thanks");
+            entityManager.persist(feedback);
+
+            if (i == 0) {
+                owner = creator;
+                finder = claimer;
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void itemListsLoadCreatorInOneStatement() {
+        assertSingleStatement(() -> itemRepository.searchItems("", null), this::touch);
+        assertSingleStatement(() -> itemRepository.searchItemsFirstPage("item", Item.Status.FOUND,
+                PageRequest.of(0, ROWS)), this::touch);
+        assertSingleStatement(() -> itemRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(0, ROWS)), this::touch);
+
+        List<Long> ids = itemRepository.findAll().stream().map(Item::getId).toList();
+        entityManager.clear();
+        assertSingleStatement(() -> itemRepository.findWithCreatorByIdIn(ids), this::touch);
+    }
+
+    @Test
+    void claimListsLoadItemAndClaimerInOneStatement() {
+        assertSingleStatement(() -> claimRepository.findAllByOrderByClaimedAtDesc(), this::touch);
+        assertSingleStatement(() -> claimRepository.findAllByOrderByClaimedAtDesc(PageRequest.of(0, ROWS)), this::touch);
+        assertSingleStatement(() -> claimRepository.findByClaimedByOrderByClaimedAtDesc(finder), this::touch);
+    }
+
+    @Test
+    void messageListsLoadParticipantsAndItemInOneStatement() {
+        assertSingleStatement(() -> messageRepository.findAllByOrderBySentAtDesc(), this::touch);
+        assertSingleStatement(() -> messageRepository.findByReceiverOrderBySentAtDesc(owner), this::touch);
+        assertSingleStatement(() -> messageRepository.findBySenderOrderBySentAtDesc(finder), this::touch);
+    }
+
+    @Test
+    void feedbackListsLoadUserInOneStatement() {
+        assertSingleStatement(() -> feedbackRepository.findAllByOrderBySubmittedAtDesc(), this::touch);
+        assertSingleStatement(() -> feedbackRepository.findAllByOrderBySubmittedAtDesc(PageRequest.of(0, ROWS)), this::touch);
+    }
+
+    private <T> void assertSingleStatement(Supplier<List<T>> query, Consumer<T> mapper) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<T> rows = query.get();
+        rows.forEach(mapper);
+
+        assertThat(rows).isNotEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    // The touch methods read the same associations as the service mappers
+
+    private void touch(Item item) {
+        item.getCreatedBy().getName();
+    }
+
+    private void touch(Claim claim) {
+        claim.getItem().getName();
+        claim.getClaimedBy().getName();
+    }
+
+    private void touch(Message message) {
+        message.getSender().getName();
+        message.getReceiver().getName();
+        message.getItem().getName();
+    }
+
+    private void touch(Feedback feedback) {
+        feedback.getUser().getName();
+    }
+
+    private User persistUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("password");
+        return entityManager.persist(user);
+    }
+}
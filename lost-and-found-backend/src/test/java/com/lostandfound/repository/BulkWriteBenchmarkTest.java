@@ -0,0 +1,111 @@
+package com.lostandfound.repository;
+
+import com.lostandfound.model.Claim;
+import com.lostandfound.model.Item;
+import com.lostandfound.model.User;
+import com.lostandfound.scheduler.ClaimCleanupScheduler;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows per second and JDBC statements for a bulk import (items with one claim each)
+ * and the nightly claim cleanup. Run with -Dbenchmark=true; add
+ * -Dspring.jpa.properties.hibernate.jdbc.batch_size=1 for the unbatched numbers.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BulkWriteBenchmarkTest {
+
+    private static final int ROWS = 5000;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ClaimRepository claimRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ClaimCleanupScheduler claimCleanupScheduler;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void bulkImportAndCleanup() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        User owner = saveUser("import-owner");
+        User claimant = saveUser("import-claimant");
+
+        statistics.clear();
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Item> items = new ArrayList<>(ROWS);
+            List<Claim> claims = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                Item item = new Item();
+                item.setName("Imported item " + i);
+                item.setDescription("Bulk import");
+                item.setLocation("Warehouse");
+                item.setStatus(Item.Status.CLAIMED);
+                item.setCreatedBy(owner);
+                items.add(item);
+
+                Claim claim = new Claim();
+                claim.setItem(item);
+                claim.setClaimedBy(claimant);
+                claim.setClaimantName(claimant.getName());
+                claim.setClaimantEmail(claimant.getEmail());
+                claims.add(claim);
+            }
+            itemRepository.saveAll(items);
+            claimRepository.saveAll(claims);
+        });
+        report("Import", 2 * ROWS, start, statistics);
+
+        jdbcTemplate.update("UPDATE claims SET claimed_at = ?", Timestamp.valueOf(LocalDateTime.now().minusDays(30)));
+
+        statistics.clear();
+        start = System.nanoTime();
+        claimCleanupScheduler.cleanupOldClaims();
+        report("Cleanup", ROWS, start, statistics);
+
+        assertThat(claimRepository.count()).isZero();
+    }
+
+    private void report(String name, int rows, long start, Statistics statistics) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%s: %d rows in %.2fs (%.0f rows/sec), %d JDBC statements%n",
+                name, rows, seconds, rows / seconds, statistics.getPrepareStatementCount());
+    }
+
+    private User saveUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "-" + System.nanoTime() + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,113 @@
+package com.lostandfound.repository;
+
+import com.lostandfound.model.Item;
+import com.lostandfound.model.User;
+import com.lostandfound.util.PageCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Walking the keyset pages returns every matching item exactly once, newest first,
+ * even when several items share a created_at and a page boundary falls among them.
+ */
+@DataJpaTest
+class ItemKeysetPaginationTest {
+
+    private static final LocalDateTime TIED = LocalDateTime.of(2024, 1, 1, 10, 0);
+    private static final int PAGE_SIZE = 2;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private final List<Item> items = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        owner.setPassword("password");
+        entityManager.persist(owner);
+
+        // Five items created at the same instant between an older and a newer one
+        LocalDateTime[] createdAt = {
+                TIED.minusMinutes(1), TIED, TIED, TIED, TIED, TIED, TIED.plusMinutes(1)
+        };
+        for (int i = 0; i < createdAt.length; i++) {
+            Item item = new Item();
+            item.setName("Wallet " + i);
+            item.setDescription("Description");
+            item.setLocation("Library");
+            item.setStatus(i % 2 == 0 ? Item.Status.FOUND : Item.Status.LOST);
+            item.setCreatedBy(owner);
+            entityManager.persist(item);
+            entityManager.flush();
+            // created_at is set on insert and not updatable through the entity
+            entityManager.getEntityManager()
+                    .createNativeQuery("UPDATE items SET created_at = ?1 WHERE id = ?2")
+                    .setParameter(1, createdAt[i])
+                    .setParameter(2, item.getId())
+                    .executeUpdate();
+            items.add(item);
+        }
+        entityManager.clear();
+    }
+
+    @Test
+    void pagesCoverEveryItemOnceInOrderAcrossTies() {
+        assertThat(items).filteredOn(item -> TIED.equals(entityManager.find(Item.class, item.getId()).getCreatedAt()))
+                .hasSize(5);
+        List<Long> expected = items.stream()
+                .map(item -> entityManager.find(Item.class, item.getId()))
+                .sorted(Comparator.comparing(Item::getCreatedAt).thenComparing(Item::getId).reversed())
+                .map(Item::getId)
+                .toList();
+
+        assertThat(walk("", null)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void filtersApplyOnEveryPage() {
+        List<Long> expected = items.stream()
+                .map(item -> entityManager.find(Item.class, item.getId()))
+                .filter(item -> item.getStatus() == Item.Status.FOUND)
+                .sorted(Comparator.comparing(Item::getCreatedAt).thenComparing(Item::getId).reversed())
+                .map(Item::getId)
+                .toList();
+
+        assertThat(walk("wallet", Item.Status.FOUND)).containsExactlyElementsOf(expected);
+    }
+
+    private List<Long> walk(String search, Item.Status status) {
+        List<Long> seen = new ArrayList<>();
+        PageCursor cursor = null;
+        while (true) {
+            PageRequest firstRows = PageRequest.of(0, PAGE_SIZE);
+            List<Item> page = cursor == null
+                    ? itemRepository.searchItemsFirstPage(search, status, firstRows)
+                    : itemRepository.searchItemsPageAfter(search, status,
+                            cursor.getTimestamp(), cursor.getId(), firstRows);
+            page.forEach(item -> seen.add(item.getId()));
+            if (page.size() < PAGE_SIZE) {
+                return seen;
+            }
+            Item last = page.get(page.size() - 1);
+            // Through the encoded form, as a client would send it back
+            cursor = PageCursor.decode(PageCursor.after(last.getCreatedAt(), last.getId()).encode());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.lostandfound.security;
+
+import com.lostandfound.model.User;
+import com.lostandfound.repository.UserRepository;
+import com.lostandfound.util.CookieUtil;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Which tokens jwt.stateless-principal trusts from their claims and which it checks
+ * against the database.
+ */
+class JwtAuthenticationFilterTest {
+
+    private static final Long USER_ID = 7L;
+
+    private UserRepository userRepository;
+    private SecurityEpochService securityEpochService;
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter filter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        securityEpochService = new SecurityEpochService(event -> { });
+        tokenProvider = new JwtTokenProvider(securityEpochService);
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", "test-secret-key-that-is-long-enough-for-hmac-sha-256");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", Duration.ofHours(2).toMillis());
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheSize", 100L);
+        tokenProvider.init();
+
+        filter = new JwtAuthenticationFilter(tokenProvider, new CustomUserDetailsService(userRepository),
+                new CookieUtil(), securityEpochService);
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", true);
+
+        user = new User();
+        user.setId(USER_ID);
+        user.setName("Alice");
+        user.setEmail("alice@example.com");
+        user.setPassword("password");
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void tokenIssuedAfterStartupIsTrustedWithoutTheDatabase() throws Exception {
+        Authentication authentication = authenticate(tokenFor(user));
+
+        assertThat(authentication).isNotNull();
+        assertThat(((UserPrincipal) authentication.getPrincipal()).getId()).isEqualTo(USER_ID);
+        verify(userRepository, never()).findById(USER_ID);
+    }
+
+    @Test
+    void tokenIssuedBeforeLogoutIsRejected() throws Exception {
+        String token = tokenFor(user);
+        assertThat(authenticate(token)).isNotNull();
+
+        // What logout and deleteUser do
+        securityEpochService.bump(USER_ID);
+
+        assertThat(authenticate(token)).isNull();
+        assertThat(authenticate(tokenFor(user))).isNotNull();
+        verify(userRepository, never()).findById(USER_ID);
+    }
+
+    @Test
+    void tokenFromBeforeStartupIsCheckedAgainstTheDatabase() throws Exception {
+        tokenProvider.setClock(Clock.fixed(Instant.now().minus(Duration.ofHours(1)), ZoneOffset.UTC));
+        String token = tokenFor(user);
+        tokenProvider.setClock(Clock.systemUTC());
+
+        assertThat(authenticate(token)).isNotNull();
+        verify(userRepository, times(1)).findById(USER_ID);
+
+        // Deleted since: the epoch cannot vouch for the token and the lookup finds no user
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.empty());
+        assertThat(authenticate(token)).isNull();
+        verify(userRepository, times(2)).findById(USER_ID);
+    }
+
+    @Test
+    void principalAlwaysComesFromTheDatabaseWhenDisabled() throws Exception {
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", false);
+        String token = tokenFor(user);
+
+        user.setName("Alice Renamed");
+        Authentication authentication = authenticate(token);
+
+        assertThat(((UserPrincipal) authentication.getPrincipal()).getName()).isEqualTo("Alice Renamed");
+        verify(userRepository, times(1)).findById(USER_ID);
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items");
+        request.setCookies(new Cookie(CookieUtil.ACCESS_TOKEN_COOKIE, token));
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private String tokenFor(User user) {
+        UserPrincipal principal = UserPrincipal.create(user);
+        return tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,126 @@
+package com.lostandfound.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.lostandfound.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "test-secret-key-that-is-long-enough-for-hmac-sha-256";
+    private static final long EXPIRATION_MS = 60_000;
+
+    private Instant now;
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        // Whole seconds, since JWT timestamps have second precision
+        now = Instant.parse("2024-01-01T10:00:00Z");
+        tokenProvider = new JwtTokenProvider(new SecurityEpochService(event -> { }));
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", EXPIRATION_MS);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheSize", 100L);
+        tokenProvider.init();
+        tokenProvider.setClock(Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void secondVerificationIsAnsweredFromTheCache() {
+        String token = tokenFor(1L);
+
+        Optional<Claims> first = tokenProvider.verifyToken(token);
+        Optional<Claims> second = tokenProvider.verifyToken(token);
+
+        assertThat(first).isPresent();
+        assertThat(first.get().getSubject()).isEqualTo("1");
+        // Parsing again would build new claims
+        assertThat(second.get()).isSameAs(first.get());
+        assertThat(cache().estimatedSize()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredTokenIsRejectedEvenWhenCached() {
+        String token = tokenFor(1L);
+        assertThat(tokenProvider.verifyToken(token)).isPresent();
+        assertThat(cache().estimatedSize()).isEqualTo(1);
+
+        tokenProvider.setClock(Clock.fixed(now.plus(Duration.ofMillis(EXPIRATION_MS)).plusSeconds(1), ZoneOffset.UTC));
+
+        assertThat(tokenProvider.verifyToken(token)).isEmpty();
+    }
+
+    @Test
+    void tamperedAndInvalidTokensAreNeverCached() {
+        String token = tokenFor(1L);
+        String[] parts = token.split("\\.");
+        String forgedPayload = Jwts.builder()
+                .subject("2")
+                .expiration(new Date(now.toEpochMilli() + EXPIRATION_MS))
+                .signWith(Keys.hmacShaKeyFor("another-secret-key-that-is-long-enough-for-hmac".getBytes(StandardCharsets.UTF_8)))
+                .compact()
+                .split("\\.")[1];
+        String flippedSignature = parts[2].charAt(0) == 'A'
+                ? "B" + parts[2].substring(1)
+                : "A" + parts[2].substring(1);
+
+        String[] invalid = {
+                // Someone else's claims under the original signature
+                parts[0] + "." + forgedPayload + "." + parts[2],
+                parts[0] + "." + parts[1] + "." + flippedSignature,
+                parts[0] + "." + parts[1] + ".",
+                "not-a-token",
+                "",
+        };
+        for (String candidate : invalid) {
+            assertThat(tokenProvider.verifyToken(candidate)).as(candidate).isEmpty();
+            // Still rejected on a second attempt, so nothing was remembered
+            assertThat(tokenProvider.verifyToken(candidate)).as(candidate).isEmpty();
+        }
+        assertThat(cache().estimatedSize()).isZero();
+    }
+
+    @Test
+    void tokensWithoutExpiryAreNotCached() {
+        String token = Jwts.builder()
+                .subject("1")
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+
+        assertThat(tokenProvider.verifyToken(token)).isPresent();
+        assertThat(cache().estimatedSize()).isZero();
+    }
+
+    private String tokenFor(Long userId) {
+        User user = new User();
+        user.setId(userId);
+        user.setName("User " + userId);
+        user.setEmail("user" + userId + "@example.com");
+        user.setPassword("password");
+        UserPrincipal principal = UserPrincipal.create(user);
+        return tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<?, Claims> cache() {
+        Cache<?, Claims> cache = (Cache<?, Claims>) ReflectionTestUtils.getField(tokenProvider, "verifiedTokens");
+        cache.cleanUp();
+        return cache;
+    }
+}
@@ -0,0 +1,99 @@
+package com.lostandfound.security;
+
+import com.lostandfound.benchmark.Benchmarks;
+import com.lostandfound.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Time and allocation of JwtTokenProvider.verifyToken against the path it replaced,
+ * which derived the key and built a parser on every call and parsed each token twice
+ * (validateToken, then getUserIdFromToken). The first verification of each token does
+ * the full signature check and parse with the cached key and parser; repeating it is
+ * a cache hit. Run with -Dbenchmark=true.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JwtVerifyBenchmarkTest {
+
+    private static final int TOKENS = 50_000;
+    private static final int ROUNDS = 10;
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hmac-sha-256";
+
+    @Test
+    void perCallParserVersusCachedParserAndCacheHit() throws Exception {
+        JwtTokenProvider tokenProvider = newProvider();
+        JwtTokenProvider warmupProvider = newProvider();
+
+        String[] tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = tokenFor(tokenProvider, (long) i + 1);
+        }
+
+        // Warm up all paths on a separate cache, so the measured cache starts empty
+        for (int round = 0; round < 2; round++) {
+            verifyAllPerCall(tokens);
+            verifyAll(warmupProvider, tokens);
+        }
+
+        Benchmarks.measure("Key and parser per call", TOKENS, () -> verifyAllPerCall(tokens));
+        Benchmarks.measure("Cached key and parser", TOKENS, () -> verifyAll(tokenProvider, tokens));
+        Benchmarks.measure("Cache hit", TOKENS * ROUNDS, () -> {
+            for (int round = 0; round < ROUNDS; round++) {
+                verifyAll(tokenProvider, tokens);
+            }
+        });
+    }
+
+    private static void verifyAll(JwtTokenProvider tokenProvider, String[] tokens) {
+        for (String token : tokens) {
+            if (tokenProvider.verifyToken(token).isEmpty()) {
+                throw new IllegalStateException("Token rejected");
+            }
+        }
+    }
+
+    /**
+     * What JwtAuthenticationFilter did per request before the key, parser and cache
+     */
+    private static void verifyAllPerCall(String[] tokens) {
+        for (String token : tokens) {
+            Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                    .build()
+                    .parseSignedClaims(token);
+            Claims claims = Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+            if (Long.parseLong(claims.getSubject()) <= 0) {
+                throw new IllegalStateException("Token rejected");
+            }
+        }
+    }
+
+    private static JwtTokenProvider newProvider() {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(new SecurityEpochService(event -> { }));
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheSize", (long) TOKENS);
+        tokenProvider.init();
+        return tokenProvider;
+    }
+
+    private static String tokenFor(JwtTokenProvider tokenProvider, Long userId) {
+        User user = new User();
+        user.setId(userId);
+        user.setName("User " + userId);
+        user.setEmail("user" + userId + "@example.com");
+        user.setPassword("password");
+        UserPrincipal principal = UserPrincipal.create(user);
+        return tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
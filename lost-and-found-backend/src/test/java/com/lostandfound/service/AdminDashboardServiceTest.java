@@ -0,0 +1,183 @@
+package com.lostandfound.service;
+
+import com.lostandfound.dto.response.AdminDashboardResponse;
+import com.lostandfound.dto.response.ClaimResponse;
+import com.lostandfound.dto.response.FeedbackResponse;
+import com.lostandfound.dto.response.ItemResponse;
+import com.lostandfound.model.Claim;
+import com.lostandfound.model.Feedback;
+import com.lostandfound.model.Item;
+import com.lostandfound.model.User;
+import com.lostandfound.repository.ClaimRepository;
+import com.lostandfound.repository.ConversationRepository;
+import com.lostandfound.repository.ConversationSummaryRepository;
+import com.lostandfound.repository.FeedbackRepository;
+import com.lostandfound.repository.ItemMatchRepository;
+import com.lostandfound.repository.ItemRepository;
+import com.lostandfound.repository.MessageRepository;
+import com.lostandfound.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Dashboard pages and totals over committed data, since the queries run on the
+ * dashboard pool rather than the test thread.
+ */
+@DataJpaTest
+@Import({AdminDashboardService.class, ClaimService.class, FeedbackService.class,
+        AdminDashboardServiceTest.ItemServiceConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AdminDashboardServiceTest {
+
+    private static final int PAGE_SIZE = 3;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Autowired
+    private AdminDashboardService adminDashboardService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ClaimRepository claimRepository;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> itemIds = new ArrayList<>();
+    private final List<Long> claimIds = new ArrayList<>();
+    private final List<Long> feedbackIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        saveUser("admin", User.Role.ADMIN);
+        User owner = saveUser("owner", User.Role.USER);
+        userIds.add(owner.getId());
+
+        // Distinct timestamps, so newest-first pages have one order; ids are newest first
+        for (int i = 0; i < 7; i++) {
+            Item item = new Item();
+            item.setName("Item " + i);
+            item.setDescription("Description " + i);
+            item.setLocation("Library");
+            item.setStatus(Item.Status.FOUND);
+            item.setCreatedBy(owner);
+            item = itemRepository.save(item);
+            jdbcTemplate.update("UPDATE items SET created_at = ? WHERE id = ?", BASE.minusMinutes(i), item.getId());
+            itemIds.add(item.getId());
+
+            if (i < 5) {
+                User claimant = saveUser("claimant" + i, User.Role.USER);
+                userIds.add(claimant.getId());
+                Claim claim = new Claim();
+                claim.setItem(item);
+                claim.setClaimedBy(claimant);
+                claim.setClaimantName(claimant.getName());
+                claim.setClaimantEmail(claimant.getEmail());
+                claim = claimRepository.save(claim);
+                jdbcTemplate.update("UPDATE claims SET claimed_at = ? WHERE id = ?", BASE.minusMinutes(i), claim.getId());
+                claimIds.add(claim.getId());
+            }
+            if (i < 4) {
+                Feedback feedback = new Feedback();
+                feedback.setUser(owner);
+                feedback.setFeedbackText("Feedback " + i);
+                feedback = feedbackRepository.save(feedback);
+                jdbcTemplate.update("UPDATE feedback SET submitted_at = ? WHERE id = ?", BASE.minusMinutes(i), feedback.getId());
+                feedbackIds.add(feedback.getId());
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        claimRepository.deleteAll();
+        feedbackRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void pagesWalkEachListAndTotalsCountEverything() {
+        List<Long> items = new ArrayList<>();
+        List<Long> claims = new ArrayList<>();
+        List<Long> feedback = new ArrayList<>();
+        List<Long> users = new ArrayList<>();
+
+        for (int page = 0; page < 3; page++) {
+            AdminDashboardResponse dashboard = adminDashboardService.getDashboard(page, PAGE_SIZE);
+
+            assertThat(dashboard.getTotalItems()).isEqualTo(7);
+            assertThat(dashboard.getTotalClaims()).isEqualTo(5);
+            assertThat(dashboard.getTotalFeedback()).isEqualTo(4);
+            // Admins are left out of the user list and its total
+            assertThat(dashboard.getTotalUsers()).isEqualTo(6);
+
+            assertThat(dashboard.getItems()).hasSizeLessThanOrEqualTo(PAGE_SIZE);
+            items.addAll(ids(dashboard.getItems(), ItemResponse::getId));
+            claims.addAll(ids(dashboard.getClaims(), ClaimResponse::getId));
+            feedback.addAll(ids(dashboard.getFeedback(), FeedbackResponse::getId));
+            users.addAll(ids(dashboard.getUsers(), user -> (Long) user.get("id")));
+        }
+
+        assertThat(items).containsExactlyElementsOf(itemIds);
+        assertThat(claims).containsExactlyElementsOf(claimIds);
+        assertThat(feedback).containsExactlyElementsOf(feedbackIds);
+        assertThat(users).containsExactlyElementsOf(userIds.stream().sorted().toList());
+    }
+
+    private static <T> List<Long> ids(List<T> rows, Function<T, Long> id) {
+        return rows.stream().map(id).toList();
+    }
+
+    private User saveUser(String name, User.Role role) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("password");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    @TestConfiguration
+    static class ItemServiceConfig {
+
+        @Bean
+        ItemService itemService(ItemRepository itemRepository, UserRepository userRepository,
+                                ClaimRepository claimRepository, MessageRepository messageRepository,
+                                ConversationSummaryRepository conversationSummaryRepository,
+                                ConversationRepository conversationRepository,
+                                ItemMatchRepository itemMatchRepository) {
+            return new ItemService(itemRepository, userRepository, claimRepository, messageRepository,
+                    conversationSummaryRepository, conversationRepository, mock(UnreadMessageCounter.class),
+                    itemMatchRepository, mock(FileStorageService.class), mock(ItemSearchIndex.class),
+                    mock(ItemResponseCache.class), mock(ImageHashIndex.class), mock(ThumbnailService.class),
+                    mock(ApplicationEventPublisher.class));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.lostandfound.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.lostandfound.model.Feedback;
+import com.lostandfound.model.Item;
+import com.lostandfound.model.User;
+import com.lostandfound.service.AdminExportService.ExportFormat;
+import com.lostandfound.service.AdminExportService.ExportType;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Exports read through their own stateless session, so the fixture is committed first.
+ */
+@DataJpaTest
+class AdminExportServiceTest {
+
+    private static final int ITEMS = 7;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private AdminExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+        exportService = new AdminExportService(entityManagerFactory, objectMapper);
+        // Smaller than the row count so the cursor crosses several fetches
+        ReflectionTestUtils.setField(exportService, "fetchSize", 3);
+
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner-" + System.nanoTime() + "@example.com");
+        owner.setPassword("password");
+        entityManager.persist(owner);
+
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = new Item();
+            item.setName("Item " + i);
+            item.setDescription(i == 0 ? "Black, \"leather\" wallet" : "Description");
+            item.setLocation(i == 1 ? "=HYPERLINK(\"http://example.com\",\"Library\")" : "Library");
+            item.setStatus(Item.Status.FOUND);
+            item.setCreatedBy(owner);
+            entityManager.persist(item);
+        }
+
+        Feedback feedback = new Feedback();
+        feedback.setUser(owner);
+        feedback.setFeedbackText("Line one\nline two");
+        entityManager.persist(feedback);
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerRow() throws Exception {
+        String output = export(ExportType.ITEMS, ExportFormat.NDJSON);
+        List<String> lines = output.lines().toList();
+
+        assertThat(lines).hasSizeGreaterThanOrEqualTo(ITEMS);
+        ObjectMapper reader = new ObjectMapper();
+        for (String line : lines) {
+            assertThat(reader.readTree(line).fieldNames()).toIterable()
+                    .containsExactly("id", "name", "description", "location", "status", "image",
+                            "createdBy", "creatorName", "createdAt");
+        }
+        assertThat(output).contains("\"creatorName\":\"Owner\"", "\"status\":\"FOUND\"");
+    }
+
+    @Test
+    void csvQuotesFieldsThatNeedIt() throws Exception {
+        String items = export(ExportType.ITEMS, ExportFormat.CSV);
+        assertThat(items).startsWith("id,name,description,location,status,image,createdBy,creatorName,createdAt\r\n");
+        assertThat(items).contains(",\"Black, \"\"leather\"\" wallet\",");
+
+        String feedback = export(ExportType.FEEDBACK, ExportFormat.CSV);
+        assertThat(feedback).contains("\"Line one\nline two\"");
+    }
+
+    @Test
+    void csvKeepsFormulasAsText() throws Exception {
+        String items = export(ExportType.ITEMS, ExportFormat.CSV);
+        assertThat(items).contains(",\"'=HYPERLINK(\"\"http://example.com\"\",\"\"Library\"\")\",");
+
+        String feedback = export(ExportType.FEEDBACK, ExportFormat.CSV);
+        assertThat(feedback).doesNotContain("'");
+    }
+
+    @Test
+    void failedWriteRollsBackAndLeavesTheServiceUsable() throws Exception {
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> exportService.export(ExportType.ITEMS, ExportFormat.NDJSON, broken))
+                .isInstanceOf(IOException.class);
+        assertThat(export(ExportType.ITEMS, ExportFormat.NDJSON).lines()).hasSizeGreaterThanOrEqualTo(ITEMS);
+    }
+
+    private String export(ExportType type, ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(type, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
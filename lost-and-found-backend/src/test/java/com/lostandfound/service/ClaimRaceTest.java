@@ -0,0 +1,140 @@
+package com.lostandfound.service;
+
+import com.lostandfound.exception.BadRequestException;
+import com.lostandfound.model.Item;
+import com.lostandfound.model.User;
+import com.lostandfound.repository.ClaimRepository;
+import com.lostandfound.repository.ItemRepository;
+import com.lostandfound.repository.UserRepository;
+import com.lostandfound.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Claims in committed transactions: the conditional status update lets exactly one
+ * claimant through, and a rejected claim leaves the item as it was.
+ */
+@DataJpaTest
+@Import(ClaimService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClaimRaceTest {
+
+    private static final int CLAIMANTS = 8;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private ClaimService claimService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ClaimRepository claimRepository;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(CLAIMANTS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void exactlyOneConcurrentClaimSucceeds() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            String suffix = round + "-" + System.nanoTime();
+            Item item = saveItem(saveUser("owner" + suffix));
+
+            CyclicBarrier start = new CyclicBarrier(CLAIMANTS);
+            List<Future<?>> claims = new ArrayList<>();
+            for (int i = 0; i < CLAIMANTS; i++) {
+                User claimant = saveUser("claimant" + i + "-" + suffix);
+                claims.add(executor.submit(() -> {
+                    start.await(5, TimeUnit.SECONDS);
+                    return claimService.claimItem(item.getId(), UserPrincipal.create(claimant));
+                }));
+            }
+
+            int succeeded = 0;
+            for (Future<?> claim : claims) {
+                try {
+                    claim.get(10, TimeUnit.SECONDS);
+                    succeeded++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause())
+                            .isInstanceOf(BadRequestException.class)
+                            .hasMessageContaining("already been claimed");
+                }
+            }
+
+            assertThat(succeeded).isEqualTo(1);
+            Item claimed = itemRepository.findById(item.getId()).orElseThrow();
+            assertThat(claimed.getStatus()).isEqualTo(Item.Status.CLAIMED);
+            assertThat(claimRepository.findByItem(claimed)).hasSize(1);
+        }
+    }
+
+    @Test
+    void duplicateClaimIsRejectedAndTheStatusChangeRolledBack() {
+        String suffix = String.valueOf(System.nanoTime());
+        Item item = saveItem(saveUser("owner" + suffix));
+        UserPrincipal claimant = UserPrincipal.create(saveUser("claimant" + suffix));
+        claimService.claimItem(item.getId(), claimant);
+
+        // The item is reopened while the first claim stays on record
+        Item reopened = itemRepository.findById(item.getId()).orElseThrow();
+        reopened.setStatus(Item.Status.FOUND);
+        itemRepository.save(reopened);
+
+        assertThatThrownBy(() -> claimService.claimItem(item.getId(), claimant))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("already submitted a claim");
+
+        Item after = itemRepository.findById(item.getId()).orElseThrow();
+        assertThat(after.getStatus()).isEqualTo(Item.Status.FOUND);
+        assertThat(claimRepository.findByItem(after)).hasSize(1);
+    }
+
+    private Item saveItem(User owner) {
+        Item item = new Item();
+        item.setName("Wallet");
+        item.setDescription("Brown leather");
+        item.setLocation("Library");
+        item.setStatus(Item.Status.FOUND);
+        item.setCreatedBy(owner);
+        return itemRepository.save(item);
+    }
+
+    private User saveUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,124 @@
+package com.lostandfound.service;
+
+import com.lostandfound.dto.request.MessageRequest;
+import com.lostandfound.model.Item;
+import com.lostandfound.model.User;
+import com.lostandfound.repository.ConversationRepository;
+import com.lostandfound.repository.ConversationSummaryRepository;
+import com.lostandfound.repository.ItemRepository;
+import com.lostandfound.repository.UserRepository;
+import com.lostandfound.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * First messages between two users about an item, sent at the same moment from both
+ * sides, in committed transactions on separate threads.
+ */
+@DataJpaTest
+@Import({MessageService.class, ConversationService.class, UnreadMessageCounter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ConversationRaceTest {
+
+    private static final int SENDERS = 8;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(SENDERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentFirstMessagesShareOneConversation() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            String suffix = round + "-" + System.nanoTime();
+            User owner = saveUser("owner" + suffix);
+            User finder = saveUser("finder" + suffix);
+            Item item = saveItem(owner);
+
+            CyclicBarrier start = new CyclicBarrier(SENDERS);
+            List<Future<?>> sends = new ArrayList<>();
+            for (int i = 0; i < SENDERS; i++) {
+                // Both directions map to the same conversation
+                User sender = i % 2 == 0 ? finder : owner;
+                User receiver = sender == finder ? owner : finder;
+                MessageRequest request = new MessageRequest();
+                request.setReceiverId(receiver.getId());
+                request.setItemId(item.getId());
+                request.setMessage("Hello " + i);
+                sends.add(executor.submit(() -> {
+                    start.await(5, TimeUnit.SECONDS);
+                    return messageService.sendMessage(request, UserPrincipal.create(sender));
+                }));
+            }
+            for (Future<?> send : sends) {
+                send.get(10, TimeUnit.SECONDS);
+            }
+
+            Long low = Math.min(owner.getId(), finder.getId());
+            Long high = Math.max(owner.getId(), finder.getId());
+            Long conversationId = conversationRepository.findByItemAndUsers(item.getId(), low, high)
+                    .orElseThrow().getId();
+            assertThat(conversationSummaryRepository.findByConversationAndUser(conversationId, owner.getId())
+                    .orElseThrow().getUnreadCount()).isEqualTo(SENDERS / 2);
+            assertThat(conversationSummaryRepository.findByConversationAndUser(conversationId, finder.getId())
+                    .orElseThrow().getUnreadCount()).isEqualTo(SENDERS / 2);
+        }
+    }
+
+    private Item saveItem(User owner) {
+        Item item = new Item();
+        item.setName("Wallet");
+        item.setDescription("Brown leather");
+        item.setLocation("Library");
+        item.setStatus(Item.Status.FOUND);
+        item.setCreatedBy(owner);
+        return itemRepository.save(item);
+    }
+
+    private User saveUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+}
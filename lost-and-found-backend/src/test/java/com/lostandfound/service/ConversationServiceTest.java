@@ -0,0 +1,173 @@
+package com.lostandfound.service;
+
+import com.lostandfound.model.Conversation;
+import com.lostandfound.model.ConversationSummary;
+import com.lostandfound.model.Item;
+import com.lostandfound.model.Message;
+import com.lostandfound.model.User;
+import com.lostandfound.repository.ConversationSummaryRepository;
+import com.lostandfound.repository.MessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({ConversationService.class, UnreadMessageCounter.class})
+class ConversationServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ConversationService conversationService;
+
+    @Autowired
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    private User owner;
+    private User finder;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = persistUser("owner");
+        finder = persistUser("finder");
+        item = new Item();
+        item.setName("Wallet");
+        item.setDescription("Brown leather");
+        item.setLocation("Library");
+        item.setStatus(Item.Status.FOUND);
+        item.setCreatedBy(owner);
+        entityManager.persist(item);
+    }
+
+    @Test
+    void bothDirectionsShareOneConversation() {
+        Conversation first = conversationService.conversationFor(item, finder, owner);
+        Conversation second = conversationService.conversationFor(item, owner, finder);
+
+        assertThat(second.getId()).isEqualTo(first.getId());
+        assertThat(conversationSummaryRepository.count()).isEqualTo(2);
+        // Not in either inbox until a message is sent
+        assertThat(conversationSummaryRepository.findInboxFirstPage(owner.getId(), PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void summaryTracksLatestMessageAndUnreadCount() {
+        Message question = send(finder, owner, "Is this mine?");
+        send(finder, owner, "It has my initials inside");
+        Long conversationId = question.getConversation().getId();
+
+        ConversationSummary ownerRow = inbox(owner).get(0);
+        assertThat(ownerRow.getLastMessage()).isEqualTo("It has my initials inside");
+        assertThat(ownerRow.getLastSenderId()).isEqualTo(finder.getId());
+        assertThat(ownerRow.getUnreadCount()).isEqualTo(2);
+        assertThat(ownerRow.getOtherUser().getId()).isEqualTo(finder.getId());
+        assertThat(inbox(finder).get(0).getUnreadCount()).isZero();
+
+        conversationService.markRead(conversationId, owner.getId());
+        Message reply = send(owner, finder, "x".repeat(400));
+
+        ownerRow = inbox(owner).get(0);
+        assertThat(ownerRow.getUnreadCount()).isZero();
+        assertThat(ownerRow.getLastMessage()).hasSize(ConversationSummary.PREVIEW_LENGTH).endsWith("...");
+        assertThat(inbox(finder).get(0).getUnreadCount()).isEqualTo(1);
+
+        messageRepository.delete(reply);
+        conversationService.messageDeleted(conversationId);
+        assertThat(inbox(owner).get(0).getLastMessage()).isEqualTo("It has my initials inside");
+    }
+
+    @Test
+    void laterMessageWinsEvenWithALowerId() {
+        Message sent = send(finder, owner, "from the instance with the high id block");
+        Long conversationId = sent.getConversation().getId();
+        LocalDateTime sentAt = inbox(owner).get(0).getLastMessageAt();
+
+        // Another instance's block is lower, but its message is newer
+        conversationSummaryRepository.updateLastMessage(conversationId, sent.getId() - 40, "newer",
+                sentAt.plusSeconds(1), owner.getId());
+        // And an older message with a higher id must not replace it
+        conversationSummaryRepository.updateLastMessage(conversationId, sent.getId() + 40, "older",
+                sentAt.minusSeconds(1), finder.getId());
+
+        assertThat(inbox(owner).get(0).getLastMessage()).isEqualTo("newer");
+    }
+
+    @Test
+    void threadPagesFollowTheCursor() {
+        Message first = send(finder, owner, "one");
+        send(owner, finder, "two");
+        send(finder, owner, "three");
+        Long conversationId = first.getConversation().getId();
+
+        List<Message> page = messageRepository.findThreadFirstPage(conversationId, PageRequest.of(0, 2));
+        assertThat(page).extracting(Message::getMessage).containsExactly("three", "two");
+
+        Message last = page.get(1);
+        assertThat(messageRepository.findThreadPageAfter(conversationId, last.getSentAt(), last.getId(),
+                PageRequest.of(0, 2))).extracting(Message::getMessage).containsExactly("one");
+    }
+
+    @Test
+    void backfillGroupsExistingMessagesAsRead() {
+        for (String text : List.of("old question", "old answer")) {
+            Message message = new Message();
+            message.setSender(text.endsWith("question") ? finder : owner);
+            message.setReceiver(text.endsWith("question") ? owner : finder);
+            message.setItem(item);
+            message.setMessage(text);
+            entityManager.persist(message);
+        }
+        entityManager.flush();
+
+        conversationService.backfill();
+
+        ConversationSummary finderRow = inbox(finder).get(0);
+        assertThat(finderRow.getLastMessage()).isEqualTo("old answer");
+        assertThat(finderRow.getUnreadCount()).isZero();
+        assertThat(messageRepository.findWithoutConversationAfter(0L, PageRequest.of(0, 10))).isEmpty();
+        assertThat(messageRepository.countUnread(finder.getId())).isZero();
+    }
+
+    private Message send(User sender, User receiver, String text) {
+        Message message = new Message();
+        message.setSender(sender);
+        message.setReceiver(receiver);
+        message.setItem(item);
+        message.setMessage(text);
+        message.setConversation(conversationService.conversationFor(item, sender, receiver));
+        messageRepository.save(message);
+        conversationService.messageSent(message);
+        return message;
+    }
+
+    private List<ConversationSummary> inbox(User user) {
+        entityManager.clear();
+        List<ConversationSummary> rows = conversationSummaryRepository.findInboxPageAfter(user.getId(),
+                LocalDateTime.now().plusDays(1), Long.MAX_VALUE, PageRequest.of(0, 10));
+        assertThat(rows).isEqualTo(conversationSummaryRepository.findInboxFirstPage(user.getId(), PageRequest.of(0, 10)));
+        assertThat(rows).hasSize(1);
+        return rows;
+    }
+
+    private User persistUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("password");
+        return entityManager.persist(user);
+    }
+}
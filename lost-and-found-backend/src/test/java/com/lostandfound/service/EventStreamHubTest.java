@@ -0,0 +1,176 @@
+package com.lostandfound.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lostandfound.event.SecurityEpochBumpedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class EventStreamHubTest {
+
+    private static final int WRITER_THREADS = 2;
+
+    private EventStreamHub hub;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        hub = new EventStreamHub(new ObjectMapper(), mock(ObjectProvider.class));
+        ReflectionTestUtils.setField(hub, "queueCapacity", 4);
+        ReflectionTestUtils.setField(hub, "maxConnectionsPerUser", 2);
+        ReflectionTestUtils.setField(hub, "timeout", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(hub, "heartbeat", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(hub, "writerThreads", WRITER_THREADS);
+        hub.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.stop();
+    }
+
+    @Test
+    void idleConnectionsHoldNoThreads() throws Exception {
+        int threadsBefore = Thread.activeCount();
+
+        for (long user = 0; user < 10_000; user++) {
+            hub.register(user, new SseEmitter());
+        }
+        RecordingEmitter watched = new RecordingEmitter();
+        hub.register(42L, watched);
+
+        assertThat(hub.connectionCount()).isEqualTo(10_001);
+        assertThat(Thread.activeCount() - threadsBefore).isLessThanOrEqualTo(WRITER_THREADS + 1);
+
+        hub.publish(42L, "message", Map.of("id", 7));
+        eventually(() ->
+                assertThat(watched.text()).contains("event:connected").contains("event:message\ndata:{\"id\":7}"));
+    }
+
+    @Test
+    void slowClientDropsEventsInsteadOfBlockingPublishers() throws Exception {
+        BlockingEmitter stuck = new BlockingEmitter();
+        RecordingEmitter other = new RecordingEmitter();
+        hub.register(1L, stuck);
+        hub.register(2L, other);
+        assertThat(stuck.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 10; i++) {
+            hub.publish(1L, "message", Map.of("id", i));
+        }
+        hub.publish(2L, "claim", Map.of("id", 1));
+
+        // The writer is stuck on "connected"; four events fit in the queue
+        assertThat(hub.droppedCount()).isEqualTo(6);
+        eventually(() -> assertThat(other.text()).contains("event:claim"));
+        stuck.release.countDown();
+    }
+
+    @Test
+    void oldestStreamIsClosedPastTheLimitAndClosedStreamsAreForgotten() throws Exception {
+        hub.register(1L, new SseEmitter());
+        hub.register(1L, new SseEmitter());
+        hub.register(1L, new SseEmitter());
+        assertThat(hub.connectionCount()).isEqualTo(2);
+
+        RecordingEmitter failing = new RecordingEmitter();
+        failing.failing = true;
+        hub.register(3L, failing);
+        eventually(() -> assertThat(hub.connectionCount()).isEqualTo(2));
+
+        // No streams open: nothing to serialize or queue
+        hub.publish(99L, "message", Map.of("id", 1));
+        assertThat(hub.droppedCount()).isZero();
+    }
+
+    @Test
+    void revokingTokensClosesTheUsersStreams() throws Exception {
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        RecordingEmitter otherUser = new RecordingEmitter();
+        hub.register(1L, first);
+        hub.register(1L, second);
+        hub.register(2L, otherUser);
+
+        hub.onSecurityEpochBumped(new SecurityEpochBumpedEvent(1L));
+
+        assertThat(first.completed).isTrue();
+        assertThat(second.completed).isTrue();
+        assertThat(hub.connectionCount()).isEqualTo(1);
+        hub.publish(2L, "message", Map.of("id", 1));
+        eventually(() -> assertThat(otherUser.text()).contains("event:message"));
+    }
+
+    private static void eventually(Runnable assertion) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                assertion.run();
+                return;
+            } catch (AssertionError e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private volatile boolean failing;
+        private volatile boolean completed;
+
+        @Override
+        public void complete() {
+            completed = true;
+            super.complete();
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            sent.add(builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .map(Object::toString)
+                    .collect(Collectors.joining()));
+        }
+
+        String text() {
+            return String.join("", sent);
+        }
+    }
+
+    private static class BlockingEmitter extends SseEmitter {
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
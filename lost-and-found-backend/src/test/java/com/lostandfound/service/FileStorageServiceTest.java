@@ -0,0 +1,169 @@
+package com.lostandfound.service;
+
+import com.lostandfound.config.FileStorageProperties;
+import com.lostandfound.config.FileStorageProperties.StorageMode;
+import com.lostandfound.model.StoredFile;
+import com.lostandfound.repository.StoredFileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({FileStorageService.class, FileStorageProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FileStorageServiceTest {
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private FileStorageProperties fileStorageProperties;
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path uploadDir;
+
+    @BeforeEach
+    void setUp() {
+        storedFileRepository.deleteAll();
+        fileStorageProperties.setUploadDir(uploadDir.toString());
+        fileStorageProperties.setStorageMode(StorageMode.CONTENT_ADDRESSED);
+    }
+
+    @Test
+    void identicalUploadsShareOneFileUntilTheLastReferenceIsGone() throws Exception {
+        String first = fileStorageService.storeFile(image("wallet.JPG", "same bytes"));
+        String second = fileStorageService.storeFile(image("copy.jpg", "same bytes"));
+
+        assertThat(first).isEqualTo(second).matches("uploads/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.jpg");
+        assertThat(first.substring(8, 10) + first.substring(11, 13)).isEqualTo(first.substring(14, 18));
+        Path stored = fileStorageService.resolveStoredFile(first).orElseThrow();
+        assertThat(stored).hasContent("same bytes");
+        assertThat(storedFileRepository.findAll()).singleElement()
+                .extracting(StoredFile::getRefCount).isEqualTo(2);
+
+        fileStorageService.deleteFile(first);
+        assertThat(stored).exists();
+
+        fileStorageService.deleteFile(second);
+        assertThat(stored).doesNotExist();
+        assertThat(storedFileRepository.count()).isZero();
+        try (Stream<Path> temp = Files.list(uploadDir.resolve(".tmp"))) {
+            assertThat(temp).isEmpty();
+        }
+    }
+
+    @Test
+    void concurrentFirstUploadsOfTheSameBytesAllSucceed() throws Exception {
+        int uploaders = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(uploaders);
+        try {
+            CyclicBarrier start = new CyclicBarrier(uploaders);
+            List<Future<String>> uploads = new ArrayList<>();
+            for (int i = 0; i < uploaders; i++) {
+                MockMultipartFile file = image("photo" + i + ".jpg", "racing bytes");
+                uploads.add(executor.submit(() -> {
+                    start.await(5, TimeUnit.SECONDS);
+                    return fileStorageService.storeFile(file);
+                }));
+            }
+            Set<String> paths = new HashSet<>();
+            for (Future<String> upload : uploads) {
+                paths.add(upload.get(10, TimeUnit.SECONDS));
+            }
+
+            assertThat(paths).hasSize(1);
+            assertThat(fileStorageService.resolveStoredFile(paths.iterator().next()).orElseThrow())
+                    .hasContent("racing bytes");
+            assertThat(storedFileRepository.findAll()).singleElement()
+                    .extracting(StoredFile::getRefCount).isEqualTo(uploaders);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rolledBackFirstUploadLeavesNoRowOrFile() throws Exception {
+        String path = storeAndRollBack(image("wallet.jpg", "rolled back bytes"));
+
+        assertThat(fileStorageService.resolveStoredFile(path).orElseThrow()).doesNotExist();
+        assertThat(storedFileRepository.count()).isZero();
+    }
+
+    @Test
+    void rolledBackUploadKeepsContentOthersReference() throws Exception {
+        String kept = fileStorageService.storeFile(image("wallet.jpg", "shared bytes"));
+
+        String path = storeAndRollBack(image("copy.jpg", "shared bytes"));
+
+        assertThat(path).isEqualTo(kept);
+        assertThat(fileStorageService.resolveStoredFile(kept).orElseThrow()).hasContent("shared bytes");
+        assertThat(storedFileRepository.findAll()).singleElement()
+                .extracting(StoredFile::getRefCount).isEqualTo(1);
+    }
+
+    @Test
+    void flatUploadMovesIntoTheStore() throws Exception {
+        fileStorageProperties.setStorageMode(StorageMode.FLAT);
+        String flat = fileStorageService.storeFile(image("keys.png", "keys"));
+        assertThat(fileStorageService.isContentAddressed(flat)).isFalse();
+
+        fileStorageProperties.setStorageMode(StorageMode.CONTENT_ADDRESSED);
+        String migrated = fileStorageService.storeExistingFile(flat).orElseThrow();
+        fileStorageService.deleteFile(flat);
+
+        assertThat(fileStorageService.isContentAddressed(migrated)).isTrue();
+        assertThat(migrated).isEqualTo(fileStorageService.storeFile(image("again.png", "keys")));
+        assertThat(fileStorageService.resolveStoredFile(flat).orElseThrow()).doesNotExist();
+        assertThat(fileStorageService.resolveStoredFile(migrated).orElseThrow()).hasContent("keys");
+    }
+
+    @Test
+    void rejectsPathsOutsideTheStore() {
+        assertThat(fileStorageService.resolveStoredFile("uploads/../secret")).isEmpty();
+        assertThat(fileStorageService.resolveStoredFile("uploads/ab/cd/file.jpg")).isEmpty();
+        assertThat(fileStorageService.resolveStoredFile("uploads/ab/cd/" + "0".repeat(64))).isEmpty();
+    }
+
+    private String storeAndRollBack(MockMultipartFile file) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            String path = fileStorageService.storeFile(file);
+            // As when the item save after the upload fails
+            status.setRollbackOnly();
+            return path;
+        });
+    }
+
+    private static MockMultipartFile image(String name, String content) {
+        return new MockMultipartFile("image", name, "image/jpeg", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,133 @@
+package com.lostandfound.service;
+
+import com.lostandfound.event.ItemChangedEvent;
+import com.lostandfound.repository.ItemRepository;
+import com.lostandfound.util.ImageHash;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.imageio.ImageIO;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImageHashIndexTest {
+
+    private ItemRepository itemRepository;
+    private ImageHashIndex index;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        index = new ImageHashIndex(itemRepository, mock(FileStorageService.class), mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(index, "maxDistance", 10);
+        ReflectionTestUtils.setField(index, "duplicateDistance", 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.stop();
+    }
+
+    @Test
+    void resizedCopyHashesCloseToOriginal() {
+        BufferedImage original = gradient(640, 480, Color.BLACK, Color.WHITE);
+        long hash = ImageHash.dHash(original);
+
+        assertThat(ImageHash.distance(hash, ImageHash.dHash(scale(original, 160, 120)))).isLessThanOrEqualTo(4);
+        assertThat(ImageHash.distance(hash, ImageHash.dHash(noise(640, 480, 7)))).isGreaterThan(10);
+    }
+
+    @Test
+    void streamIsDecodedSubsampledAndCappedByPixels() throws IOException {
+        BufferedImage photo = gradient(2000, 1500, Color.BLUE, Color.YELLOW);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(photo, "png", png);
+
+        Optional<Long> hash = ImageHash.dHash(new ByteArrayInputStream(png.toByteArray()), 50_000_000);
+        assertThat(hash).isPresent();
+        assertThat(ImageHash.distance(hash.get(), ImageHash.dHash(photo))).isLessThanOrEqualTo(4);
+
+        assertThat(ImageHash.dHash(new ByteArrayInputStream(png.toByteArray()), 2000 * 1500 - 1)).isEmpty();
+        assertThat(ImageHash.dHash(new ByteArrayInputStream("not an image".getBytes()), 50_000_000)).isEmpty();
+    }
+
+    @Test
+    void lookupReturnsOnlyHashesWithinDistanceClosestFirst() {
+        long base = 0x0F0F_0F0F_0F0F_0F0FL;
+        when(itemRepository.findAllImageHashes()).thenReturn(List.of(
+                new Object[]{1L, base},
+                new Object[]{2L, base ^ 0b111L},
+                new Object[]{3L, base ^ 0xFFFFL},
+                new Object[]{4L, ~base},
+                new Object[]{5L, base}));
+        index.start();
+
+        List<ImageHashIndex.Similar> similar = index.findSimilar(base);
+
+        assertThat(similar).extracting(ImageHashIndex.Similar::itemId).containsExactly(1L, 5L, 2L);
+        assertThat(similar).extracting(ImageHashIndex.Similar::distance).containsExactly(0, 0, 3);
+        assertThat(index.findSimilar(base, 16)).extracting(ImageHashIndex.Similar::itemId)
+                .containsExactly(1L, 5L, 2L, 3L);
+        assertThat(index.isNearDuplicate(3)).isTrue();
+        assertThat(index.isNearDuplicate(5)).isFalse();
+    }
+
+    @Test
+    void deletedItemsDropOutOfResults() {
+        long base = 0x1234_5678_9ABC_DEF0L;
+        when(itemRepository.findAllImageHashes()).thenReturn(List.of(
+                new Object[]{1L, base},
+                new Object[]{2L, base ^ 1L}));
+        index.start();
+
+        index.onItemChanged(new ItemChangedEvent(1L, ItemChangedEvent.Type.DELETED));
+
+        assertThat(index.findSimilar(base)).extracting(ImageHashIndex.Similar::itemId).containsExactly(2L);
+    }
+
+    private static BufferedImage gradient(int width, int height, Color from, Color to) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, from, width, height / 3f, to, true));
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.RED);
+        graphics.fillOval(width / 4, height / 4, width / 3, height / 2);
+        graphics.dispose();
+        return image;
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.drawImage(source, 0, 0, width, height, null);
+        graphics.dispose();
+        return image;
+    }
+
+    private static BufferedImage noise(int width, int height, long seed) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        return image;
+    }
+}
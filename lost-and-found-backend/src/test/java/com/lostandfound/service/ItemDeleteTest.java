@@ -0,0 +1,175 @@
+package com.lostandfound.service;
+
+import com.lostandfound.model.Claim;
+import com.lostandfound.model.Item;
+import com.lostandfound.model.Message;
+import com.lostandfound.model.User;
+import com.lostandfound.repository.ClaimRepository;
+import com.lostandfound.repository.ConversationRepository;
+import com.lostandfound.repository.ConversationSummaryRepository;
+import com.lostandfound.repository.ItemMatchRepository;
+import com.lostandfound.repository.ItemRepository;
+import com.lostandfound.repository.MessageRepository;
+import com.lostandfound.repository.UserRepository;
+import com.lostandfound.security.UserPrincipal;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Deleting an item costs the same handful of statements however many messages
+ * other items have, so delete latency does not grow with the messages table.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ItemDeleteTest {
+
+    // Load item and user, delete claims, count unread messages, delete messages,
+    // conversation summaries, conversations, matches, item
+    private static final long DELETE_STATEMENTS = 9;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ClaimRepository claimRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private ItemMatchRepository itemMatchRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Statistics statistics;
+    private UnreadMessageCounter unreadMessageCounter;
+    private ItemService itemService;
+    private User owner;
+    private User finder;
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        unreadMessageCounter = mock(UnreadMessageCounter.class);
+        itemService = new ItemService(itemRepository, userRepository, claimRepository, messageRepository,
+                conversationSummaryRepository, conversationRepository, unreadMessageCounter, itemMatchRepository,
+                mock(FileStorageService.class), mock(ItemSearchIndex.class), mock(ItemResponseCache.class),
+                mock(ImageHashIndex.class), mock(ThumbnailService.class), mock(ApplicationEventPublisher.class));
+        owner = persistUser("owner", User.Role.USER);
+        finder = persistUser("finder", User.Role.USER);
+        admin = persistUser("admin", User.Role.ADMIN);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 1000})
+    void ownerDeleteCostDoesNotDependOnOtherMessages(int otherMessages) {
+        Item target = prepare(otherMessages);
+
+        itemService.deleteItem(target.getId(), UserPrincipal.create(owner));
+        entityManager.flush();
+
+        assertDeleted(target, otherMessages);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 1000})
+    void adminDeleteCostDoesNotDependOnOtherMessages(int otherMessages) {
+        Item target = prepare(otherMessages);
+
+        itemService.deleteItemAsAdmin(target.getId(), UserPrincipal.create(admin));
+        entityManager.flush();
+
+        assertDeleted(target, otherMessages);
+    }
+
+    private Item prepare(int otherMessages) {
+        Item target = persistItem("Target");
+        persistClaim(target);
+        for (int i = 0; i < 3; i++) {
+            persistMessage(target);
+        }
+
+        Item other = persistItem("Other");
+        persistClaim(other);
+        for (int i = 0; i < otherMessages; i++) {
+            persistMessage(other);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        return target;
+    }
+
+    private void assertDeleted(Item target, int otherMessages) {
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(DELETE_STATEMENTS);
+        // The item and the acting user; the item's owner stays a proxy
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(2);
+        verify(unreadMessageCounter).adjustAfterCommit(owner.getId(), -3L);
+
+        assertThat(itemRepository.existsById(target.getId())).isFalse();
+        assertThat(messageRepository.count()).isEqualTo(otherMessages);
+        assertThat(claimRepository.count()).isEqualTo(1);
+    }
+
+    private Item persistItem(String name) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription("Description");
+        item.setLocation("Library");
+        item.setStatus(Item.Status.FOUND);
+        item.setCreatedBy(owner);
+        return entityManager.persist(item);
+    }
+
+    private void persistClaim(Item item) {
+        Claim claim = new Claim();
+        claim.setItem(item);
+        claim.setClaimedBy(finder);
+        claim.setClaimantName(finder.getName());
+        claim.setClaimantEmail(finder.getEmail());
+        entityManager.persist(claim);
+    }
+
+    private void persistMessage(Item item) {
+        Message message = new Message();
+        message.setSender(finder);
+        message.setReceiver(owner);
+        message.setItem(item);
+        message.setMessage("Is this mine?");
+        entityManager.persist(message);
+    }
+
+    private User persistUser(String name, User.Role role) {
+        User user = new User();
+        user.setName(name);
+        user.setRole(role);
+        user.setEmail(name + "@example.com");
+        user.setPassword("password");
+        return entityManager.persist(user);
+    }
+}
@@ -0,0 +1,136 @@
+package com.lostandfound.service;
+
+import com.lostandfound.event.ItemChangedEvent;
+import com.lostandfound.model.Item;
+import com.lostandfound.model.ItemMatch;
+import com.lostandfound.model.User;
+import com.lostandfound.repository.ItemMatchRepository;
+import com.lostandfound.repository.ItemRepository;
+import com.lostandfound.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The engine works on committed data from its own thread, so the test runs without a
+ * surrounding transaction and polls for the stored matches.
+ */
+@DataJpaTest
+@Import(ItemMatchEngine.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ItemMatchEngineTest {
+
+    @Autowired
+    private ItemMatchEngine engine;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemMatchRepository itemMatchRepository;
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    @Test
+    void newLostItemIsMatchedToSimilarFoundItems() throws Exception {
+        User owner = itemOwner();
+        Item wallet = save(owner, "Black leather wallet", "Wallet with student id cards", "Library", Item.Status.FOUND);
+        Item umbrella = save(owner, "Blue umbrella", "Large umbrella", "Cafeteria", Item.Status.FOUND);
+        Item otherLost = save(owner, "Black wallet", "Leather wallet", "Library", Item.Status.LOST);
+
+        // Warm-up indexes the existing open items
+        engine.start();
+
+        Item lost = save(owner, "Wallet", "Black wallet with my id card", "Library", Item.Status.LOST);
+        engine.onItemChanged(new ItemChangedEvent(lost.getId(), ItemChangedEvent.Type.CREATED));
+
+        List<ItemMatch> matches = awaitMatches(lost.getId());
+        assertThat(matches).extracting(match -> match.getMatchedItem().getId())
+                .containsExactly(wallet.getId())
+                .doesNotContain(umbrella.getId(), otherLost.getId());
+        assertThat(matches.get(0).getScore()).isBetween(0.15, 1.0);
+
+        // Stored in both directions
+        assertThat(awaitMatches(wallet.getId())).extracting(match -> match.getMatchedItem().getId())
+                .containsExactly(lost.getId());
+    }
+
+    @Test
+    void rematchingAnItemKeepsItInOtherItemsLists() throws Exception {
+        ReflectionTestUtils.setField(engine, "topK", 1);
+        try {
+            User owner = itemOwner();
+            Item lost = save(owner, "Crimson suede purse", "Crimson suede", "Station", Item.Status.LOST);
+            engine.start();
+
+            Item plainPurse = save(owner, "Purse", "Found a purse", "Park", Item.Status.FOUND);
+            engine.onItemChanged(new ItemChangedEvent(plainPurse.getId(), ItemChangedEvent.Type.CREATED));
+            awaitMatches(plainPurse.getId());
+            Item samePurse = save(owner, "Crimson suede purse", "Crimson suede", "Station", Item.Status.FOUND);
+            engine.onItemChanged(new ItemChangedEvent(samePurse.getId(), ItemChangedEvent.Type.CREATED));
+            awaitMatches(samePurse.getId());
+
+            // Both purses named it, so the lost item holds two rows until it is rematched;
+            // its own top match is the closer purse
+            engine.onItemChanged(new ItemChangedEvent(lost.getId(), ItemChangedEvent.Type.UPDATED));
+            List<ItemMatch> lostMatches = List.of();
+            for (int attempt = 0; attempt < 50 && lostMatches.size() != 1; attempt++) {
+                Thread.sleep(100);
+                lostMatches = itemMatchRepository.findOpenMatches(lost.getId(), Item.Status.CLAIMED, PageRequest.of(0, 10));
+            }
+            assertThat(lostMatches).extracting(match -> match.getMatchedItem().getId())
+                    .containsExactly(samePurse.getId());
+
+            // ...but the plain purse still lists the lost item as its best candidate
+            assertThat(awaitMatches(plainPurse.getId())).extracting(match -> match.getMatchedItem().getId())
+                    .containsExactly(lost.getId());
+        } finally {
+            ReflectionTestUtils.setField(engine, "topK", 10);
+        }
+    }
+
+    private List<ItemMatch> awaitMatches(Long itemId) throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            List<ItemMatch> matches = itemMatchRepository.findOpenMatches(itemId, Item.Status.CLAIMED, PageRequest.of(0, 10));
+            if (!matches.isEmpty()) {
+                return matches;
+            }
+            Thread.sleep(100);
+        }
+        return List.of();
+    }
+
+    private User itemOwner() {
+        User user = new User();
+        user.setName("Owner");
+        user.setEmail("owner-" + System.nanoTime() + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+
+    private Item save(User owner, String name, String description, String location, Item.Status status) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(description);
+        item.setLocation(location);
+        item.setStatus(status);
+        item.setCreatedBy(owner);
+        return itemRepository.save(item);
+    }
+}
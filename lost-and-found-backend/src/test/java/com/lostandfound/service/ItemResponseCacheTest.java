@@ -0,0 +1,139 @@
+package com.lostandfound.service;
+
+import com.lostandfound.dto.response.ItemResponse;
+import com.lostandfound.event.ItemChangedEvent;
+import com.lostandfound.model.Item;
+import com.lostandfound.model.User;
+import com.lostandfound.repository.ClaimRepository;
+import com.lostandfound.repository.ConversationRepository;
+import com.lostandfound.repository.ConversationSummaryRepository;
+import com.lostandfound.repository.ItemMatchRepository;
+import com.lostandfound.repository.ItemRepository;
+import com.lostandfound.repository.MessageRepository;
+import com.lostandfound.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemResponseCacheTest {
+
+    private ItemResponseCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        cache = new ItemResponseCache(mock(ObjectProvider.class));
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(10));
+        cache.init();
+    }
+
+    @Test
+    void readsThroughOnce() {
+        AtomicInteger loads = new AtomicInteger();
+
+        ItemResponse first = cache.get(1L, id -> response(id, loads.incrementAndGet()));
+        ItemResponse second = cache.get(1L, id -> response(id, loads.incrementAndGet()));
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void itemChangeDropsTheEntry() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1L, id -> response(id, loads.incrementAndGet()));
+        cache.get(2L, id -> response(id, loads.incrementAndGet()));
+
+        cache.onItemChanged(new ItemChangedEvent(1L, ItemChangedEvent.Type.UPDATED));
+
+        assertThat(cache.get(1L, id -> response(id, loads.incrementAndGet())).getName()).isEqualTo("Version 3");
+        // Other items stay cached
+        assertThat(cache.get(2L, id -> response(id, loads.incrementAndGet())).getName()).isEqualTo("Version 2");
+    }
+
+    @Test
+    void changeDuringALoadIsNotLost() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ItemResponse> load = executor.submit(() -> cache.get(1L, id -> {
+                loading.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                // Read before the change committed
+                return response(id, 1);
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Future<?> change = executor.submit(() ->
+                    cache.onItemChanged(new ItemChangedEvent(1L, ItemChangedEvent.Type.UPDATED)));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThat(load.get(5, TimeUnit.SECONDS).getName()).isEqualTo("Version 1");
+            change.get(5, TimeUnit.SECONDS);
+
+            assertThat(cache.get(1L, id -> response(id, 2)).getName()).isEqualTo("Version 2");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void thumbnailsWrittenAfterTheFirstReadAreServed() {
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        ThumbnailService thumbnailService = mock(ThumbnailService.class);
+        ItemService itemService = new ItemService(itemRepository, mock(UserRepository.class),
+                mock(ClaimRepository.class), mock(MessageRepository.class), mock(ConversationSummaryRepository.class),
+                mock(ConversationRepository.class), mock(UnreadMessageCounter.class), mock(ItemMatchRepository.class),
+                mock(FileStorageService.class), mock(ItemSearchIndex.class), cache, mock(ImageHashIndex.class),
+                thumbnailService, mock(ApplicationEventPublisher.class));
+
+        User owner = new User();
+        owner.setId(7L);
+        owner.setName("Owner");
+        Item item = new Item();
+        item.setId(1L);
+        item.setName("Wallet");
+        item.setStatus(Item.Status.FOUND);
+        item.setImage("uploads/wallet.jpg");
+        item.setCreatedBy(owner);
+        when(itemRepository.findWithCreatorById(1L)).thenReturn(Optional.of(item));
+        when(thumbnailService.availableVariants("uploads/wallet.jpg"))
+                .thenReturn(Map.of())
+                .thenReturn(Map.of(300, "uploads/wallet_300.jpg"));
+
+        // Right after create, before the background thread wrote anything
+        assertThat(itemService.getItemById(1L).getThumbnails()).isEmpty();
+        assertThat(itemService.getItemById(1L).getThumbnails()).containsEntry(300, "uploads/wallet_300.jpg");
+        verify(itemRepository, times(1)).findWithCreatorById(1L);
+    }
+
+    private static ItemResponse response(Long id, int version) {
+        return ItemResponse.builder().id(id).name("Version " + version).build();
+    }
+}
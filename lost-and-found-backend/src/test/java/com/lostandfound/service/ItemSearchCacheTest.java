@@ -0,0 +1,143 @@
+package com.lostandfound.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.lostandfound.dto.response.ItemPageResponse;
+import com.lostandfound.dto.response.ItemResponse;
+import com.lostandfound.event.ItemChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemSearchCacheTest {
+
+    private static final int CALLERS = 8;
+
+    private ItemService itemService;
+    private ItemSearchCache cache;
+    private ExecutorService executor;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        itemService = mock(ItemService.class);
+        cache = new ItemSearchCache(itemService, mock(ObjectProvider.class));
+        ReflectionTestUtils.setField(cache, "maxItems", 1000L);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(1));
+        cache.init();
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesShareOneQuery() throws Exception {
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ItemPageResponse page = ItemPageResponse.builder().items(List.of()).build();
+        when(itemService.searchItemsPage(any(), any(), any(), anyInt(), anyBoolean())).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return page;
+        });
+
+        List<Future<ItemPageResponse>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            // Differently written but equivalent requests
+            String search = i % 2 == 0 ? "" : "  ";
+            String status = i % 2 == 0 ? "all" : "";
+            results.add(executor.submit(() -> cache.searchItemsPage(search, status, null, 50, false)));
+        }
+        assertThat(queryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<ItemPageResponse> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(page);
+        }
+        verify(itemService, times(1)).searchItemsPage(any(), any(), any(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    void itemChangeStartsANewGeneration() {
+        when(itemService.searchItemsPage(any(), any(), any(), anyInt(), anyBoolean()))
+                .thenAnswer(invocation -> ItemPageResponse.builder().items(List.of()).build());
+
+        ItemPageResponse first = cache.searchItemsPage("", "", null, 50, false);
+        assertThat(cache.searchItemsPage("", "", null, 50, false)).isSameAs(first);
+
+        cache.onItemChanged(new ItemChangedEvent(1L, ItemChangedEvent.Type.UPDATED));
+
+        assertThat(cache.searchItemsPage("", "", null, 50, false)).isNotSameAs(first);
+        verify(itemService, times(2)).searchItemsPage(any(), any(), any(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    void errorInTheQueryReleasesWaitersAndIsNotCached() throws Exception {
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ItemPageResponse page = ItemPageResponse.builder().items(List.of()).build();
+        when(itemService.searchItemsPage(any(), any(), any(), anyInt(), anyBoolean()))
+                .thenAnswer(invocation -> {
+                    queryStarted.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    throw new OutOfMemoryError("simulated");
+                })
+                .thenReturn(page);
+
+        Future<ItemPageResponse> first = executor.submit(() -> cache.searchItemsPage("", "", null, 50, false));
+        assertThat(queryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<ItemPageResponse> waiter = executor.submit(() -> cache.searchItemsPage("", "", null, 50, false));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(OutOfMemoryError.class);
+        assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(OutOfMemoryError.class);
+        assertThat(cache.searchItemsPage("", "", null, 50, false)).isSameAs(page);
+    }
+
+    @Test
+    void boundIsTheNumberOfCachedItems() {
+        ReflectionTestUtils.setField(cache, "maxItems", 250L);
+        cache.init();
+        List<ItemResponse> full = Collections.nCopies(100, ItemResponse.builder().id(1L).build());
+        when(itemService.searchItemsPage(any(), any(), any(), anyInt(), anyBoolean()))
+                .thenAnswer(invocation -> ItemPageResponse.builder().items(full).build());
+
+        for (int i = 0; i < 5; i++) {
+            cache.searchItemsPage("word" + i, "", null, 100, false);
+        }
+
+        Cache<?, ?> pages = ((AsyncCache<?, ?>) ReflectionTestUtils.getField(cache, "cache")).synchronous();
+        pages.cleanUp();
+        // Two full pages fit; a count bound of pages would have kept all five
+        assertThat(pages.estimatedSize()).isEqualTo(2);
+        assertThat(pages.policy().eviction().orElseThrow().weightedSize().orElseThrow()).isLessThanOrEqualTo(250);
+    }
+}
@@ -0,0 +1,206 @@
+package com.lostandfound.service;
+
+import com.lostandfound.event.ItemChangedEvent;
+import com.lostandfound.model.Item;
+import com.lostandfound.repository.ItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+
+    @TempDir
+    Path indexDir;
+
+    private final Map<Long, Item> items = new HashMap<>();
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(items.get(invocation.<Long>getArgument(0))));
+        when(itemRepository.findAll(any(Pageable.class))).thenAnswer(invocation -> {
+            List<Item> all = items.values().stream().sorted((a, b) -> a.getId().compareTo(b.getId())).toList();
+            return new PageImpl<>(all, PageRequest.of(0, Math.max(1, all.size())), all.size());
+        });
+
+        index = new ItemSearchIndex(itemRepository);
+        ReflectionTestUtils.setField(index, "searchEngine", "lucene");
+        ReflectionTestUtils.setField(index, "indexDir", indexDir.toString());
+        ReflectionTestUtils.setField(index, "maxResults", 1000);
+        index.open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.close();
+    }
+
+    @Test
+    void nameHitsRankAboveDescriptionHits() throws Exception {
+        changed(item(1L, "Umbrella", "Left next to a black wallet", "Cafeteria", Item.Status.FOUND));
+        changed(item(2L, "Black wallet", "Leather, student card inside", "Library", Item.Status.FOUND));
+        changed(item(3L, "Keys", "Three keys on a ring", "Gym", Item.Status.FOUND));
+
+        assertThat(index.search("wallet", null)).containsExactly(2L, 1L);
+        // The last term is a prefix, so partial input already matches
+        assertThat(index.search("bla", null)).containsExactly(2L, 1L);
+        assertThat(index.count("wallet", null)).isEqualTo(2);
+    }
+
+    @Test
+    void statusFilterOnlyReturnsThatStatus() throws Exception {
+        changed(item(1L, "Blue phone", "Cracked screen", "Library", Item.Status.LOST));
+        changed(item(2L, "Black phone", "With a case", "Library", Item.Status.FOUND));
+
+        assertThat(index.search("phone", Item.Status.FOUND)).containsExactly(2L);
+        assertThat(index.search("phone", Item.Status.LOST)).containsExactly(1L);
+        assertThat(index.search("phone", Item.Status.CLAIMED)).isEmpty();
+    }
+
+    @Test
+    void updateReplacesTheDocumentAndDeleteRemovesIt() throws Exception {
+        changed(item(1L, "Red scarf", "Wool", "Hall A", Item.Status.FOUND));
+        assertThat(index.search("scarf", null)).containsExactly(1L);
+
+        changed(item(1L, "Red hat", "Wool", "Hall A", Item.Status.CLAIMED));
+        assertThat(index.search("scarf", null)).isEmpty();
+        assertThat(index.search("hat", null)).containsExactly(1L);
+        assertThat(index.search("hat", Item.Status.FOUND)).isEmpty();
+
+        items.remove(1L);
+        index.onItemChanged(new ItemChangedEvent(1L, ItemChangedEvent.Type.DELETED));
+        assertThat(index.search("hat", null)).isEmpty();
+    }
+
+    @Test
+    void rebuildReplacesTheIndexWithTheDatabase() throws Exception {
+        changed(item(1L, "Laptop", "Grey", "Lab", Item.Status.FOUND));
+        items.clear();
+        items.put(2L, item(2L, "Laptop charger", "USB-C", "Lab", Item.Status.FOUND));
+        items.put(3L, item(3L, "Laptop sleeve", "Black", "Lab", Item.Status.LOST));
+
+        assertThat(index.rebuild()).isEqualTo(2);
+        assertThat(index.search("laptop", null)).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    void updatesDuringRebuildNeverDuplicateAnItem() throws Exception {
+        for (long id = 1; id <= 200; id++) {
+            items.put(id, item(id, "Notebook " + id, "Spiral", "Library", Item.Status.FOUND));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            running.add(executor.submit(() -> {
+                for (int i = 0; i < 5; i++) {
+                    index.rebuild();
+                }
+            }));
+            running.add(executor.submit(() -> {
+                for (int round = 0; round < 5; round++) {
+                    for (long id = 1; id <= 200; id++) {
+                        index.onItemChanged(new ItemChangedEvent(id, ItemChangedEvent.Type.UPDATED));
+                    }
+                }
+            }));
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Long> hits = index.search("notebook", null);
+        assertThat(hits).hasSize(200).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void changeReadLastIsWrittenLast() throws Exception {
+        // The first change's read is held up until the second change has had its chance
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        CountDownLatch firstReading = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        when(itemRepository.findById(1L))
+                .thenAnswer(invocation -> {
+                    firstReading.countDown();
+                    releaseFirst.await(5, TimeUnit.SECONDS);
+                    return Optional.of(item(1L, "Old umbrella", "Black", "Hall", Item.Status.FOUND));
+                })
+                .thenReturn(Optional.of(item(1L, "New umbrella", "Black", "Hall", Item.Status.CLAIMED)));
+
+        ItemSearchIndex racing = new ItemSearchIndex(itemRepository);
+        ReflectionTestUtils.setField(racing, "searchEngine", "lucene");
+        ReflectionTestUtils.setField(racing, "indexDir", indexDir.resolve("race").toString());
+        ReflectionTestUtils.setField(racing, "maxResults", 1000);
+        racing.open();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() ->
+                    racing.onItemChanged(new ItemChangedEvent(1L, ItemChangedEvent.Type.UPDATED)));
+            assertThat(firstReading.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<?> second = executor.submit(() ->
+                    racing.onItemChanged(new ItemChangedEvent(1L, ItemChangedEvent.Type.STATUS_CHANGED)));
+            Thread.sleep(100);
+            releaseFirst.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+
+            assertThat(racing.search("new", Item.Status.CLAIMED)).containsExactly(1L);
+            assertThat(racing.search("old", null)).isEmpty();
+        } finally {
+            executor.shutdownNow();
+            racing.close();
+        }
+    }
+
+    @Test
+    void commitPersistsChangesAcrossReopen() throws Exception {
+        changed(item(1L, "Water bottle", "Steel", "Gym", Item.Status.FOUND));
+        index.commit();
+        index.close();
+
+        index.open();
+        assertThat(index.search("bottle", null)).containsExactly(1L);
+    }
+
+    private void changed(Item item) {
+        items.put(item.getId(), item);
+        index.onItemChanged(new ItemChangedEvent(item.getId(), ItemChangedEvent.Type.UPDATED));
+    }
+
+    private static Item item(Long id, String name, String description, String location, Item.Status status) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setLocation(location);
+        item.setStatus(status);
+        return item;
+    }
+}
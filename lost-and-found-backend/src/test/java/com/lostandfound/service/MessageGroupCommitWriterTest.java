@@ -0,0 +1,130 @@
+package com.lostandfound.service;
+
+import com.lostandfound.dto.response.MessageResponse;
+import com.lostandfound.exception.ResourceNotFoundException;
+import com.lostandfound.model.ConversationSummary;
+import com.lostandfound.model.Item;
+import com.lostandfound.model.User;
+import com.lostandfound.repository.ConversationSummaryRepository;
+import com.lostandfound.repository.ItemRepository;
+import com.lostandfound.repository.MessageRepository;
+import com.lostandfound.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "messages.group-commit.enabled=true")
+@Import({MessageGroupCommitWriter.class, MessageService.class, ConversationService.class, UnreadMessageCounter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MessageGroupCommitWriterTest {
+
+    @Autowired
+    private MessageGroupCommitWriter writer;
+
+    @Autowired
+    private UnreadMessageCounter unreadMessageCounter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    private User owner;
+    private User finder;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        unreadMessageCounter.reconcile();
+        String suffix = Long.toString(System.nanoTime());
+        owner = saveUser("owner" + suffix);
+        finder = saveUser("finder" + suffix);
+        item = new Item();
+        item.setName("Wallet");
+        item.setDescription("Brown leather");
+        item.setLocation("Library");
+        item.setStatus(Item.Status.FOUND);
+        item.setCreatedBy(owner);
+        item = itemRepository.save(item);
+    }
+
+    @Test
+    void burstIsWrittenWithSummaryAndUnreadCount() {
+        List<CompletableFuture<MessageResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            results.add(writer.submit(finder.getId(), owner.getId(), item.getId(), "Message " + i));
+        }
+
+        List<MessageResponse> sent = results.stream().map(CompletableFuture::join).toList();
+
+        assertThat(sent).extracting(MessageResponse::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(sent).extracting(MessageResponse::getConversationId).containsOnly(sent.get(0).getConversationId());
+        assertThat(messageRepository.countUnread(owner.getId())).isEqualTo(50);
+        assertThat(unreadMessageCounter.get(owner.getId())).isEqualTo(50);
+
+        ConversationSummary ownerRow = conversationSummaryRepository
+                .findInboxFirstPage(owner.getId(), PageRequest.of(0, 10)).get(0);
+        assertThat(ownerRow.getUnreadCount()).isEqualTo(50);
+        assertThat(ownerRow.getLastMessage()).isEqualTo("Message 49");
+        assertThat(ownerRow.getLastMessageId()).isEqualTo(sent.get(49).getId());
+    }
+
+    @Test
+    void onlyTheBadMessageOfABatchFails() {
+        CompletableFuture<MessageResponse> before = writer.submit(finder.getId(), owner.getId(), item.getId(), "before");
+        CompletableFuture<MessageResponse> missing = writer.submit(finder.getId(), owner.getId(), -1L, "missing item");
+        CompletableFuture<MessageResponse> after = writer.submit(owner.getId(), finder.getId(), item.getId(), "after");
+
+        assertThat(before.join().getMessage()).isEqualTo("before");
+        assertThat(after.join().getMessage()).isEqualTo("after");
+        assertThatThrownBy(missing::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void stopWritesWhatIsQueuedAndRefusesLaterSends() throws Exception {
+        List<CompletableFuture<MessageResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(writer.submit(finder.getId(), owner.getId(), item.getId(), "Message " + i));
+        }
+
+        writer.stop();
+        try {
+            assertThat(results).allSatisfy(result -> assertThat(result).isCompleted());
+            // Refused, so the caller uses the direct path instead of waiting forever
+            assertThat(writer.submit(finder.getId(), owner.getId(), item.getId(), "late")).isNull();
+            assertThat(writer.isEnabled()).isFalse();
+        } finally {
+            writer.init();
+        }
+    }
+
+    private User saveUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,115 @@
+package com.lostandfound.service;
+
+import com.lostandfound.dto.request.MessageRequest;
+import com.lostandfound.model.Item;
+import com.lostandfound.model.User;
+import com.lostandfound.repository.ItemRepository;
+import com.lostandfound.repository.UserRepository;
+import com.lostandfound.security.UserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+/**
+ * Inserts per second of the direct send path against group commit, for a burst of
+ * chat on one item from many senders. Run with -Dbenchmark=true; the numbers are only
+ * meaningful relative to each other (the test database is in-memory H2, where a
+ * commit is nearly free, so a real database shows a larger gap).
+ */
+@SpringBootTest(properties = "messages.group-commit.enabled=true")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MessageSendBenchmarkTest {
+
+    private static final int SENDERS = 8;
+    private static final int MESSAGES_PER_SENDER = 1000;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private MessageGroupCommitWriter messageGroupCommitWriter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void directVersusGroupCommit() throws Exception {
+        User owner = saveUser("benchmark-owner");
+        Item item = new Item();
+        item.setName("Popular item");
+        item.setDescription("Everyone is asking about it");
+        item.setLocation("Library");
+        item.setStatus(Item.Status.FOUND);
+        item.setCreatedBy(owner);
+        item = itemRepository.save(item);
+
+        List<UserPrincipal> senders = new ArrayList<>();
+        for (int i = 0; i < SENDERS; i++) {
+            senders.add(UserPrincipal.create(saveUser("benchmark-sender-" + i)));
+        }
+        Long itemId = item.getId();
+        Long ownerId = owner.getId();
+
+        // Warm up both paths
+        run(senders, 20, ownerId, itemId, messageService::sendMessage);
+        run(senders, 20, ownerId, itemId, messageGroupCommitWriter::send);
+
+        double direct = run(senders, MESSAGES_PER_SENDER, ownerId, itemId, messageService::sendMessage);
+        double batchesBefore = meterRegistry.get("messages.group-commit.batches").functionCounter().count();
+        double grouped = run(senders, MESSAGES_PER_SENDER, ownerId, itemId, messageGroupCommitWriter::send);
+        double batches = meterRegistry.get("messages.group-commit.batches").functionCounter().count() - batchesBefore;
+
+        System.out.printf("Direct path:  %.0f inserts/sec%n", direct);
+        System.out.printf("Group commit: %.0f inserts/sec (%.1f messages per transaction)%n",
+                grouped, SENDERS * MESSAGES_PER_SENDER / batches);
+    }
+
+    private double run(List<UserPrincipal> senders, int perSender, Long ownerId, Long itemId,
+                       BiConsumer<MessageRequest, UserPrincipal> send) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(senders.size());
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> done = new ArrayList<>();
+            for (UserPrincipal sender : senders) {
+                done.add(pool.submit(() -> {
+                    for (int i = 0; i < perSender; i++) {
+                        MessageRequest request = new MessageRequest();
+                        request.setReceiverId(ownerId);
+                        request.setItemId(itemId);
+                        request.setMessage("Is this mine? #" + i);
+                        send.accept(request, sender);
+                    }
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get();
+            }
+            return senders.size() * perSender / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private User saveUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "-" + System.nanoTime() + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+}
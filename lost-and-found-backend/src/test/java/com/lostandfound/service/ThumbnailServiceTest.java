@@ -0,0 +1,123 @@
+package com.lostandfound.service;
+
+import com.lostandfound.config.FileStorageProperties;
+import com.lostandfound.repository.ItemRepository;
+import com.lostandfound.repository.StoredFileRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ThumbnailServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private FileStorageService fileStorageService;
+    private ThumbnailService thumbnailService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.setUploadDir(uploadDir.toString());
+        fileStorageService = new FileStorageService(properties,
+                mock(StoredFileRepository.class), mock(PlatformTransactionManager.class));
+        thumbnailService = new ThumbnailService(fileStorageService, mock(ItemRepository.class), mock(ObjectProvider.class));
+        ReflectionTestUtils.setField(thumbnailService, "threads", 1);
+        ReflectionTestUtils.setField(thumbnailService, "queueCapacity", 10);
+        ReflectionTestUtils.setField(thumbnailService, "quality", 0.8f);
+        ReflectionTestUtils.setField(thumbnailService, "maxPixels", 50_000_000L);
+        ReflectionTestUtils.setField(thumbnailService, "variantCacheSize", 100L);
+        ReflectionTestUtils.setField(thumbnailService, "missingRecheck", Duration.ofMinutes(1));
+        thumbnailService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        thumbnailService.stop();
+    }
+
+    @Test
+    void writesEveryWidthKeepingAspectRatio() throws Exception {
+        String image = store("uploads/abc_wallet.png", 3000, 2000);
+
+        assertThat(thumbnailService.generate(image)).isTrue();
+
+        Map<Integer, String> variants = fileStorageService.variantPaths(image);
+        assertThat(variants).containsOnly(
+                Map.entry(160, "uploads/abc_wallet_160.jpg"),
+                Map.entry(480, "uploads/abc_wallet_480.jpg"),
+                Map.entry(1024, "uploads/abc_wallet_1024.jpg"));
+        for (Map.Entry<Integer, String> variant : variants.entrySet()) {
+            BufferedImage thumbnail = read(variant.getValue());
+            assertThat(thumbnail.getWidth()).isEqualTo(variant.getKey());
+            assertThat(thumbnail.getHeight()).isEqualTo(Math.round(variant.getKey() * 2 / 3f));
+        }
+
+        fileStorageService.deleteFile(image);
+        assertThat(fileStorageService.resolveStoredFile(variants.get(480)).orElseThrow()).doesNotExist();
+    }
+
+    @Test
+    void smallImagesAreNotScaledUp() throws Exception {
+        String image = store("uploads/abc_keys.png", 300, 100);
+
+        assertThat(thumbnailService.generate(image)).isTrue();
+
+        assertThat(read("uploads/abc_keys_160.jpg").getWidth()).isEqualTo(160);
+        assertThat(read("uploads/abc_keys_1024.jpg").getWidth()).isEqualTo(300);
+    }
+
+    @Test
+    void onlyWrittenVariantsAreAdvertised() throws Exception {
+        String image = store("uploads/abc_scarf.png", 1200, 800);
+
+        // Nothing written yet; clients use the original
+        assertThat(thumbnailService.availableVariants(image)).isEmpty();
+
+        assertThat(thumbnailService.generate(image)).isTrue();
+        assertThat(thumbnailService.availableVariants(image)).containsOnlyKeys(160, 480, 1024);
+
+        // A complete answer is cached rather than checked against the disk again
+        Files.delete(fileStorageService.resolveStoredFile("uploads/abc_scarf_480.jpg").orElseThrow());
+        assertThat(thumbnailService.availableVariants(image)).containsOnlyKeys(160, 480, 1024);
+    }
+
+    @Test
+    void undecodableFilesAreSkipped() throws Exception {
+        Files.writeString(uploadDir.resolve("abc_notes.png"), "not an image");
+
+        assertThat(thumbnailService.generate("uploads/abc_notes.png")).isFalse();
+        assertThat(uploadDir.resolve("abc_notes_160.jpg")).doesNotExist();
+    }
+
+    private String store(String path, int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.BLUE);
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.dispose();
+        ImageIO.write(image, "png", fileStorageService.resolveStoredFile(path).orElseThrow().toFile());
+        return path;
+    }
+
+    private BufferedImage read(String path) throws Exception {
+        return ImageIO.read(fileStorageService.resolveStoredFile(path).orElseThrow().toFile());
+    }
+}
@@ -0,0 +1,94 @@
+package com.lostandfound.service;
+
+import com.lostandfound.repository.MessageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UnreadMessageCounterTest {
+
+    private MessageRepository messageRepository;
+    private UnreadMessageCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        messageRepository = mock(MessageRepository.class);
+        counter = new UnreadMessageCounter(messageRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void countsInTheDatabaseUntilTheFirstFullCount() {
+        when(messageRepository.countUnread(1L)).thenReturn(3L);
+
+        counter.adjustAfterCommit(1L, 1);
+
+        assertThat(counter.get(1L)).isEqualTo(3);
+    }
+
+    @Test
+    void servesCountsFromMemoryOnceLoaded() {
+        when(messageRepository.countUnreadByReceiver()).thenReturn(rows(new Object[]{1L, 2L}));
+        counter.reconcile();
+
+        counter.adjustAfterCommit(1L, 1);
+        counter.adjustAfterCommit(2L, 1);
+        counter.adjustAfterCommit(2L, -1);
+
+        assertThat(counter.get(1L)).isEqualTo(3);
+        assertThat(counter.get(2L)).isZero();
+        assertThat(counter.get(3L)).isZero();
+        verify(messageRepository, never()).countUnread(anyLong());
+    }
+
+    @Test
+    void reconcileCorrectsDrift() {
+        when(messageRepository.countUnreadByReceiver()).thenReturn(rows(new Object[]{1L, 2L}));
+        counter.reconcile();
+        counter.adjustAfterCommit(1L, 5);
+        counter.adjustAfterCommit(2L, 1);
+
+        when(messageRepository.countUnreadByReceiver()).thenReturn(rows(new Object[]{1L, 4L}, new Object[]{3L, 1L}));
+        counter.reconcile();
+
+        assertThat(counter.get(1L)).isEqualTo(4);
+        assertThat(counter.get(2L)).isZero();
+        assertThat(counter.get(3L)).isEqualTo(1);
+    }
+
+    @Test
+    void changesApplyOnlyAfterCommit() {
+        when(messageRepository.countUnreadByReceiver()).thenReturn(List.of());
+        counter.reconcile();
+
+        TransactionSynchronizationManager.initSynchronization();
+        counter.adjustAfterCommit(1L, 1);
+        assertThat(counter.get(1L)).isZero();
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertThat(counter.get(1L)).isEqualTo(1);
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
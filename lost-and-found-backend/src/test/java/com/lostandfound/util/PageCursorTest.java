@@ -0,0 +1,65 @@
+package com.lostandfound.util;
+
+import com.lostandfound.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    @Test
+    void keysetCursorRoundTrips() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 1, 10, 0, 0, 123_456_000);
+
+        PageCursor decoded = PageCursor.decode(PageCursor.after(timestamp, 42L).encode());
+
+        assertThat(decoded.isKeyset()).isTrue();
+        assertThat(decoded.getTimestamp()).isEqualTo(timestamp);
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void offsetCursorRoundTrips() {
+        PageCursor decoded = PageCursor.decode(PageCursor.atOffset(150).encode());
+
+        assertThat(decoded.isKeyset()).isFalse();
+        assertThat(decoded.getOffset()).isEqualTo(150);
+    }
+
+    @Test
+    void missingCursorMeansTheFirstPage() {
+        assertThat(PageCursor.decode(null)).isNull();
+        assertThat(PageCursor.decode("")).isNull();
+        assertThat(PageCursor.decode("   ")).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "not base64!",
+            "k|yesterday|7",
+            "k|2024-01-01T10:00|seven",
+            "k|2024-01-01T10:00",
+            "o|-1",
+            "o|many",
+            "x|1",
+    })
+    void invalidAndTamperedCursorsAreRejected(String payload) {
+        // Everything but the first case is valid base64 around a bad payload
+        String token = payload.contains("!") ? payload : encode(payload);
+
+        assertThatThrownBy(() -> PageCursor.decode(token))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid pagination cursor");
+    }
+
+    private static String encode(String payload) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
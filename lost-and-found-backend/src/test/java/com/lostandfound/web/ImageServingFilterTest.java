@@ -0,0 +1,155 @@
+package com.lostandfound.web;
+
+import com.lostandfound.config.FileStorageProperties;
+import com.lostandfound.repository.StoredFileRepository;
+import com.lostandfound.service.FileStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ImageServingFilterTest {
+
+    private static final String SHA = "ab" + "cd" + "0123456789".repeat(6);
+    private static final String CONTENT_URI = "/uploads/ab/cd/" + SHA + ".jpg";
+
+    @TempDir
+    Path uploadDir;
+
+    private ImageServingFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.setUploadDir(uploadDir.toString());
+        FileStorageService fileStorageService = new FileStorageService(properties,
+                mock(StoredFileRepository.class), mock(PlatformTransactionManager.class));
+        filter = new ImageServingFilter(fileStorageService, 3600, 100);
+
+        Path content = uploadDir.resolve("ab/cd/" + SHA + ".jpg");
+        Files.createDirectories(content.getParent());
+        Files.writeString(content, "0123456789");
+        Files.writeString(uploadDir.resolve("abc_wallet.png"), "flat image");
+    }
+
+    @Test
+    void contentAddressedFilesAreImmutable() throws Exception {
+        MockHttpServletResponse response = serve(get(CONTENT_URI));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+        assertThat(response.getContentType()).isEqualTo("image/jpeg");
+        assertThat(response.getHeader("ETag")).isEqualTo("\"" + SHA + "\"");
+        assertThat(response.getHeader("Cache-Control")).isEqualTo("public, max-age=31536000, immutable");
+        assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+
+        MockHttpServletRequest revalidate = get(CONTENT_URI);
+        revalidate.addHeader("If-None-Match", "W/\"other\", \"" + SHA + "\"");
+        MockHttpServletResponse notModified = serve(revalidate);
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(notModified.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void variantsAreHashedAndNotImmutable() throws Exception {
+        Path variant = uploadDir.resolve("ab/cd/" + SHA + "_300.jpg");
+        Files.writeString(variant, "small");
+
+        MockHttpServletResponse response = serve(get("/uploads/ab/cd/" + SHA + "_300.jpg"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("ETag")).matches("\"[0-9a-f]{64}\"").isNotEqualTo("\"" + SHA + "_300\"");
+        assertThat(response.getHeader("Cache-Control")).isEqualTo("public, max-age=3600");
+
+        // A regenerated variant gets a new tag
+        Files.writeString(variant, "regenerated");
+        Files.setLastModifiedTime(variant, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        assertThat(serve(get("/uploads/ab/cd/" + SHA + "_300.jpg")).getHeader("ETag"))
+                .isNotEqualTo(response.getHeader("ETag"));
+    }
+
+    @Test
+    void flatFilesGetContentHashEtag() throws Exception {
+        MockHttpServletResponse response = serve(get("/static/abc_wallet.png"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).isEqualTo("image/png");
+        assertThat(response.getHeader("ETag")).matches("\"[0-9a-f]{64}\"");
+        assertThat(response.getHeader("Cache-Control")).isEqualTo("public, max-age=3600");
+        assertThat(serve(get("/uploads/abc_wallet.png")).getHeader("ETag")).isEqualTo(response.getHeader("ETag"));
+    }
+
+    @Test
+    void servesByteRanges() throws Exception {
+        MockHttpServletRequest request = get(CONTENT_URI);
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse partial = serve(request);
+        assertThat(partial.getStatus()).isEqualTo(206);
+        assertThat(partial.getHeader("Content-Range")).isEqualTo("bytes 2-5/10");
+        assertThat(partial.getContentAsString()).isEqualTo("2345");
+
+        request = get(CONTENT_URI);
+        request.addHeader("Range", "bytes=-3");
+        assertThat(serve(request).getContentAsString()).isEqualTo("789");
+
+        request = get(CONTENT_URI);
+        request.addHeader("Range", "bytes=10-");
+        MockHttpServletResponse unsatisfiable = serve(request);
+        assertThat(unsatisfiable.getStatus()).isEqualTo(416);
+        assertThat(unsatisfiable.getHeader("Content-Range")).isEqualTo("bytes */10");
+
+        // A stale If-Range gets the whole, current file
+        request = get(CONTENT_URI);
+        request.addHeader("Range", "bytes=2-5");
+        request.addHeader("If-Range", "\"old\"");
+        MockHttpServletResponse whole = serve(request);
+        assertThat(whole.getStatus()).isEqualTo(200);
+        assertThat(whole.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void handsTheBodyToSendfileWhenTheConnectorSupportsIt() throws Exception {
+        MockHttpServletRequest request = get(CONTENT_URI);
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=4-");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(response.getContentLengthLong()).isEqualTo(6);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename"))
+                .isEqualTo(uploadDir.resolve("ab/cd/" + SHA + ".jpg").toRealPath().toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(4L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(10L);
+    }
+
+    @Test
+    void missingAndEscapingPathsAreNotFound() throws Exception {
+        assertThat(serve(get("/uploads/missing.png")).getStatus()).isEqualTo(404);
+        assertThat(serve(get("/uploads/..%2Fsecret")).getStatus()).isEqualTo(404);
+        assertThat(serve(get("/uploads/")).getStatus()).isEqualTo(404);
+    }
+
+    private static MockHttpServletRequest get(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        return request;
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
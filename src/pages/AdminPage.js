@@ -9,6 +9,8 @@ import withReactContent from "sweetalert2-react-content";
 
 const MySwal = withReactContent(Swal);
 
+const PAGE_SIZE = 50;
+
 export default function AdminPage() {
   const navigate = useNavigate();
   const [loading, setLoading] = useState(true);
@@ -17,6 +19,8 @@ export default function AdminPage() {
   const [users, setUsers] = useState([]);
   const [feedback, setFeedback] = useState([]);
   const [stats, setStats] = useState({});
+  const [page, setPage] = useState(0);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   // Validate Admin Access
   const validateAdminAccess = async () => {
@@ -52,10 +56,11 @@ export default function AdminPage() {
     }
   };
 
-  // Fetch Admin Dashboard Data
-  const fetchAdminData = async () => {
+  // Fetch Admin Dashboard Data, one page of each list; later pages are appended
+  const fetchAdminData = async (nextPage = 0) => {
     try {
-      const res = await fetch(`${API_BASE_URL}${API_ENDPOINTS.ADMIN_DASHBOARD}`, {
+      const params = new URLSearchParams({ page: String(nextPage), size: String(PAGE_SIZE) });
+      const res = await fetch(`${API_BASE_URL}${API_ENDPOINTS.ADMIN_DASHBOARD}?${params.toString()}`, {
         method: 'GET',
         credentials: "include",
         headers: {
@@ -74,11 +79,13 @@ export default function AdminPage() {
       const data = await res.json();
 
       if (data.success) {
-        setItems(data.items || []);
-        setClaims(data.claims || []);
-        setUsers(data.users || []);
-        setFeedback(data.feedback || []);
+        const append = (current, next) => (nextPage > 0 ? [...current, ...(next || [])] : next || []);
+        setItems((current) => append(current, data.items));
+        setClaims((current) => append(current, data.claims));
+        setUsers((current) => append(current, data.users));
+        setFeedback((current) => append(current, data.feedback));
         setStats(data.stats || {});
+        setPage(nextPage);
       }
     } catch (err) {
       toast.error("Failed to load admin data.");
@@ -162,6 +169,18 @@ export default function AdminPage() {
     });
   };
 
+  const hasMore =
+    items.length < (stats.totalItems || 0) ||
+    claims.length < (stats.totalClaims || 0) ||
+    users.length < (stats.totalUsers || 0) ||
+    feedback.length < (stats.totalFeedback || 0);
+
+  const loadMore = async () => {
+    setLoadingMore(true);
+    await fetchAdminData(page + 1);
+    setLoadingMore(false);
+  };
+
   if (loading) {
     return (
       <div className="min-h-screen flex items-center justify-center">
@@ -318,6 +337,18 @@ export default function AdminPage() {
           </button>,
         ]}
       />
+
+      {hasMore && (
+        <div className="text-center">
+          <button
+            onClick={loadMore}
+            disabled={loadingMore}
+            className="px-6 py-2 border border-blue-600 text-blue-600 rounded-lg hover:bg-blue-50 transition font-medium disabled:opacity-50"
+          >
+            {loadingMore ? "Loading..." : "Load more"}
+          </button>
+        </div>
+      )}
     </div>
   );
 }
\ No newline at end of file
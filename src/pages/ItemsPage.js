@@ -3,12 +3,16 @@ import { useEffect, useState } from "react";
 import { API_BASE_URL, API_ENDPOINTS } from "../config/api";
 import toast, { Toaster } from "react-hot-toast";
 
+const PAGE_SIZE = 50;
+
 export default function ItemsPage() {
   const [items, setItems] = useState([]);
   const [search, setSearch] = useState("");
   const [filter, setFilter] = useState(""); // Backend expects "" for all, "LOST", "FOUND", or "CLAIMED"
   const [currentUser, setCurrentUser] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null); // "next" from the last page, null on the last page
+  const [loadingMore, setLoadingMore] = useState(false);
 
   const [showMessageBox, setShowMessageBox] = useState(false);
   const [showClaimModal, setShowClaimModal] = useState(false);
@@ -49,11 +53,14 @@ export default function ItemsPage() {
     }
   };
 
-  const fetchItems = async () => {
+  // Items come one page at a time; passing a cursor appends the following page
+  const fetchItems = async (cursor = null) => {
     try {
       const params = new URLSearchParams();
       if (search) params.append("search", search);
       if (filter) params.append("status", filter);
+      params.append("limit", String(PAGE_SIZE));
+      if (cursor) params.append("cursor", cursor);
 
       const res = await fetch(
         `${API_BASE_URL}${API_ENDPOINTS.ITEMS}?${params.toString()}`,
@@ -69,7 +76,9 @@ export default function ItemsPage() {
       if (!res.ok) throw new Error("Failed to fetch items");
 
       const data = await res.json();
-      setItems(data.items || []);
+      const page = data.items || [];
+      setItems((current) => (cursor ? [...current, ...page] : page));
+      setNextCursor(data.hasMore ? data.next : null);
     } catch (err) {
       console.error(err);
       toast.error("Failed to load items");
@@ -78,6 +87,13 @@ export default function ItemsPage() {
     }
   };
 
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    await fetchItems(nextCursor);
+    setLoadingMore(false);
+  };
+
   // Trigger search when search or filter changes
   useEffect(() => {
     const debounce = setTimeout(() => {
@@ -311,6 +327,18 @@ export default function ItemsPage() {
         ))}
       </div>
 
+      {nextCursor && (
+        <div className="text-center">
+          <button
+            onClick={loadMore}
+            disabled={loadingMore}
+            className="px-6 py-2 border border-blue-600 text-blue-600 rounded-lg hover:bg-blue-50 transition font-medium disabled:opacity-50"
+          >
+            {loadingMore ? "Loading..." : "Load more"}
+          </button>
+        </div>
+      )}
+
       {items.length === 0 && (
         <div className="text-center py-20">
           <p className="text-gray-500 text-lg">No items found.</p>